@@ -1,6 +1,10 @@
 package com.alpha53.virtualteacher;
 
+import com.alpha53.virtualteacher.models.FilterOptions;
+import com.alpha53.virtualteacher.repositories.contracts.CourseDao;
+import com.alpha53.virtualteacher.utilities.ReferenceDataRefresher;
 import com.alpha53.virtualteacher.services.contracts.StorageService;
+import com.alpha53.virtualteacher.utilities.search.CourseSearchIndex;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -20,4 +24,19 @@ public class VirtualTeacherApplication {
 			storageService.init();
 		};
 	}
+
+	@Bean
+	CommandLineRunner buildCourseSearchIndex(CourseDao courseDao, CourseSearchIndex courseSearchIndex) {
+		return (args) -> courseSearchIndex.rebuild(courseDao.get(new FilterOptions()));
+	}
+
+	@Bean
+	CommandLineRunner buildEnrollmentIndex(CourseDao courseDao) {
+		return (args) -> courseDao.rebuildEnrollmentIndex();
+	}
+
+	@Bean
+	CommandLineRunner loadReferenceData(ReferenceDataRefresher referenceDataRefresher) {
+		return (args) -> referenceDataRefresher.refresh();
+	}
 }
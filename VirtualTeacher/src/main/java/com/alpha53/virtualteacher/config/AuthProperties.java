@@ -0,0 +1,105 @@
+package com.alpha53.virtualteacher.config;
+
+import com.alpha53.virtualteacher.utilities.helpers.PasswordHasher;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "auth")
+public class AuthProperties {
+
+    /**
+     * Base64 encoded key which signs the API tokens. Without it a random key is generated on start,
+     * so tokens do not survive a restart and are not accepted by other instances
+     */
+    private String tokenSecret;
+
+    /**
+     * How long an issued API token is accepted
+     */
+    private Duration tokenTtl = Duration.ofMinutes(15);
+
+    /**
+     * PBKDF2 iterations of newly hashed passwords. Existing hashes keep the count they were created with
+     */
+    private int passwordHashIterations = PasswordHasher.DEFAULT_ITERATIONS;
+
+    /**
+     * Number of threads which verify password hashes
+     */
+    private int verificationThreads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * Number of password verifications which may wait for a thread, further logins are refused
+     */
+    private int verificationQueueCapacity = 64;
+
+    /**
+     * Time a request waits for its password to be verified
+     */
+    private Duration verificationTimeout = Duration.ofSeconds(5);
+
+    /**
+     * How long a verified password is accepted again without hashing it, 0 to always hash
+     */
+    private Duration credentialCacheTtl = Duration.ofMinutes(1);
+
+    public String getTokenSecret() {
+        return tokenSecret;
+    }
+
+    public void setTokenSecret(String tokenSecret) {
+        this.tokenSecret = tokenSecret;
+    }
+
+    public Duration getTokenTtl() {
+        return tokenTtl;
+    }
+
+    public void setTokenTtl(Duration tokenTtl) {
+        this.tokenTtl = tokenTtl;
+    }
+
+    public int getPasswordHashIterations() {
+        return passwordHashIterations;
+    }
+
+    public void setPasswordHashIterations(int passwordHashIterations) {
+        this.passwordHashIterations = passwordHashIterations;
+    }
+
+    public int getVerificationThreads() {
+        return verificationThreads;
+    }
+
+    public void setVerificationThreads(int verificationThreads) {
+        this.verificationThreads = verificationThreads;
+    }
+
+    public int getVerificationQueueCapacity() {
+        return verificationQueueCapacity;
+    }
+
+    public void setVerificationQueueCapacity(int verificationQueueCapacity) {
+        this.verificationQueueCapacity = verificationQueueCapacity;
+    }
+
+    public Duration getVerificationTimeout() {
+        return verificationTimeout;
+    }
+
+    public void setVerificationTimeout(Duration verificationTimeout) {
+        this.verificationTimeout = verificationTimeout;
+    }
+
+    public Duration getCredentialCacheTtl() {
+        return credentialCacheTtl;
+    }
+
+    public void setCredentialCacheTtl(Duration credentialCacheTtl) {
+        this.credentialCacheTtl = credentialCacheTtl;
+    }
+
+}
@@ -1,18 +1,44 @@
 package com.alpha53.virtualteacher.config;
 
+import jakarta.annotation.PreDestroy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Configuration
 public class Config {
+    private static final int HTTP_CLIENT_THREADS = 4;
+
+    // Runs the response handling of the HttpClient, so slow responses never occupy the common pool or request threads.
+    private final ExecutorService httpClientExecutor = Executors.newFixedThreadPool(HTTP_CLIENT_THREADS, new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "http-client-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
     @Bean
-    public HttpClient httpClient(){
+    public HttpClient httpClient(WikiProperties wikiProperties){
         return HttpClient
                 .newBuilder()
                 .followRedirects(HttpClient.Redirect.ALWAYS)
+                .connectTimeout(wikiProperties.getConnectTimeout())
+                .executor(httpClientExecutor)
                 .build();
     }
 
+    @PreDestroy
+    public void shutdown() {
+        httpClientExecutor.shutdown();
+    }
+
 }
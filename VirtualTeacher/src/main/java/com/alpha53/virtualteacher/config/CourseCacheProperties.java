@@ -0,0 +1,39 @@
+package com.alpha53.virtualteacher.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "course-cache")
+public class CourseCacheProperties {
+
+    /**
+     * Maximum number of courses kept in the cache, the least recently used course is evicted first
+     */
+    private int maxSize = 1000;
+
+    /**
+     * How long a cached course is served. Course writes invalidate it right away,
+     * the time to live only bounds how long changes of the creator profile can show up stale
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+}
@@ -1,16 +1,81 @@
-/*
 package com.alpha53.virtualteacher.config;
 
+import com.alpha53.virtualteacher.utilities.helpers.AssetVersionStrategy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+import org.springframework.web.util.UrlPathHelper;
 
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the static assets under fingerprinted URLs. Links built with @{...} in the templates are rewritten
+ * by the {@link ResourceUrlEncodingFilter} to carry the content hash, so a fingerprinted asset never changes
+ * and is cached for a year; the gzip or brotli variant made at build time is served when the client accepts it.
+ */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+    private static final String[] ASSET_PATHS = {"/css/**", "/js/**", "/assets/**"};
+    private static final String UPLOADS_PATH = "/assets/fileStorage/**";
+    private static final String IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue();
+    private static final String REVALIDATE = CacheControl.noCache().getHeaderValue();
+
+    private final AssetVersionStrategy assetVersionStrategy;
+
+    public WebConfig(AssetVersionStrategy assetVersionStrategy) {
+        this.assetVersionStrategy = assetVersionStrategy;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/static/**")
+        // Not versioned, links to an upload must stay valid when the file is replaced
+        registry.addResourceHandler(UPLOADS_PATH)
+                .addResourceLocations("classpath:/static/assets/fileStorage/")
+                .setCacheControl(CacheControl.noCache());
+        registry.addResourceHandler("/**")
                 .addResourceLocations("classpath:/static/")
-                .setCachePeriod(0);
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addVersionStrategy(assetVersionStrategy, ASSET_PATHS));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AssetCacheInterceptor(assetVersionStrategy))
+                .addPathPatterns(ASSET_PATHS)
+                .excludePathPatterns(UPLOADS_PATH);
+    }
+
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+
+    private static class AssetCacheInterceptor implements HandlerInterceptor {
+        private final AssetVersionStrategy assetVersionStrategy;
+
+        private AssetCacheInterceptor(AssetVersionStrategy assetVersionStrategy) {
+            this.assetVersionStrategy = assetVersionStrategy;
+        }
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            if (handler instanceof ResourceHttpRequestHandler) {
+                String path = UrlPathHelper.defaultInstance.getLookupPathForRequest(request).substring(1);
+                response.setHeader(HttpHeaders.CACHE_CONTROL, assetVersionStrategy.isFingerprinted(path) ? IMMUTABLE : REVALIDATE);
+            }
+            return true;
+        }
     }
-}*/
+}
@@ -0,0 +1,155 @@
+package com.alpha53.virtualteacher.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "wiki")
+public class WikiProperties {
+
+    /**
+     * Where wiki searches are answered: "online" queries the MediaWiki API, "local" the index built from a dump
+     */
+    private String source = "online";
+
+    /**
+     * Base URI of the MediaWiki API
+     */
+    private String apiUri = "https://en.wikipedia.org/w/api.php";
+
+    /**
+     * Maximum number of characters of cleaned article text kept per result, 0 for the whole article
+     */
+    private int contentMaxLength = 5000;
+
+    /**
+     * How long search results are served from the cache before they are fetched again
+     */
+    private Duration cacheTtl = Duration.ofMinutes(10);
+
+    /**
+     * Time allowed to open a connection to the MediaWiki API
+     */
+    private Duration connectTimeout = Duration.ofSeconds(3);
+
+    /**
+     * Time allowed for every single MediaWiki API request
+     */
+    private Duration requestTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Maximum number of searches sent to the MediaWiki API at the same time, further searches are rejected
+     */
+    private int maxConcurrentCalls = 8;
+
+    /**
+     * Number of consecutive failed searches which open the circuit breaker
+     */
+    private int breakerFailureThreshold = 5;
+
+    /**
+     * How long the open circuit breaker rejects searches before it lets a trial search through
+     */
+    private Duration breakerOpenDuration = Duration.ofSeconds(30);
+
+    /**
+     * MediaWiki XML dump, plain or gzipped, ingested when the local index does not exist yet
+     */
+    private String localDumpPath;
+
+    /**
+     * Folder location of the local wiki index
+     */
+    private String localIndexPath = "wiki-index";
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public String getApiUri() {
+        return apiUri;
+    }
+
+    public void setApiUri(String apiUri) {
+        this.apiUri = apiUri;
+    }
+
+    public int getContentMaxLength() {
+        return contentMaxLength;
+    }
+
+    public void setContentMaxLength(int contentMaxLength) {
+        this.contentMaxLength = contentMaxLength;
+    }
+
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(Duration cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+
+    public int getBreakerFailureThreshold() {
+        return breakerFailureThreshold;
+    }
+
+    public void setBreakerFailureThreshold(int breakerFailureThreshold) {
+        this.breakerFailureThreshold = breakerFailureThreshold;
+    }
+
+    public Duration getBreakerOpenDuration() {
+        return breakerOpenDuration;
+    }
+
+    public void setBreakerOpenDuration(Duration breakerOpenDuration) {
+        this.breakerOpenDuration = breakerOpenDuration;
+    }
+
+    public String getLocalDumpPath() {
+        return localDumpPath;
+    }
+
+    public void setLocalDumpPath(String localDumpPath) {
+        this.localDumpPath = localDumpPath;
+    }
+
+    public String getLocalIndexPath() {
+        return localIndexPath;
+    }
+
+    public void setLocalIndexPath(String localIndexPath) {
+        this.localIndexPath = localIndexPath;
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.alpha53.virtualteacher.controllers.mvc;
 
+import com.alpha53.virtualteacher.exceptions.AuthenticationUnavailableException;
 import com.alpha53.virtualteacher.exceptions.AuthorizationException;
 import com.alpha53.virtualteacher.exceptions.EntityDuplicateException;
 import com.alpha53.virtualteacher.exceptions.EntityNotFoundException;
@@ -51,13 +52,9 @@ public class AuthenticationMvcController {
             return "login";
         }
         try {
-            User user = authenticationHelper.verifyAuthentication(login.getEmail(), login.getPassword());
-            session.setAttribute("currentUserEmail", user.getEmail());
-            // TODO: 11.12.23 consider adding userDtoOut here if we do not need the pass! 
-            session.setAttribute("currentUser", user);
-            session.setAttribute("currentUserRole", user.getRole().getRoleType());
+            authenticationHelper.logIn(session, login.getEmail(), login.getPassword());
             return "redirect:/";
-        } catch (AuthorizationException e) {
+        } catch (AuthorizationException | AuthenticationUnavailableException e) {
             bindingResult.rejectValue("email", "auth_error", e.getMessage());
             return "login";
         }
@@ -65,7 +62,7 @@ public class AuthenticationMvcController {
 
     @GetMapping("/logout")
     public String handleLogout(HttpSession session) {
-        session.removeAttribute("currentUser");
+        authenticationHelper.logOut(session);
         return "redirect:/";
     }
 
@@ -60,6 +60,7 @@ public class CourseMvcController {
                                   @RequestParam(required = false) String isPublic,
                                   @RequestParam(required = false) String sortBy,
                                   @RequestParam(required = false) String sortOrder,
+                                  @RequestParam(required = false) String search,
                                   Model model,
                                   HttpSession session
     ) {
@@ -69,7 +70,7 @@ public class CourseMvcController {
         } else {
             isPublicBool = Boolean.parseBoolean(isPublic);
         }
-        FilterOptions filterOptions = new FilterOptions(title, topic, teacher, rating, isPublicBool, sortBy, sortOrder);
+        FilterOptions filterOptions = new FilterOptions(title, topic, teacher, rating, isPublicBool, sortBy, sortOrder, null, null, search);
         Optional<User> optionalUser = Optional.empty();
         try {
             optionalUser = Optional.of(authenticationHelper.tryGetCurrentUser(session));
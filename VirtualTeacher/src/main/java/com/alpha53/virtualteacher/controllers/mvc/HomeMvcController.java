@@ -1,5 +1,7 @@
 package com.alpha53.virtualteacher.controllers.mvc;
 
+import com.alpha53.virtualteacher.exceptions.InvalidCursorException;
+import com.alpha53.virtualteacher.models.CoursePage;
 import com.alpha53.virtualteacher.models.FilterOptions;
 import com.alpha53.virtualteacher.models.User;
 import com.alpha53.virtualteacher.models.dtos.FilterOptionDto;
@@ -45,7 +47,15 @@ public class HomeMvcController {
             user = Optional.ofNullable(authenticationHelper.tryGetCurrentUser(session));
         }
         FilterOptions filterOption = FilterMapper.fromFilterOptionsDtoToFilterOptions(filterOptionDto);
-        model.addAttribute("courses", courseService.get(filterOption, user));
+        try {
+            CoursePage coursePage = courseService.getPage(filterOption, user);
+            model.addAttribute("courses", coursePage.getCourses());
+            model.addAttribute("nextCursor", coursePage.getNextCursor());
+        } catch (InvalidCursorException e) {
+            model.addAttribute("errorMessage", e.getMessage());
+            model.addAttribute("statusCode", 400);
+            return "4xx";
+        }
         model.addAttribute("filterOptions", filterOptionDto);
         return "index";
     }
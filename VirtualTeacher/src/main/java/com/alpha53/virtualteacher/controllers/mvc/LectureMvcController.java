@@ -4,7 +4,6 @@ import com.alpha53.virtualteacher.exceptions.*;
 import com.alpha53.virtualteacher.models.Lecture;
 import com.alpha53.virtualteacher.models.Solution;
 import com.alpha53.virtualteacher.models.User;
-import com.alpha53.virtualteacher.models.WikiResult;
 import com.alpha53.virtualteacher.models.dtos.UpdateLectureDto;
 import com.alpha53.virtualteacher.models.dtos.WikiSearchDto;
 import com.alpha53.virtualteacher.repositories.contracts.SolutionDao;
@@ -27,8 +26,8 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
-import java.net.URISyntaxException;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Controller
 @RequestMapping("/course")
@@ -58,11 +57,11 @@ public class LectureMvcController {
     }
 
     @GetMapping("/{courseId}/lecture/{lectureId}")
-    public String singleLecture(@PathVariable(name = "courseId") @Positive(message = "Course ID must be a positive integer") int courseId,
-                                @PathVariable(name = "lectureId") @Positive(message = "Lecture ID must be a positive integer") int lectureId,
-                                @ModelAttribute(name = "wikiSearchCriteria") WikiSearchDto wikiSearchDto,
-                                Model model,
-                                HttpSession session) {
+    public CompletableFuture<String> singleLecture(@PathVariable(name = "courseId") @Positive(message = "Course ID must be a positive integer") int courseId,
+                                                   @PathVariable(name = "lectureId") @Positive(message = "Lecture ID must be a positive integer") int lectureId,
+                                                   @ModelAttribute(name = "wikiSearchCriteria") WikiSearchDto wikiSearchDto,
+                                                   Model model,
+                                                   HttpSession session) {
 
         try {
             User user = authenticationHelper.tryGetCurrentUser(session);
@@ -71,23 +70,29 @@ public class LectureMvcController {
             model.addAttribute("isAssignmentExist", lectureService.isAssignmentExist(lectureId));
             model.addAttribute("isEnrolled", courseService.isUserEnrolled(user.getUserId(), courseId));
             if (wikiSearchDto.getWikiSearchCriteria() != null && !wikiSearchDto.getWikiSearchCriteria().isBlank()) {
-                List<WikiResult> wikiSearchResult = wikiService.getSearchResult(wikiSearchDto.getWikiSearchCriteria());
-                model.addAttribute("wikiSearchResult", wikiSearchResult);
+                // The servlet thread is released while Wikipedia is queried, the view is rendered when the search completes.
+                return wikiService.getSearchResultAsync(wikiSearchDto.getWikiSearchCriteria())
+                        .thenApply(wikiSearchResult -> {
+                            model.addAttribute("wikiSearchResult", wikiSearchResult);
+                            return "single-lecture";
+                        })
+                        .exceptionally(e -> {
+                            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                            model.addAttribute("errorMessage", cause.getMessage());
+                            model.addAttribute("statusCode", 500);
+                            return "5xx";
+                        });
             }
-            return "single-lecture";
+            return CompletableFuture.completedFuture("single-lecture");
         } catch (EntityNotFoundException e) {
             model.addAttribute("errorMessage", e.getMessage());
             model.addAttribute("statusCode", 404);
-            return "4xx";
-        } catch (URISyntaxException | IOException | InterruptedException e) {
-            model.addAttribute("errorMessage", e.getMessage());
-            model.addAttribute("statusCode", 500);
-            return "5xx";
+            return CompletableFuture.completedFuture("4xx");
         }
         catch (AuthorizationException e){
             model.addAttribute("errorMessage", e.getMessage());
             model.addAttribute("statusCode", 401);
-            return "4xx";
+            return CompletableFuture.completedFuture("4xx");
         }
     }
 
@@ -140,7 +140,6 @@ public class UserMvcController {
         userDto.setFirstName(userToGet.getFirstName());
         userDto.setLastName(userToGet.getLastName());
         userDto.setEmail(userToGet.getEmail());
-        userDto.setPassword(userToGet.getPassword());
         userDto.setRole(userToGet.getRole().getRoleType());
         model.addAttribute("userDto", userDto);
         return "user-settings";
@@ -179,8 +178,7 @@ public class UserMvcController {
             if (user.getRole().getRoleType().equalsIgnoreCase("Admin") && user.getUserId() != id) {
                 return "redirect:/users";
             }
-            session.removeAttribute("currentUser");
-            session.removeAttribute("currentUserEmail");
+            authenticationHelper.logOut(session);
             return "redirect:/auth/login";
         } catch (AuthorizationException e) {
             // TODO: 13.12.23 we can just add a specific exception statement later on.
@@ -234,7 +232,6 @@ public class UserMvcController {
             User loggedInUser = authenticationHelper.tryGetCurrentUser(session);
             userService.uploadProfilePicture(file, loggedInUser, id);
             model.addAttribute("userProfile", userService.get(id));
-            session.setAttribute("currentUser", loggedInUser);
             return "redirect:/users/{id}/profile";
         } catch (AuthorizationException e) {
             model.addAttribute("errorMessage", e.getMessage());
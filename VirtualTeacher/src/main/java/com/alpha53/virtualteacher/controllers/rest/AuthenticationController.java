@@ -0,0 +1,43 @@
+package com.alpha53.virtualteacher.controllers.rest;
+
+import com.alpha53.virtualteacher.exceptions.AuthorizationException;
+import com.alpha53.virtualteacher.models.dtos.LoginDto;
+import com.alpha53.virtualteacher.models.dtos.TokenDto;
+import com.alpha53.virtualteacher.utilities.helpers.ApiTokenManager;
+import com.alpha53.virtualteacher.utilities.helpers.AuthenticationHelper;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("api/v1/auth")
+public class AuthenticationController {
+    private final AuthenticationHelper authenticationHelper;
+
+    @Autowired
+    public AuthenticationController(AuthenticationHelper authenticationHelper) {
+        this.authenticationHelper = authenticationHelper;
+    }
+
+    @PostMapping("/token")
+    public TokenDto issueToken(@Valid @RequestBody LoginDto loginDto) {
+        try {
+            ApiTokenManager.IssuedToken token = authenticationHelper.issueToken(loginDto.getEmail(), loginDto.getPassword());
+            return new TokenDto(token.token(), ApiTokenManager.TOKEN_TYPE, token.expiresAt());
+        } catch (AuthorizationException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        }
+    }
+
+    @PostMapping("/revoke")
+    public void revokeToken(@RequestHeader HttpHeaders headers) {
+        try {
+            authenticationHelper.revokeToken(headers);
+        } catch (AuthorizationException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        }
+    }
+}
@@ -3,39 +3,61 @@ package com.alpha53.virtualteacher.controllers.rest;
 import com.alpha53.virtualteacher.exceptions.AuthorizationException;
 import com.alpha53.virtualteacher.exceptions.EntityDuplicateException;
 import com.alpha53.virtualteacher.exceptions.EntityNotFoundException;
+import com.alpha53.virtualteacher.exceptions.InvalidCursorException;
 import com.alpha53.virtualteacher.models.Course;
+import com.alpha53.virtualteacher.models.CoursePage;
+import com.alpha53.virtualteacher.models.EnrollmentOutcome;
 import com.alpha53.virtualteacher.models.FilterOptions;
 import com.alpha53.virtualteacher.models.RatingDto;
 import com.alpha53.virtualteacher.models.User;
+import com.alpha53.virtualteacher.models.dtos.BulkEnrollmentDto;
 import com.alpha53.virtualteacher.models.dtos.CourseDto;
 import com.alpha53.virtualteacher.services.contracts.CourseService;
 import com.alpha53.virtualteacher.utilities.helpers.AuthenticationHelper;
+import com.alpha53.virtualteacher.utilities.helpers.CourseChangeTracker;
+import com.alpha53.virtualteacher.utilities.helpers.ReferenceDataRegistry;
 import com.alpha53.virtualteacher.utilities.mappers.dtoMappers.CourseDtoMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/courses")
 public class CourseController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     private final CourseService courseService;
     private final AuthenticationHelper authenticationHelper;
     private final CourseDtoMapper courseMapper;
+    private final CourseChangeTracker courseChangeTracker;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     @Autowired
-    public CourseController(CourseService courseService, AuthenticationHelper authenticationHelper, CourseDtoMapper courseMapper) {
+    public CourseController(CourseService courseService, AuthenticationHelper authenticationHelper, CourseDtoMapper courseMapper,
+                            CourseChangeTracker courseChangeTracker, ReferenceDataRegistry referenceDataRegistry) {
         this.courseService = courseService;
         this.authenticationHelper = authenticationHelper;
         this.courseMapper = courseMapper;
+        this.courseChangeTracker = courseChangeTracker;
+        this.referenceDataRegistry = referenceDataRegistry;
     }
 
+    /**
+     * Without pageSize and cursor the whole filtered catalog is returned, as it always was.
+     * With either of them one page is returned; the cursor of the next page is sent in the X-Next-Cursor header
+     * and as the next link in the Link header, the body stays a list of courses.
+     */
     @GetMapping
-    public List<Course> get(
+    public ResponseEntity<List<Course>> get(
             @RequestHeader(required = false) HttpHeaders headers,
             @RequestParam(required = false) String title,
             @RequestParam(required = false) String topic,
@@ -43,7 +65,11 @@ public class CourseController {
             @RequestParam(required = false) Double rating,
             @RequestParam(required = false) String isPublic,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(required = false) String sortOrder
+            @RequestParam(required = false) String sortOrder,
+            @RequestParam(required = false) Integer pageSize,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String search,
+            WebRequest request
     ) {
         Boolean isPublicBool;
         if (isPublic == null) {
@@ -51,7 +77,7 @@ public class CourseController {
         } else {
             isPublicBool = Boolean.parseBoolean(isPublic);
         }
-        FilterOptions filterOptions = new FilterOptions(title, topic, teacher, rating, isPublicBool, sortBy, sortOrder);
+        FilterOptions filterOptions = new FilterOptions(title, topic, teacher, rating, isPublicBool, sortBy, sortOrder, pageSize, cursor, search);
 
         Optional<User> optionalUser = Optional.empty();
         try {
@@ -63,12 +89,47 @@ public class CourseController {
         } catch (AuthorizationException ignored) {
 
         }
-        return courseService.get(filterOptions, optionalUser);
+        CourseChangeTracker.Version version = courseChangeTracker.catalogVersion();
+        if (request.checkNotModified(courseChangeTracker.eTag(version, variant(optionalUser)), version.changedAt().toEpochMilli())) {
+            return null;
+        }
+        if (pageSize == null && cursor == null) {
+            return ResponseEntity.ok(courseService.get(filterOptions, optionalUser));
+        }
+        CoursePage page;
+        try {
+            page = courseService.getPage(filterOptions, optionalUser);
+        } catch (InvalidCursorException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .build()
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor())
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.getCourses());
+    }
+
+    @GetMapping("/cache/metrics")
+    public Map<String, Number> getCacheMetrics(@RequestHeader HttpHeaders headers) {
+        try {
+            User user = authenticationHelper.tryGetUser(headers);
+            if (!user.getRole().getRoleType().equalsIgnoreCase("Admin")) {
+                throw new AuthorizationException("Only admins can see the course cache metrics");
+            }
+            return courseService.getCacheMetrics();
+        } catch (AuthorizationException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
     public Course get(
-            @RequestHeader(required = false) HttpHeaders headers, @PathVariable(name = "id") int id) {
+            @RequestHeader(required = false) HttpHeaders headers, @PathVariable(name = "id") int id, WebRequest request) {
         boolean isAuthenticated = true;
         User user = new User();
         try {
@@ -80,6 +141,11 @@ public class CourseController {
         } catch (AuthorizationException e) {
             isAuthenticated = false;
         }
+        CourseChangeTracker.Version version = courseChangeTracker.courseVersion(id);
+        String eTag = courseChangeTracker.eTag(version, variant(isAuthenticated ? Optional.of(user) : Optional.empty()));
+        if (request.checkNotModified(eTag, version.changedAt().toEpochMilli())) {
+            return null;
+        }
         if (isAuthenticated) {
             return courseService.getCourseByIdAuth(id, user);
         } else {
@@ -131,12 +197,31 @@ public class CourseController {
         }
     }
 
+    @PostMapping("/{id}/enroll/bulk")
+    public List<EnrollmentOutcome> enrollUsersForCourse(@RequestHeader HttpHeaders headers, @PathVariable(name = "id") int id,
+                                                        @RequestBody BulkEnrollmentDto bulkEnrollmentDto) {
+        try {
+            User user = authenticationHelper.tryGetUser(headers);
+            return courseService.enrollUsersForCourse(id,
+                    Optional.ofNullable(bulkEnrollmentDto.getUserIds()).orElseGet(ArrayList::new),
+                    Optional.ofNullable(bulkEnrollmentDto.getEmails()).orElseGet(ArrayList::new),
+                    user);
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (AuthorizationException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     @PostMapping()
     public void create(@RequestHeader HttpHeaders headers, @RequestBody CourseDto courseDto) {
 
         try {
             Course course = courseMapper.fromDto(courseDto);
-            User user = authenticationHelper.tryGetUser(headers);
+            // The creator is indexed for search, so it needs the names a token does not carry
+            User user = authenticationHelper.tryGetUserProfile(headers);
             courseService.create(course, user);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
@@ -153,7 +238,8 @@ public class CourseController {
     //TODO fromDto with two arguments may be is unnecessary we can discuss
         try {
             Course course = courseMapper.fromDto(id, courseDto);
-            User user = authenticationHelper.tryGetUser(headers);
+            // The creator is indexed for search, so it needs the names a token does not carry
+            User user = authenticationHelper.tryGetUserProfile(headers);
             courseService.update(course, user);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
@@ -202,4 +288,22 @@ public class CourseController {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
         }
     }
+
+    /**
+     * Courses show the names of their topics, so the version of the topics is part of every variant.
+     */
+    private String variant(Optional<User> user) {
+        return visibility(user) + "-" + Long.toString(referenceDataRegistry.getTopicsVersion(), Character.MAX_RADIX);
+    }
+
+    /**
+     * Students, pending teachers and anonymous users see only public courses, teachers and admins see all.
+     */
+    private static String visibility(Optional<User> user) {
+        if (user.isEmpty() || user.get().getRole().getRoleType().equalsIgnoreCase("student")
+                || user.get().getRole().getRoleType().equalsIgnoreCase("PendingTeacher")) {
+            return "public";
+        }
+        return "all";
+    }
 }
@@ -0,0 +1,37 @@
+package com.alpha53.virtualteacher.controllers.rest;
+
+import com.alpha53.virtualteacher.exceptions.AuthorizationException;
+import com.alpha53.virtualteacher.models.User;
+import com.alpha53.virtualteacher.services.contracts.EmailService;
+import com.alpha53.virtualteacher.utilities.helpers.AuthenticationHelper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+@RestController()
+@RequestMapping("api/v1/emails")
+public class EmailController {
+    private final EmailService emailService;
+    private final AuthenticationHelper authenticationHelper;
+
+    public EmailController(EmailService emailService, AuthenticationHelper authenticationHelper) {
+        this.emailService = emailService;
+        this.authenticationHelper = authenticationHelper;
+    }
+
+    @GetMapping("/metrics")
+    public Map<String, Number> getMetrics(@RequestHeader HttpHeaders headers) {
+        try {
+            User user = authenticationHelper.tryGetUser(headers);
+            if (!user.getRole().getRoleType().equalsIgnoreCase("Admin")) {
+                throw new AuthorizationException("Only admins can see the email metrics");
+            }
+            return emailService.getTransportMetrics();
+        } catch (AuthorizationException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        }
+    }
+}
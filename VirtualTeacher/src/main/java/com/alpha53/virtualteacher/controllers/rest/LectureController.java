@@ -8,6 +8,7 @@ import com.alpha53.virtualteacher.models.dtos.LectureDto;
 import com.alpha53.virtualteacher.services.contracts.LectureService;
 import com.alpha53.virtualteacher.services.contracts.SolutionService;
 import com.alpha53.virtualteacher.utilities.helpers.AuthenticationHelper;
+import com.alpha53.virtualteacher.utilities.helpers.CourseChangeTracker;
 import com.alpha53.virtualteacher.utilities.mappers.dtoMappers.LectureDtoMapper;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
@@ -18,6 +19,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -32,11 +34,14 @@ public class LectureController {
     private final LectureDtoMapper lectureDtoMapper;
     private final AuthenticationHelper authenticationHelper;
     private final SolutionService solutionService;
-    public LectureController(LectureService lectureService, LectureDtoMapper lectureDtoMapper, AuthenticationHelper authenticationHelper, SolutionService solutionService) {
+    private final CourseChangeTracker courseChangeTracker;
+    public LectureController(LectureService lectureService, LectureDtoMapper lectureDtoMapper, AuthenticationHelper authenticationHelper,
+                             SolutionService solutionService, CourseChangeTracker courseChangeTracker) {
         this.lectureService = lectureService;
         this.lectureDtoMapper = lectureDtoMapper;
         this.authenticationHelper = authenticationHelper;
         this.solutionService = solutionService;
+        this.courseChangeTracker = courseChangeTracker;
     }
 
     @GetMapping(value = "/{courseId}/lecture/{lectureId}")
@@ -56,10 +61,16 @@ public class LectureController {
 
     @GetMapping("/{courseId}/lectures")
     public List<Lecture> getAllByCourse(@RequestHeader HttpHeaders headers,
-                                        @PathVariable(name = "courseId") @Positive(message = "Course ID must be a positive integer") int courseId) {
+                                        @PathVariable(name = "courseId") @Positive(message = "Course ID must be a positive integer") int courseId,
+                                        WebRequest request) {
 
         try {
             User user = authenticationHelper.tryGetUser(headers);
+            CourseChangeTracker.Version version = courseChangeTracker.courseVersion(courseId);
+            String eTag = courseChangeTracker.eTag(version, lectureService.canViewLectures(courseId, user) ? "lectures" : "none");
+            if (request.checkNotModified(eTag, version.changedAt().toEpochMilli())) {
+                return null;
+            }
             return lectureService.getAllByCourseId(courseId, user);
 
         } catch (AuthorizationException e) {
@@ -96,7 +96,7 @@ public class UserController {
     @PutMapping("/{id}")
     public void update(@RequestHeader HttpHeaders headers, @Valid @RequestBody UserDto userDto, @PathVariable int id) {
         try {
-            User loggedInUser = authenticationHelper.tryGetUser(headers);
+            User loggedInUser = authenticationHelper.tryGetUserProfile(headers);
             userService.update(userDto, loggedInUser, id);
         } catch (AuthorizationException e) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
@@ -133,7 +133,7 @@ public class UserController {
     @PostMapping("{id}/profilePicture")
     public void uploadProfilePicture(@RequestHeader HttpHeaders headers, @PathVariable int id, @RequestParam("file") MultipartFile file) {
         try {
-            User loggedInUser = authenticationHelper.tryGetUser(headers);
+            User loggedInUser = authenticationHelper.tryGetUserProfile(headers);
             userService.uploadProfilePicture(file, loggedInUser, id);
         } catch (AuthorizationException e) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
@@ -145,7 +145,7 @@ public class UserController {
     @PostMapping("/refer/{email}")
     public void referFriend(@RequestHeader HttpHeaders headers, @PathVariable String email) {
         try {
-            User loggedInUser = authenticationHelper.tryGetUser(headers);
+            User loggedInUser = authenticationHelper.tryGetUserProfile(headers);
             userService.referFriend(loggedInUser, email);
         } catch (AuthorizationException e) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
@@ -1,8 +1,10 @@
 package com.alpha53.virtualteacher.controllers.rest;
 
 import com.alpha53.virtualteacher.exceptions.AuthorizationException;
+import com.alpha53.virtualteacher.exceptions.WikiUnavailableException;
+import com.alpha53.virtualteacher.models.User;
 import com.alpha53.virtualteacher.models.WikiResult;
-import com.alpha53.virtualteacher.services.WikiServiceImpl;
+import com.alpha53.virtualteacher.services.contracts.WikiService;
 import com.alpha53.virtualteacher.utilities.helpers.AuthenticationHelper;
 import jakarta.validation.constraints.Size;
 import org.springframework.http.HttpHeaders;
@@ -10,30 +12,51 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.io.IOException;
-import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController()
 @RequestMapping("api/v1/wiki-search")
 public class WikiController {
-    private final WikiServiceImpl wikiServiceImpl;
+    private final WikiService wikiService;
     private final AuthenticationHelper authenticationHelper;
 
-    public WikiController(WikiServiceImpl wikiServiceImpl, AuthenticationHelper authenticationHelper) {
-        this.wikiServiceImpl = wikiServiceImpl;
+    public WikiController(WikiService wikiService, AuthenticationHelper authenticationHelper) {
+        this.wikiService = wikiService;
         this.authenticationHelper = authenticationHelper;
     }
 
     @GetMapping()
-    public List<WikiResult> searchWiki(@RequestHeader HttpHeaders headers,
-                                       @RequestParam("search") @Size(min = 1) String searchCriteria) throws IOException, InterruptedException, URISyntaxException {
+    public CompletableFuture<List<WikiResult>> searchWiki(@RequestHeader HttpHeaders headers,
+                                                          @RequestParam("search") @Size(min = 1) String searchCriteria) {
         try{
             authenticationHelper.tryGetUser(headers);
-            return wikiServiceImpl.getSearchResult(searchCriteria);
+            return wikiService.getSearchResultAsync(searchCriteria)
+                    .exceptionally(e -> {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof WikiUnavailableException) {
+                            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, cause.getMessage());
+                        }
+                        throw e instanceof CompletionException completionException ? completionException : new CompletionException(e);
+                    });
         }
         catch (AuthorizationException e){
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED,e.getMessage());
         }
     }
+
+    @GetMapping("/metrics")
+    public Map<String, Number> getMetrics(@RequestHeader HttpHeaders headers) {
+        try {
+            User user = authenticationHelper.tryGetUser(headers);
+            if (!user.getRole().getRoleType().equalsIgnoreCase("Admin")) {
+                throw new AuthorizationException("Only admins can see the wiki search metrics");
+            }
+            return wikiService.getMetrics();
+        } catch (AuthorizationException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        }
+    }
 }
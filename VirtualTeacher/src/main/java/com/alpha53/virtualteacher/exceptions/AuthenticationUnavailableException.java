@@ -0,0 +1,16 @@
+package com.alpha53.virtualteacher.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class AuthenticationUnavailableException extends RuntimeException {
+
+    public AuthenticationUnavailableException(String message) {
+        super(message);
+    }
+
+    public AuthenticationUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
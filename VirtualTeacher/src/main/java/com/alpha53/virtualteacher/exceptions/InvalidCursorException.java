@@ -0,0 +1,7 @@
+package com.alpha53.virtualteacher.exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String cursor) {
+        super(String.format("Cursor %s is not valid for the requested sorting.", cursor));
+    }
+}
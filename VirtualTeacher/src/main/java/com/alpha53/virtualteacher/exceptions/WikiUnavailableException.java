@@ -0,0 +1,12 @@
+package com.alpha53.virtualteacher.exceptions;
+
+public class WikiUnavailableException extends RuntimeException {
+
+    public WikiUnavailableException(String message) {
+        super(message);
+    }
+
+    public WikiUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,29 @@
+package com.alpha53.virtualteacher.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+import java.util.Optional;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class CoursePage {
+
+    public static final int DEFAULT_PAGE_SIZE = 12;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private List<Course> courses;
+    private int pageSize;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    public static int resolvePageSize(Optional<Integer> pageSize) {
+        return Math.max(1, Math.min(pageSize.orElse(DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE));
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.alpha53.virtualteacher.models;
+
+import lombok.*;
+
+/**
+ * User requested for a bulk enrollment, with its role and its current enrollment in the course.
+ * {@code ongoing} is null if the user is not enrolled, true if the user attends the course and false if graduated.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class EnrollmentCandidate {
+    private int userId;
+    private String email;
+    private String roleType;
+    private Boolean ongoing;
+}
@@ -0,0 +1,21 @@
+package com.alpha53.virtualteacher.models;
+
+import lombok.*;
+
+/**
+ * Result of a bulk enrollment for one requested user, identified by the ID or the email it was requested with.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class EnrollmentOutcome {
+    public enum Status {
+        ENROLLED, ALREADY_ENROLLED, ALREADY_COMPLETED, NOT_STUDENT, NOT_FOUND
+    }
+
+    private String user;
+    private Integer userId;
+    private Status status;
+}
@@ -2,6 +2,7 @@ package com.alpha53.virtualteacher.models;
 
 import lombok.*;
 
+import java.util.List;
 import java.util.Optional;
 
 @AllArgsConstructor
@@ -17,6 +18,10 @@ public class FilterOptions {
     private Optional<Boolean> isPublic;
     private Optional<String> sortBy;
     private Optional<String> sortOrder;
+    private Optional<Integer> pageSize;
+    private Optional<String> cursor;
+    private Optional<String> search;
+    private Optional<List<Integer>> courseIds;
 
     public FilterOptions(String title, String topic,String teacher, Double rating, Boolean isPublic, String sortBy, String sortOrder) {
         this.title = Optional.ofNullable(title);
@@ -26,6 +31,23 @@ public class FilterOptions {
         this.isPublic = Optional.ofNullable(isPublic);
         this.sortBy = Optional.ofNullable(sortBy);
         this.sortOrder = Optional.ofNullable(sortOrder);
+        this.pageSize = Optional.empty();
+        this.cursor = Optional.empty();
+        this.search = Optional.empty();
+        this.courseIds = Optional.empty();
+    }
+
+    public FilterOptions(String title, String topic, String teacher, Double rating, Boolean isPublic, String sortBy, String sortOrder,
+                         Integer pageSize, String cursor) {
+        this(title, topic, teacher, rating, isPublic, sortBy, sortOrder);
+        this.pageSize = Optional.ofNullable(pageSize);
+        this.cursor = Optional.ofNullable(cursor);
+    }
+
+    public FilterOptions(String title, String topic, String teacher, Double rating, Boolean isPublic, String sortBy, String sortOrder,
+                         Integer pageSize, String cursor, String search) {
+        this(title, topic, teacher, rating, isPublic, sortBy, sortOrder, pageSize, cursor);
+        this.search = Optional.ofNullable(search);
     }
     public FilterOptions() {
         this.title = Optional.empty();
@@ -35,6 +57,10 @@ public class FilterOptions {
         this.isPublic = Optional.empty();
         this.sortBy = Optional.empty();
         this.sortOrder = Optional.empty();
+        this.pageSize = Optional.empty();
+        this.cursor = Optional.empty();
+        this.search = Optional.empty();
+        this.courseIds = Optional.empty();
     }
 
 }
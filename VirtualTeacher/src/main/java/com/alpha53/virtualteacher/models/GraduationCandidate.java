@@ -0,0 +1,20 @@
+package com.alpha53.virtualteacher.models;
+
+import lombok.*;
+
+/**
+ * Ongoing enrollment whose student has graded solutions for every lecture of the course
+ * with an average grade at or above the passing grade.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class GraduationCandidate {
+    private int courseId;
+    private String courseTitle;
+    private int userId;
+    private String email;
+    private String firstName;
+}
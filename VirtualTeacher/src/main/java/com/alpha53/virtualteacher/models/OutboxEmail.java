@@ -0,0 +1,38 @@
+package com.alpha53.virtualteacher.models;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class OutboxEmail {
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_DEAD = "DEAD";
+
+    private long id;
+    private String recipient;
+    private String subject;
+    private String body;
+    private byte[] attachment;
+    private String attachmentName;
+    private String status;
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+    private String lastError;
+    private String claimToken;
+
+    public OutboxEmail(String recipient, String subject, String body, byte[] attachment, String attachmentName) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.attachment = attachment;
+        this.attachmentName = attachmentName;
+        this.status = STATUS_PENDING;
+        this.nextAttemptAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,74 @@
+package com.alpha53.virtualteacher.models;
+
+import java.io.Serializable;
+
+/**
+ * Immutable copy of the logged-in user kept in the HTTP session, so MVC requests do not load the user again.
+ * It remembers the change version it was taken at, which tells whether the user has been changed since.
+ * Templates read it as {@code session.currentUser}. The password hash is left out, credential checks load the user.
+ */
+public final class UserSnapshot implements Serializable {
+    private final int userId;
+    private final String email;
+    private final String firstName;
+    private final String lastName;
+    private final int roleId;
+    private final String roleType;
+    private final String pictureUrl;
+    private final boolean verified;
+    private final long version;
+
+    public UserSnapshot(User user, long version) {
+        this.userId = user.getUserId();
+        this.email = user.getEmail();
+        this.firstName = user.getFirstName();
+        this.lastName = user.getLastName();
+        this.roleId = user.getRole().getRoleId();
+        this.roleType = user.getRole().getRoleType();
+        this.pictureUrl = user.getPictureUrl();
+        this.verified = user.isVerified();
+        this.version = version;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public Role getRole() {
+        Role role = new Role();
+        role.setRoleId(roleId);
+        role.setRoleType(roleType);
+        return role;
+    }
+
+    public String getPictureUrl() {
+        return pictureUrl;
+    }
+
+    public boolean isVerified() {
+        return verified;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return a new user with the values of the snapshot and no password, which the caller may change freely
+     */
+    public User toUser() {
+        return new User(userId, email, null, firstName, lastName, getRole(), pictureUrl, verified, null);
+    }
+}
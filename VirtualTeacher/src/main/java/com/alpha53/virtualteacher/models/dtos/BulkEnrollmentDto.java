@@ -0,0 +1,18 @@
+package com.alpha53.virtualteacher.models.dtos;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BulkEnrollmentDto {
+
+    private List<Integer> userIds = new ArrayList<>();
+
+    private List<String> emails = new ArrayList<>();
+
+}
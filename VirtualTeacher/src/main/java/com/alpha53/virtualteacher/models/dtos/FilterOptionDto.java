@@ -11,4 +11,7 @@ public class FilterOptionDto {
     private Boolean  isPublic;
     private String sortBy;
     private String sortOrder;
+    private Integer pageSize;
+    private String cursor;
+    private String search;
 }
@@ -0,0 +1,19 @@
+package com.alpha53.virtualteacher.models.dtos;
+
+import lombok.*;
+
+import java.time.Instant;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class TokenDto {
+
+    private String token;
+
+    private String tokenType;
+
+    private Instant expiresAt;
+
+}
@@ -1,19 +1,35 @@
 package com.alpha53.virtualteacher.repositories;
 
+import com.alpha53.virtualteacher.config.CourseCacheProperties;
 import com.alpha53.virtualteacher.exceptions.EntityNotFoundException;
+import com.alpha53.virtualteacher.exceptions.InvalidCursorException;
 import com.alpha53.virtualteacher.models.*;
 import com.alpha53.virtualteacher.repositories.contracts.CourseDao;
+import com.alpha53.virtualteacher.utilities.helpers.CourseChangeTracker;
+import com.alpha53.virtualteacher.utilities.helpers.CourseCursor;
+import com.alpha53.virtualteacher.utilities.helpers.TransactionHooks;
+import com.alpha53.virtualteacher.utilities.helpers.TtlLruCache;
 import com.alpha53.virtualteacher.utilities.mappers.CourseMapper;
+import com.alpha53.virtualteacher.utilities.mappers.CourseWithLecturesExtractor;
 import com.alpha53.virtualteacher.utilities.mappers.RatingMapper;
 import com.alpha53.virtualteacher.utilities.mappers.UserMapper;
+import com.alpha53.virtualteacher.utilities.search.CourseSearchIndex;
+import com.alpha53.virtualteacher.utilities.search.EnrollmentIndex;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcDaoSupport;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.sql.DataSource;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 @Repository
 public class CourseDaoImpl extends NamedParameterJdbcDaoSupport implements CourseDao {
@@ -27,9 +43,29 @@ public class CourseDaoImpl extends NamedParameterJdbcDaoSupport implements Cours
     private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
     private final UserMapper userMapper = new UserMapper();
     private final RatingMapper ratingMapper = new RatingMapper();
-
-    public CourseDaoImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate, DataSource dataSource, CourseMapper courseMapper) {
+    private final CourseWithLecturesExtractor courseWithLecturesExtractor;
+    private final CourseSearchIndex courseSearchIndex;
+    private final EnrollmentIndex enrollmentIndex;
+    private final CourseChangeTracker courseChangeTracker;
+    private final TtlLruCache<Integer, Course> courseCache;
+    private final Object courseCacheLock = new Object();
+    private final AtomicLong courseCacheInvalidations = new AtomicLong();
+    private final AtomicLong courseLoads = new AtomicLong();
+    private final AtomicLong courseLoadNanos = new AtomicLong();
+    private final AtomicLong maxCourseLoadNanos = new AtomicLong();
+    private static final String RATING_SORT_EXPRESSION = "course_rating_summary.sort_rating";
+    private static final String COURSE_COLUMNS = "description, courses.id,title,start_date,creator_id,email,first_name,last_name,picture_url, is_verified,is_published,passing_grade,topic,topic_id, course_rating_summary.avg_rating AS avg_rating ";
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+    public CourseDaoImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate, DataSource dataSource, CourseMapper courseMapper,
+                         CourseSearchIndex courseSearchIndex, EnrollmentIndex enrollmentIndex, CourseCacheProperties courseCacheProperties,
+                         CourseChangeTracker courseChangeTracker) {
         this.courseMapper = courseMapper;
+        this.courseWithLecturesExtractor = new CourseWithLecturesExtractor(courseMapper);
+        this.courseSearchIndex = courseSearchIndex;
+        this.enrollmentIndex = enrollmentIndex;
+        this.courseChangeTracker = courseChangeTracker;
+        this.courseCache = new TtlLruCache<>(courseCacheProperties.getMaxSize(), courseCacheProperties.getTtl());
         this.setDataSource(dataSource);
         this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
     }
@@ -42,16 +78,41 @@ public class CourseDaoImpl extends NamedParameterJdbcDaoSupport implements Cours
         this.courseDescriptionMapper = courseDescriptionMapper;
     }*/
 
+    /**
+     * Read-through: the course is served from the course cache and loaded from the database on a miss.
+     * Every caller gets its own copy, so callers may modify the returned course.
+     */
     @Override
     public Course get(int id) {
+        Optional<Course> cached = courseCache.getIfPresent(id);
+        if (cached.isPresent()) {
+            return copyOf(cached.get());
+        }
 
-        String sql = "SELECT description, courses.id,title,start_date,creator_id,email,first_name,last_name,picture_url, is_verified,is_published,passing_grade,topic,topic_id, AVG(ratings.rating) AS avg_rating " +
+        long invalidations = courseCacheInvalidations.get();
+        long start = System.nanoTime();
+        Course course = load(id);
+        long elapsed = System.nanoTime() - start;
+        courseLoads.incrementAndGet();
+        courseLoadNanos.addAndGet(elapsed);
+        maxCourseLoadNanos.accumulateAndGet(elapsed, Math::max);
+
+        synchronized (courseCacheLock) {
+            // A course written while it was loaded may have been read before the write, so it is not cached
+            if (courseCacheInvalidations.get() == invalidations) {
+                courseCache.put(id, copyOf(course));
+            }
+        }
+        return course;
+    }
+
+    private Course load(int id) {
+        String sql = "SELECT description, courses.id,title,start_date,creator_id,email,first_name,last_name,picture_url, is_verified,is_published,passing_grade,topic,topic_id, course_rating_summary.avg_rating AS avg_rating " +
                 "FROM courses LEFT JOIN topics ON courses.topic_id = topics.id     " +
                 "  LEFT JOIN users ON courses.creator_id = users.id " +
-                "   LEFT JOIN ratings ON courses.id = ratings.course_id " +
+                "   LEFT JOIN course_rating_summary ON courses.id = course_rating_summary.course_id " +
                 " LEFT JOIN course_description on courses.id = course_description.course_id " +
-                " WHERE courses.id=:id      " +
-                "GROUP BY courses.id";
+                " WHERE courses.id=:id      ";
 
 
         MapSqlParameterSource in = new MapSqlParameterSource();
@@ -65,15 +126,39 @@ public class CourseDaoImpl extends NamedParameterJdbcDaoSupport implements Cours
 
     }
 
+    @Override
+    public Course getWithLectures(int id) {
+        String sql = "SELECT course_description.description, courses.id, courses.title, start_date, creator_id, email, first_name, last_name, " +
+                "       picture_url, is_verified, is_published, passing_grade, topic, topic_id, course_rating_summary.avg_rating AS avg_rating, " +
+                "       lectures.id AS lecture_id, lectures.title AS lecture_title, video_url, assignment_url, " +
+                "       lecture_description.lecture_id AS lecture_description_id, lecture_description.description AS lecture_description " +
+                "FROM courses LEFT JOIN topics ON courses.topic_id = topics.id " +
+                "  LEFT JOIN users ON courses.creator_id = users.id " +
+                "  LEFT JOIN course_rating_summary ON courses.id = course_rating_summary.course_id " +
+                "  LEFT JOIN course_description ON courses.id = course_description.course_id " +
+                "  LEFT JOIN lectures ON courses.id = lectures.course_id " +
+                "  LEFT JOIN lecture_description ON lectures.id = lecture_description.lecture_id " +
+                "WHERE courses.id = :id " +
+                "ORDER BY lectures.id";
+
+        MapSqlParameterSource in = new MapSqlParameterSource();
+        in.addValue("id", id);
+
+        Course course = namedParameterJdbcTemplate.query(sql, in, courseWithLecturesExtractor);
+        if (course == null) {
+            throw new EntityNotFoundException("Course", "id", String.valueOf(id));
+        }
+        return course;
+    }
+
     @Override
     public Course getByTitle(String title) {
-        String sql = "SELECT description, courses.id,title,start_date,creator_id,email,first_name,last_name,picture_url,is_verified,is_published,passing_grade,topic,topic_id, AVG(ratings.rating) AS avg_rating " +
+        String sql = "SELECT description, courses.id,title,start_date,creator_id,email,first_name,last_name,picture_url,is_verified,is_published,passing_grade,topic,topic_id, course_rating_summary.avg_rating AS avg_rating " +
                 "FROM courses LEFT JOIN topics ON courses.topic_id = topics.id     " +
                 "  LEFT JOIN users ON courses.creator_id = users.id " +
-                "   LEFT JOIN ratings ON courses.id = ratings.course_id " +
+                "   LEFT JOIN course_rating_summary ON courses.id = course_rating_summary.course_id " +
                 " LEFT JOIN course_description on courses.id = course_description.course_id " +
-                " WHERE courses.title=:title      " +
-                "GROUP BY courses.id";
+                " WHERE courses.title=:title      ";
 
 
         MapSqlParameterSource in = new MapSqlParameterSource();
@@ -88,58 +173,55 @@ public class CourseDaoImpl extends NamedParameterJdbcDaoSupport implements Cours
 
     @Override
     public List<Course> get(FilterOptions filterOptions) {
-        String sql = "SELECT description, courses.id,title,start_date,creator_id,email,first_name,last_name,picture_url, is_verified,is_published,passing_grade,topic,topic_id, AVG(ratings.rating) AS avg_rating " +
-                "FROM courses " +
-                " LEFT JOIN topics ON courses.topic_id = topics.id     " +
-                "  LEFT JOIN users ON courses.creator_id = users.id " +
-                "   LEFT JOIN ratings ON courses.id = ratings.course_id " +
-                " LEFT JOIN course_description on courses.id = course_description.course_id ";
+        MapSqlParameterSource in = new MapSqlParameterSource();
+        String sql = generateFilteredQuery(COURSE_COLUMNS, filterOptions, Optional.empty(), in);
 
+        return namedParameterJdbcTemplate.query(sql, in, courseMapper);
+    }
 
-        List<String> filters = new ArrayList<>();
+    @Override
+    public List<Integer> getCourseIds(FilterOptions filterOptions) {
         MapSqlParameterSource in = new MapSqlParameterSource();
+        String sql = generateFilteredQuery("courses.id ", filterOptions, Optional.empty(), in);
 
-        if (filterOptions.getTitle().isPresent() && !filterOptions.getTitle().get().isEmpty()) {
-            filters.add("title like :title ");
-            in.addValue("title", String.format("%%%s%%", filterOptions.getTitle().get()));
-        }
-
-        if (filterOptions.getTopic().isPresent() && !filterOptions.getTopic().get().isEmpty()) {
-            filters.add("topic like :topic ");
-            in.addValue("topic", String.format("%%%s%%", filterOptions.getTopic().get()));
-        }
-        if (filterOptions.getTeacher().isPresent() && !filterOptions.getTeacher().get().isEmpty()) {
-            filters.add("email like :teacher ");
-            in.addValue("teacher", String.format("%%%s%%", filterOptions.getTeacher().get()));
-        }
+        return namedParameterJdbcTemplate.queryForList(sql, in, Integer.class);
+    }
 
-        filterOptions.getIsPublic().ifPresent(value -> {
-            if (value) {
-                filters.add("is_published = 1 ");
-            } else {
-                filters.add("is_published = 0 ");
+    /**
+     * Get one page of the course catalog using keyset pagination.
+     * The page starts right after the position stored in the cursor of the filter options,
+     * so the query cost does not depend on how deep the page is.
+     *
+     * @param filterOptions - filters, sorting, page size and cursor
+     * @return CoursePage with the courses and the cursor of the next page (null if this is the last page)
+     * @Throws InvalidCursorException if the cursor is malformed or was issued for another sorting
+     */
+    @Override
+    public CoursePage getPage(FilterOptions filterOptions) {
+        int pageSize = CoursePage.resolvePageSize(filterOptions.getPageSize());
+        String sortKey = resolveSortKey(filterOptions);
+        boolean descending = isDescending(filterOptions);
+
+        Optional<CourseCursor> cursor = Optional.empty();
+        if (filterOptions.getCursor().isPresent() && !filterOptions.getCursor().get().isEmpty()) {
+            CourseCursor decoded = CourseCursor.decode(filterOptions.getCursor().get());
+            if (!decoded.matches(sortKey, descending)) {
+                throw new InvalidCursorException(filterOptions.getCursor().get());
             }
-        });
-
-        if (!filters.isEmpty()) {
-            sql += " WHERE ";
-            sql += String.join(" and ", filters);
+            cursor = Optional.of(decoded);
         }
-        sql += " GROUP BY courses.id ";
-        if (filterOptions.getRating().isPresent()) {
-            if (filterOptions.getRating().get()==0){
 
-                sql += String.format(" HAVING  AVG(ratings.rating) >= %f OR avg_rating IS NULL", filterOptions.getRating().get());
-            }else{
-                sql += String.format(" HAVING  AVG(ratings.rating) >= %f ", filterOptions.getRating().get());
-            }
+        MapSqlParameterSource in = new MapSqlParameterSource();
+        String sql = generateFilteredQuery(COURSE_COLUMNS, filterOptions, cursor, in) + " LIMIT :limit";
+        in.addValue("limit", pageSize + 1);
+
+        List<Course> courses = namedParameterJdbcTemplate.query(sql, in, courseMapper);
+        String nextCursor = null;
+        if (courses.size() > pageSize) {
+            courses = new ArrayList<>(courses.subList(0, pageSize));
+            nextCursor = CourseCursor.of(sortKey, descending, courses.get(pageSize - 1)).encode();
         }
-
-        sql += generateOrderBy(filterOptions);
-
-        return namedParameterJdbcTemplate.query(sql, in, courseMapper);
-
-
+        return new CoursePage(courses, pageSize, nextCursor);
     }
 
     //TODO refactor keywords in the query with capital letter pattern to follow consistency of the code
@@ -172,15 +254,14 @@ public class CourseDaoImpl extends NamedParameterJdbcDaoSupport implements Cours
 
     @Override
     public List<Course> getUsersCompletedCourses(int userId) {
-        String sql = "SELECT  description, courses.id,title,start_date,creator_id,email,first_name,last_name,picture_url,is_verified,is_published,passing_grade, topic, topic_id, AVG(ratings.rating) AS avg_rating " +
+        String sql = "SELECT  description, courses.id,title,start_date,creator_id,email,first_name,last_name,picture_url,is_verified,is_published,passing_grade, topic, topic_id, course_rating_summary.avg_rating AS avg_rating " +
                 " FROM course_user " +
                 " LEFT JOIN courses ON course_user.course_id = courses.id " +
                 " LEFT JOIN users ON course_user.user_id = users.id " +
                 " LEFT JOIN topics ON courses.topic_id=topics.id " +
-                " LEFT JOIN ratings ON courses.id = ratings.course_id " +
+                " LEFT JOIN course_rating_summary ON courses.id = course_rating_summary.course_id " +
                 " LEFT JOIN course_description on courses.id = course_description.course_id " +
-                " WHERE course_user.user_id = :id AND course_user.ongoing = 0 " +
-                "GROUP BY courses.id";
+                " WHERE course_user.user_id = :id AND course_user.ongoing = 0 ";
 
 
         MapSqlParameterSource in = new MapSqlParameterSource();
@@ -210,15 +291,83 @@ public class CourseDaoImpl extends NamedParameterJdbcDaoSupport implements Cours
         }
     }
 
+    /**
+     * An enrollment which already exists is kept as it is, the unique key on course and user makes the insert a no-op.
+     */
     @Override
     public void enrollUserForCourse(int userId, int courseId) {
-        String sql = "INSERT INTO course_user (course_id, user_id, ongoing)" +
+        String sql = "INSERT IGNORE INTO course_user (course_id, user_id, ongoing)" +
                 "VALUES (:course_id, :user_id, :ongoing)         ";
         MapSqlParameterSource in = new MapSqlParameterSource();
         in.addValue("course_id", courseId);
         in.addValue("user_id", userId);
         in.addValue("ongoing", 1);
-        namedParameterJdbcTemplate.update(sql, in);
+        if (namedParameterJdbcTemplate.update(sql, in) != 0) {
+            TransactionHooks.afterCommit(() -> enrollmentIndex.enroll(userId, courseId));
+        }
+    }
+
+    @Override
+    public List<EnrollmentCandidate> getEnrollmentCandidates(int courseId, Collection<Integer> userIds, Collection<String> emails) {
+        List<EnrollmentCandidate> candidates = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>(userIds);
+        for (int i = 0; i < ids.size(); i += IN_CLAUSE_CHUNK_SIZE) {
+            candidates.addAll(queryEnrollmentCandidates(courseId, "users.id IN (:values)",
+                    ids.subList(i, Math.min(ids.size(), i + IN_CLAUSE_CHUNK_SIZE))));
+        }
+        List<String> addresses = new ArrayList<>(emails);
+        for (int i = 0; i < addresses.size(); i += IN_CLAUSE_CHUNK_SIZE) {
+            candidates.addAll(queryEnrollmentCandidates(courseId, "users.email IN (:values)",
+                    addresses.subList(i, Math.min(addresses.size(), i + IN_CLAUSE_CHUNK_SIZE))));
+        }
+        return candidates;
+    }
+
+    private List<EnrollmentCandidate> queryEnrollmentCandidates(int courseId, String filter, List<?> values) {
+        String sql = "SELECT users.id, users.email, roles.role, course_user.ongoing " +
+                "FROM users " +
+                "JOIN roles ON roles.id = users.role_id " +
+                "LEFT JOIN course_user ON course_user.user_id = users.id AND course_user.course_id = :course_id " +
+                "WHERE " + filter;
+        MapSqlParameterSource in = new MapSqlParameterSource();
+        in.addValue("course_id", courseId);
+        in.addValue("values", values);
+        return namedParameterJdbcTemplate.query(sql, in, (rs, rowNum) -> {
+            boolean ongoing = rs.getBoolean("ongoing");
+            return new EnrollmentCandidate(rs.getInt("id"), rs.getString("email"), rs.getString("role"),
+                    rs.wasNull() ? null : ongoing);
+        });
+    }
+
+    /**
+     * The unique key on course and user makes the insert skip users who are enrolled already,
+     * so a concurrent single enrollment shows up as an update count of 0 instead of a duplicate row.
+     */
+    @Override
+    @Transactional
+    public List<Integer> enrollUsersForCourse(int courseId, List<Integer> userIds) {
+        if (userIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = "INSERT IGNORE INTO course_user (course_id, user_id, ongoing) " +
+                "VALUES (:course_id, :user_id, 1)";
+
+        MapSqlParameterSource[] batch = new MapSqlParameterSource[userIds.size()];
+        for (int i = 0; i < userIds.size(); i++) {
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("course_id", courseId)
+                    .addValue("user_id", userIds.get(i));
+        }
+        int[] counts = namedParameterJdbcTemplate.batchUpdate(sql, batch);
+
+        List<Integer> enrolled = new ArrayList<>(userIds.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                enrolled.add(userIds.get(i));
+            }
+        }
+        TransactionHooks.afterCommit(() -> enrolled.forEach(userId -> enrollmentIndex.enroll(userId, courseId)));
+        return enrolled;
     }
 
     @Override
@@ -231,21 +380,101 @@ public class CourseDaoImpl extends NamedParameterJdbcDaoSupport implements Cours
         in.addValue("user_id", userId);
 
         namedParameterJdbcTemplate.update(sql, in);
+        TransactionHooks.afterCommit(() -> enrollmentIndex.complete(userId, courseId));
+    }
+
+    @Override
+    public void completeCourses(List<GraduationCandidate> graduates) {
+        if (graduates.isEmpty()) {
+            return;
+        }
+        String sql = "UPDATE course_user " +
+                "SET ongoing = 0 " +
+                "WHERE course_id = :course_id AND user_id = :user_id AND ongoing = 1 ";
+
+        MapSqlParameterSource[] batch = new MapSqlParameterSource[graduates.size()];
+        for (int i = 0; i < graduates.size(); i++) {
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("course_id", graduates.get(i).getCourseId())
+                    .addValue("user_id", graduates.get(i).getUserId());
+        }
+        namedParameterJdbcTemplate.batchUpdate(sql, batch);
+        TransactionHooks.afterCommit(() -> graduates.forEach(graduate -> enrollmentIndex.complete(graduate.getUserId(), graduate.getCourseId())));
+    }
+
+    /**
+     * Evaluate all ongoing enrollments in one query. Lecture counts and graded solution counts and averages
+     * are aggregated per course and per (course, student) pair, so the number of queries does not depend on
+     * the number of courses or students.
+     * The returned stream holds a database connection and must be closed by the caller.
+     *
+     * @param fromCourseId - first course ID of the evaluated range, inclusive
+     * @param toCourseId   - last course ID of the evaluated range, exclusive
+     * @return stream of the enrollments which fulfil the graduation requirements
+     */
+    @Override
+    public Stream<GraduationCandidate> getGraduationCandidates(int fromCourseId, int toCourseId) {
+        String sql = "SELECT course_user.course_id, courses.title, course_user.user_id, users.email, users.first_name " +
+                "FROM course_user " +
+                "JOIN courses ON course_user.course_id = courses.id " +
+                "JOIN users ON course_user.user_id = users.id " +
+                "LEFT JOIN (SELECT course_id, COUNT(*) AS lecture_count FROM lectures " +
+                "           WHERE course_id >= :from_course_id AND course_id < :to_course_id GROUP BY course_id) lecture_counts " +
+                "       ON lecture_counts.course_id = course_user.course_id " +
+                "LEFT JOIN (SELECT lectures.course_id, solutions.user_id, COUNT(*) AS solution_count, AVG(solutions.grade) AS avg_grade " +
+                "           FROM solutions " +
+                "           JOIN lectures ON solutions.lecture_id = lectures.id " +
+                "           JOIN course_user ongoing ON ongoing.course_id = lectures.course_id " +
+                "                                   AND ongoing.user_id = solutions.user_id AND ongoing.ongoing = 1 " +
+                "           WHERE solutions.grade >= 2 AND lectures.course_id >= :from_course_id AND lectures.course_id < :to_course_id " +
+                "           GROUP BY lectures.course_id, solutions.user_id) graded " +
+                "       ON graded.course_id = course_user.course_id AND graded.user_id = course_user.user_id " +
+                "WHERE course_user.ongoing = 1 " +
+                "  AND course_user.course_id >= :from_course_id AND course_user.course_id < :to_course_id " +
+                "  AND COALESCE(graded.solution_count, 0) = COALESCE(lecture_counts.lecture_count, 0) " +
+                "  AND COALESCE(graded.avg_grade, 0) >= courses.passing_grade ";
+
+        MapSqlParameterSource in = new MapSqlParameterSource();
+        in.addValue("from_course_id", fromCourseId);
+        in.addValue("to_course_id", toCourseId);
+
+        return namedParameterJdbcTemplate.queryForStream(sql, in, (rs, rowNum) ->
+                new GraduationCandidate(
+                        rs.getInt("course_id"),
+                        rs.getString("title"),
+                        rs.getInt("user_id"),
+                        rs.getString("email"),
+                        rs.getString("first_name")));
+    }
+
+    /**
+     * Partition the courses with ongoing enrollments into fixed course ID ranges.
+     * Chunk n covers course IDs from n * chunkSize (inclusive) to (n + 1) * chunkSize (exclusive),
+     * so the chunks stay the same between runs regardless of enrollment changes.
+     */
+    @Override
+    public List<Integer> getOngoingCourseChunks(int chunkSize) {
+        String sql = "SELECT DISTINCT course_id DIV :chunk_size AS chunk " +
+                "FROM course_user " +
+                "WHERE ongoing = 1 " +
+                "ORDER BY chunk";
+        MapSqlParameterSource in = new MapSqlParameterSource();
+        in.addValue("chunk_size", chunkSize);
+        return namedParameterJdbcTemplate.queryForList(sql, in, Integer.class);
     }
 
 
     @Override
     public List<Course> getCoursesByUser(int userId) {
         String sql = "SELECT description, courses.id, title, start_date, creator_id, email, first_name, last_name, picture_url,is_verified," +
-                " is_published, passing_grade, topic, topic_id, AVG(ratings.rating) AS avg_rating  " +
+                " is_published, passing_grade, topic, topic_id, course_rating_summary.avg_rating AS avg_rating  " +
                 "FROM course_user " +
                 "LEFT JOIN courses ON course_user.course_id = courses.id " +
                 "LEFT JOIN topics ON courses.topic_id = topics.id " +
                 "LEFT JOIN users ON courses.creator_id = users.id " +
-                "  LEFT JOIN ratings ON courses.id = ratings.course_id " +
+                "  LEFT JOIN course_rating_summary ON courses.id = course_rating_summary.course_id " +
                 " LEFT JOIN course_description on courses.id = course_description.course_id " +
-                "WHERE course_user.user_id = :id AND course_user.ongoing = 1 " +
-                "GROUP BY courses.id";
+                "WHERE course_user.user_id = :id AND course_user.ongoing = 1 ";
 // TODO: 3.12.23 this method should return all courses for the user, not only the ones he is enrolled for.
         MapSqlParameterSource in = new MapSqlParameterSource();
         in.addValue("id", userId);
@@ -257,14 +486,13 @@ public class CourseDaoImpl extends NamedParameterJdbcDaoSupport implements Cours
     @Override
     public List<Course> getCoursesByCreator(int creatorId) {
         String sql = "SELECT description, courses.id, title, start_date, creator_id, email, first_name, last_name, picture_url,is_verified, " +
-                " is_published, passing_grade, topic, topic_id , AVG(ratings.rating) AS avg_rating  " +
+                " is_published, passing_grade, topic, topic_id , course_rating_summary.avg_rating AS avg_rating  " +
                 "FROM courses " +
                 "LEFT JOIN topics ON courses.topic_id = topics.id " +
                 "LEFT JOIN users ON courses.creator_id = users.id " +
-                "  LEFT JOIN ratings ON courses.id = ratings.course_id " +
+                "  LEFT JOIN course_rating_summary ON courses.id = course_rating_summary.course_id " +
                 " LEFT JOIN course_description on courses.id = course_description.course_id " +
-                "WHERE creator_id = :id " +
-                "GROUP BY courses.id";
+                "WHERE creator_id = :id ";
 
         MapSqlParameterSource in = new MapSqlParameterSource();
         in.addValue("id", creatorId);
@@ -285,11 +513,17 @@ public class CourseDaoImpl extends NamedParameterJdbcDaoSupport implements Cours
         in.addValue("creator_id", course.getCreator().getUserId());
         in.addValue("is_published", course.isPublished());
         in.addValue("passing_grade", course.getPassingGrade());
-        int executeResult = namedParameterJdbcTemplate.update(sql, in);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        namedParameterJdbcTemplate.update(sql, in, keyHolder, new String[]{"id"});
+        course.setCourseId(Objects.requireNonNull(keyHolder.getKey()).intValue());
 
         if (course.getDescription() != null) {
             addDescription(course, in);
         }
+        namedParameterJdbcTemplate.update("INSERT INTO course_rating_summary (course_id, rating_count, rating_sum) VALUES (:course_id, 0, 0)",
+                new MapSqlParameterSource("course_id", course.getCourseId()));
+        indexAfterCommit(course);
+        courseChangeTracker.courseChanged(course.getCourseId());
     }
 
 
@@ -320,6 +554,8 @@ public class CourseDaoImpl extends NamedParameterJdbcDaoSupport implements Cours
         } else if (course.getDescription() != null) {
             addDescription(course, in);
         }
+        indexAfterCommit(course);
+        courseChanged(course.getCourseId());
     }
 
     @Override
@@ -333,6 +569,8 @@ public class CourseDaoImpl extends NamedParameterJdbcDaoSupport implements Cours
 
 
         namedParameterJdbcTemplate.update(sql, in);
+        TransactionHooks.afterCommit(() -> courseSearchIndex.remove(courseId));
+        courseChanged(courseId);
     }
 
     @Override
@@ -343,10 +581,18 @@ public class CourseDaoImpl extends NamedParameterJdbcDaoSupport implements Cours
         in.addValue("idPreviousTeacher", teacherToTransferFromId);
         in.addValue("idNewTeacher", teacherToTransferToId);
         namedParameterJdbcTemplate.update(sql, in);
+        List<Course> transferred = getCoursesByCreator(teacherToTransferToId);
+        TransactionHooks.afterCommit(() -> transferred.forEach(courseSearchIndex::index));
+        allCoursesChanged();
     }
 
 
+    /**
+     * Insert rating and update the rating summary and histogram of the course
+     * in the same transaction, so course reads never aggregate the ratings table.
+     */
     @Override
+    @Transactional
     public void rateCourse(RatingDto rating, int courseId, int raterId) {
 
         String sql = "INSERT INTO ratings (course_id, rating, comment, user_id)" +
@@ -359,10 +605,84 @@ public class CourseDaoImpl extends NamedParameterJdbcDaoSupport implements Cours
 
 
         namedParameterJdbcTemplate.update(sql, in);
+
+        String summarySql = "INSERT INTO course_rating_summary (course_id, rating_count, rating_sum, avg_rating, sort_rating) " +
+                "VALUES (:course_id, 1, ROUND(:rating), ROUND(:rating), ROUND(:rating)) " +
+                "ON DUPLICATE KEY UPDATE rating_count = rating_count + 1, " +
+                "                        rating_sum = rating_sum + VALUES(rating_sum), " +
+                "                        avg_rating = rating_sum / rating_count, " +
+                "                        sort_rating = avg_rating";
+        namedParameterJdbcTemplate.update(summarySql, in);
+
+        String histogramSql = "INSERT INTO course_rating_histogram (course_id, rating, rating_count) " +
+                "VALUES (:course_id, ROUND(:rating), 1) " +
+                "ON DUPLICATE KEY UPDATE rating_count = rating_count + 1";
+        namedParameterJdbcTemplate.update(histogramSql, in);
+        courseChanged(courseId);
+    }
+
+    @Override
+    public List<Integer> getRatedCourseIds(int raterId) {
+        String sql = "SELECT DISTINCT course_id FROM ratings WHERE user_id = :user_id";
+        MapSqlParameterSource in = new MapSqlParameterSource();
+        in.addValue("user_id", raterId);
+        return namedParameterJdbcTemplate.queryForList(sql, in, Integer.class);
+    }
+
+    /**
+     * The cached courses carry the old profile and the creator name is one of the indexed fields,
+     * so the courses are dropped from the cache and re-indexed once the change is committed.
+     */
+    @Override
+    public void creatorProfileChanged(int creatorId) {
+        List<Course> courses = getCoursesByCreator(creatorId);
+        TransactionHooks.afterCommit(() -> courses.forEach(courseSearchIndex::index));
+        courses.forEach(course -> courseChanged(course.getCourseId()));
+    }
+
+    @Override
+    public void topicsChanged() {
+        allCoursesChanged();
+    }
+
+    /**
+     * Recalculate the rating summary and histogram of the given courses from the ratings table.
+     * Used when ratings are removed by a cascade (e.g. deleted user), which no insert path can see.
+     *
+     * @param courseIds - IDs of the courses to recalculate
+     */
+    @Override
+    @Transactional
+    public void refreshRatingSummaries(List<Integer> courseIds) {
+        if (courseIds.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource in = new MapSqlParameterSource();
+        in.addValue("course_ids", courseIds);
+
+        namedParameterJdbcTemplate.update("DELETE FROM course_rating_summary WHERE course_id IN (:course_ids)", in);
+        namedParameterJdbcTemplate.update("DELETE FROM course_rating_histogram WHERE course_id IN (:course_ids)", in);
+
+        String summarySql = "INSERT INTO course_rating_summary (course_id, rating_count, rating_sum, avg_rating, sort_rating) " +
+                "SELECT courses.id, COUNT(ratings.course_id), COALESCE(SUM(rating), 0), AVG(rating), COALESCE(AVG(rating), 0) " +
+                "FROM courses LEFT JOIN ratings ON courses.id = ratings.course_id " +
+                "WHERE courses.id IN (:course_ids) " +
+                "GROUP BY courses.id";
+        namedParameterJdbcTemplate.update(summarySql, in);
+
+        String histogramSql = "INSERT INTO course_rating_histogram (course_id, rating, rating_count) " +
+                "SELECT course_id, rating, COUNT(*) " +
+                "FROM ratings WHERE course_id IN (:course_ids) " +
+                "GROUP BY course_id, rating";
+        namedParameterJdbcTemplate.update(histogramSql, in);
+        courseIds.forEach(this::courseChanged);
     }
 
     @Override
     public boolean isUserEnrolled(int userId, int courseId) {
+        if (enrollmentIndex.isLoaded()) {
+            return enrollmentIndex.isOngoing(userId, courseId);
+        }
         String sql = "SELECT COUNT(*) FROM course_user WHERE user_id =:userId AND course_id=:courseId AND ongoing=1";
 
         MapSqlParameterSource params = new MapSqlParameterSource();
@@ -376,6 +696,9 @@ public class CourseDaoImpl extends NamedParameterJdbcDaoSupport implements Cours
 
     @Override
     public boolean hasUserPassedCourse(int userId, int courseId) {
+        if (enrollmentIndex.isLoaded()) {
+            return enrollmentIndex.isCompleted(userId, courseId);
+        }
         String sql = "SELECT COUNT(*) FROM course_user WHERE user_id =:userId AND course_id=:courseId AND ongoing=0";
 
         MapSqlParameterSource params = new MapSqlParameterSource();
@@ -401,6 +724,101 @@ public class CourseDaoImpl extends NamedParameterJdbcDaoSupport implements Cours
         params.addValue("courseId", course.getCourseId());
         params.addValue("userId", user.getUserId());
         namedParameterJdbcTemplate.update(sql, params);
+        TransactionHooks.afterCommit(() -> enrollmentIndex.remove(user.getUserId(), course.getCourseId()));
+    }
+
+    @Override
+    public boolean hasEnrollments(int courseId) {
+        if (enrollmentIndex.isLoaded()) {
+            return enrollmentIndex.hasStudents(courseId);
+        }
+        String sql = "SELECT EXISTS(SELECT 1 FROM course_user WHERE course_id = :course_id)";
+        MapSqlParameterSource in = new MapSqlParameterSource();
+        in.addValue("course_id", courseId);
+        return Boolean.TRUE.equals(namedParameterJdbcTemplate.queryForObject(sql, in, Boolean.class));
+    }
+
+    @Override
+    public void rebuildEnrollmentIndex() {
+        String sql = "SELECT user_id, course_id, ongoing FROM course_user";
+        EnrollmentIndex.Builder builder = enrollmentIndex.builder();
+        namedParameterJdbcTemplate.query(sql, (RowCallbackHandler) rs ->
+                builder.add(rs.getInt("user_id"), rs.getInt("course_id"), rs.getBoolean("ongoing")));
+        enrollmentIndex.replace(builder);
+    }
+
+    @Override
+    public Map<String, Number> getCacheMetrics() {
+        Map<String, Number> metrics = new LinkedHashMap<>(courseCache.getMetrics());
+        long hits = metrics.get("hits").longValue();
+        long lookups = hits + metrics.get("misses").longValue();
+        long loads = courseLoads.get();
+        metrics.put("hitRatio", lookups == 0 ? 0 : (double) hits / lookups);
+        metrics.put("invalidations", courseCacheInvalidations.get());
+        metrics.put("loads", loads);
+        metrics.put("averageLoadMicros", loads == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(courseLoadNanos.get() / loads));
+        metrics.put("maxLoadMicros", TimeUnit.NANOSECONDS.toMicros(maxCourseLoadNanos.get()));
+        return metrics;
+    }
+
+    /**
+     * Drop the course from the cache now and again after commit, so a reader which loads it
+     * before the transaction commits cannot keep the old state in the cache, then give the course a new version.
+     */
+    private void courseChanged(int courseId) {
+        Runnable invalidation = () -> {
+            synchronized (courseCacheLock) {
+                courseCacheInvalidations.incrementAndGet();
+                courseCache.invalidate(courseId);
+            }
+        };
+        invalidation.run();
+        TransactionHooks.afterCommit(invalidation);
+        courseChangeTracker.courseChanged(courseId);
+    }
+
+    private void allCoursesChanged() {
+        Runnable invalidation = () -> {
+            synchronized (courseCacheLock) {
+                courseCacheInvalidations.incrementAndGet();
+                courseCache.invalidateAll();
+            }
+        };
+        invalidation.run();
+        TransactionHooks.afterCommit(invalidation);
+        courseChangeTracker.allCoursesChanged();
+    }
+
+    private static Course copyOf(Course course) {
+        User creator = new User();
+        creator.setUserId(course.getCreator().getUserId());
+        creator.setEmail(course.getCreator().getEmail());
+        creator.setFirstName(course.getCreator().getFirstName());
+        creator.setLastName(course.getCreator().getLastName());
+        creator.setPictureUrl(course.getCreator().getPictureUrl());
+        creator.setVerified(course.getCreator().isVerified());
+
+        Course copy = new Course();
+        copy.setCourseId(course.getCourseId());
+        copy.setTitle(course.getTitle());
+        copy.setTopic(course.getTopic() == null ? null : new Topic(course.getTopic().getTopicId(), course.getTopic().getTopic()));
+        copy.setCreator(creator);
+        copy.setStartingDate(course.getStartingDate());
+        copy.setPublished(course.isPublished());
+        copy.setPassingGrade(course.getPassingGrade());
+        copy.setAvgRating(course.getAvgRating());
+        copy.setDescription(course.getDescription() == null ? null
+                : new CourseDescription(course.getDescription().getCourseId(), course.getDescription().getDescription()));
+        return copy;
+    }
+
+    /**
+     * The search index is updated once the write is committed, so a rolled back write never becomes searchable.
+     * The course is copied, callers may modify it meanwhile.
+     */
+    private void indexAfterCommit(Course course) {
+        Course indexed = copyOf(course);
+        TransactionHooks.afterCommit(() -> courseSearchIndex.index(indexed));
     }
 
     @Override
@@ -422,24 +840,105 @@ public class CourseDaoImpl extends NamedParameterJdbcDaoSupport implements Cours
         return namedParameterJdbcTemplate.query(sql, in, ratingMapper);
     }
 
-    private String generateOrderBy(FilterOptions filterOptions) {
-        if (filterOptions.getSortBy().isEmpty() || filterOptions.getSortBy().get().isEmpty()) {
-            return "";
+    /**
+     * The title, topic and teacher filters are substring LIKE patterns with a leading wildcard, no index can serve them
+     * and they scan all courses. Free text goes through the search index instead, which restricts the query to the matched IDs.
+     */
+    private String generateFilteredQuery(String columns, FilterOptions filterOptions, Optional<CourseCursor> cursor, MapSqlParameterSource in) {
+        String sql = "SELECT " + columns +
+                "FROM courses " +
+                " LEFT JOIN topics ON courses.topic_id = topics.id     " +
+                "  LEFT JOIN users ON courses.creator_id = users.id " +
+                "   JOIN course_rating_summary ON courses.id = course_rating_summary.course_id " +
+                " LEFT JOIN course_description on courses.id = course_description.course_id ";
+
+        List<String> filters = new ArrayList<>();
+
+        if (filterOptions.getTitle().isPresent() && !filterOptions.getTitle().get().isEmpty()) {
+            filters.add("title like :title ");
+            in.addValue("title", String.format("%%%s%%", filterOptions.getTitle().get()));
+        }
+
+        if (filterOptions.getTopic().isPresent() && !filterOptions.getTopic().get().isEmpty()) {
+            filters.add("topic like :topic ");
+            in.addValue("topic", String.format("%%%s%%", filterOptions.getTopic().get()));
+        }
+        if (filterOptions.getTeacher().isPresent() && !filterOptions.getTeacher().get().isEmpty()) {
+            filters.add("email like :teacher ");
+            in.addValue("teacher", String.format("%%%s%%", filterOptions.getTeacher().get()));
+        }
+
+        filterOptions.getCourseIds().ifPresent(courseIds -> {
+            filters.add("courses.id IN (:courseIds) ");
+            in.addValue("courseIds", courseIds);
+        });
+
+        filterOptions.getIsPublic().ifPresent(value -> {
+            if (value) {
+                filters.add("is_published = 1 ");
+            } else {
+                filters.add("is_published = 0 ");
+            }
+        });
+
+        if (filterOptions.getRating().isPresent()) {
+            if (filterOptions.getRating().get() == 0) {
+                filters.add(String.format("(course_rating_summary.avg_rating >= %f OR course_rating_summary.avg_rating IS NULL) ", filterOptions.getRating().get()));
+            } else {
+                filters.add(String.format("%s >= %f ", RATING_SORT_EXPRESSION, filterOptions.getRating().get()));
+            }
         }
 
-        String orderBy = switch (filterOptions.getSortBy().get()) {
-            case "title" -> "title";
-            case "rating" -> "avg_rating";
+        String sortKey = resolveSortKey(filterOptions);
+        cursor.ifPresent(position -> {
+            String comparison = isDescending(filterOptions) ? "<" : ">";
+            in.addValue("cursorId", position.getCourseId());
+            switch (sortKey) {
+                case CourseCursor.SORT_BY_TITLE -> {
+                    filters.add(String.format("(title %1$s :cursorValue OR (title = :cursorValue AND courses.id %1$s :cursorId)) ", comparison));
+                    in.addValue("cursorValue", position.getValue());
+                }
+                case CourseCursor.SORT_BY_RATING -> {
+                    filters.add(String.format("(%1$s %2$s :cursorValue OR (%1$s = :cursorValue AND courses.id %2$s :cursorId)) ", RATING_SORT_EXPRESSION, comparison));
+                    in.addValue("cursorValue", position.getRatingValue());
+                }
+                default -> filters.add(String.format("courses.id %s :cursorId ", comparison));
+            }
+        });
+
+        if (!filters.isEmpty()) {
+            sql += " WHERE ";
+            sql += String.join(" and ", filters);
+        }
+        sql += generateOrderBy(filterOptions);
+        return sql;
+    }
+
+    private String generateOrderBy(FilterOptions filterOptions) {
+        String direction = isDescending(filterOptions) ? " desc" : "";
+
+        String orderBy = switch (resolveSortKey(filterOptions)) {
+            case CourseCursor.SORT_BY_TITLE -> "title" + direction + ", ";
+            case CourseCursor.SORT_BY_RATING -> RATING_SORT_EXPRESSION + direction + ", ";
             default -> "";
         };
 
-        orderBy = String.format(" order by %s", orderBy);
+        return String.format(" order by %scourses.id%s", orderBy, direction);
+    }
 
-        if (filterOptions.getSortOrder().isPresent() && filterOptions.getSortOrder().get().equalsIgnoreCase("desc")) {
-            orderBy = String.format("%s desc", orderBy);
+    private String resolveSortKey(FilterOptions filterOptions) {
+        if (filterOptions.getSortBy().isEmpty() || filterOptions.getSortBy().get().isEmpty()) {
+            return CourseCursor.SORT_BY_ID;
         }
+        return switch (filterOptions.getSortBy().get()) {
+            case "title" -> CourseCursor.SORT_BY_TITLE;
+            case "rating" -> CourseCursor.SORT_BY_RATING;
+            default -> CourseCursor.SORT_BY_ID;
+        };
+    }
 
-        return orderBy;
+    private boolean isDescending(FilterOptions filterOptions) {
+        return filterOptions.getSortOrder().isPresent() && filterOptions.getSortOrder().get().equalsIgnoreCase("desc");
     }
 
 
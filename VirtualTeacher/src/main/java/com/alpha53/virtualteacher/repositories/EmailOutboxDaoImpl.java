@@ -0,0 +1,144 @@
+package com.alpha53.virtualteacher.repositories;
+
+import com.alpha53.virtualteacher.models.OutboxEmail;
+import com.alpha53.virtualteacher.repositories.contracts.EmailOutboxDao;
+import com.alpha53.virtualteacher.utilities.mappers.OutboxEmailMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcDaoSupport;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public class EmailOutboxDaoImpl extends NamedParameterJdbcDaoSupport implements EmailOutboxDao {
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final OutboxEmailMapper outboxEmailMapper = new OutboxEmailMapper();
+
+    public EmailOutboxDaoImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate, DataSource dataSource) {
+        this.setDataSource(dataSource);
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    @Override
+    public void enqueue(OutboxEmail email) {
+        namedParameterJdbcTemplate.update(insertSql(), toParams(email));
+    }
+
+    @Override
+    public void enqueueAll(List<OutboxEmail> emails) {
+        if (emails.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource[] batch = new MapSqlParameterSource[emails.size()];
+        for (int i = 0; i < emails.size(); i++) {
+            batch[i] = toParams(emails.get(i));
+        }
+        namedParameterJdbcTemplate.batchUpdate(insertSql(), batch);
+    }
+
+    /**
+     * Claim the oldest due emails for this dispatcher. Claimed emails are invisible to other dispatchers
+     * until the lease expires, so an email of a crashed dispatcher is picked up again later.
+     */
+    @Override
+    public List<OutboxEmail> claimBatch(int batchSize, Duration lease) {
+        String claimToken = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+
+        String claimSql = "UPDATE email_outbox " +
+                "SET claim_token = :claim_token, locked_until = :locked_until " +
+                "WHERE status = :status AND next_attempt_at <= :now " +
+                "  AND (locked_until IS NULL OR locked_until < :now) " +
+                "ORDER BY id " +
+                "LIMIT :batch_size";
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("claim_token", claimToken);
+        params.addValue("locked_until", now.plus(lease));
+        params.addValue("status", OutboxEmail.STATUS_PENDING);
+        params.addValue("now", now);
+        params.addValue("batch_size", batchSize);
+        if (namedParameterJdbcTemplate.update(claimSql, params) == 0) {
+            return List.of();
+        }
+
+        String sql = "SELECT id, recipient, subject, body, attachment, attachment_name, status, attempts, next_attempt_at, last_error, " +
+                "       claim_token " +
+                "FROM email_outbox WHERE claim_token = :claim_token ORDER BY id";
+        return namedParameterJdbcTemplate.query(sql, params, outboxEmailMapper);
+    }
+
+    @Override
+    public boolean markSent(long id, String claimToken) {
+        String sql = "UPDATE email_outbox " +
+                "SET status = :status, attempts = attempts + 1, sent_at = :sent_at, claim_token = NULL, locked_until = NULL, " +
+                "    attachment = NULL " +
+                "WHERE id = :id AND claim_token = :claim_token";
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("status", OutboxEmail.STATUS_SENT);
+        params.addValue("sent_at", LocalDateTime.now());
+        params.addValue("id", id);
+        params.addValue("claim_token", claimToken);
+        return namedParameterJdbcTemplate.update(sql, params) == 1;
+    }
+
+    @Override
+    public boolean markFailed(long id, String claimToken, int attempts, LocalDateTime nextAttemptAt, String error) {
+        String sql = "UPDATE email_outbox " +
+                "SET attempts = :attempts, next_attempt_at = :next_attempt_at, last_error = :last_error, " +
+                "    claim_token = NULL, locked_until = NULL " +
+                "WHERE id = :id AND claim_token = :claim_token";
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("attempts", attempts);
+        params.addValue("next_attempt_at", nextAttemptAt);
+        params.addValue("last_error", truncate(error));
+        params.addValue("id", id);
+        params.addValue("claim_token", claimToken);
+        return namedParameterJdbcTemplate.update(sql, params) == 1;
+    }
+
+    @Override
+    public boolean markDead(long id, String claimToken, int attempts, String error) {
+        String sql = "UPDATE email_outbox " +
+                "SET status = :status, attempts = :attempts, last_error = :last_error, claim_token = NULL, locked_until = NULL " +
+                "WHERE id = :id AND claim_token = :claim_token";
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("status", OutboxEmail.STATUS_DEAD);
+        params.addValue("attempts", attempts);
+        params.addValue("last_error", truncate(error));
+        params.addValue("id", id);
+        params.addValue("claim_token", claimToken);
+        return namedParameterJdbcTemplate.update(sql, params) == 1;
+    }
+
+    private String insertSql() {
+        return "INSERT INTO email_outbox (recipient, subject, body, attachment, attachment_name, status, attempts, next_attempt_at, created_at) " +
+                "VALUES (:recipient, :subject, :body, :attachment, :attachment_name, :status, 0, :next_attempt_at, :created_at)";
+    }
+
+    private MapSqlParameterSource toParams(OutboxEmail email) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("recipient", email.getRecipient());
+        params.addValue("subject", email.getSubject());
+        params.addValue("body", email.getBody());
+        params.addValue("attachment", email.getAttachment());
+        params.addValue("attachment_name", email.getAttachmentName());
+        params.addValue("status", OutboxEmail.STATUS_PENDING);
+        params.addValue("next_attempt_at", email.getNextAttemptAt() == null ? LocalDateTime.now() : email.getNextAttemptAt());
+        params.addValue("created_at", LocalDateTime.now());
+        return params;
+    }
+
+    private String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,72 @@
+package com.alpha53.virtualteacher.repositories;
+
+import com.alpha53.virtualteacher.repositories.contracts.GraduationCheckpointDao;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcDaoSupport;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+public class GraduationCheckpointDaoImpl extends NamedParameterJdbcDaoSupport implements GraduationCheckpointDao {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public GraduationCheckpointDaoImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate, DataSource dataSource) {
+        this.setDataSource(dataSource);
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    @Override
+    public void startRun(LocalDate runDate) {
+        String sql = "INSERT IGNORE INTO graduation_job_runs (run_date, started_at) VALUES (:run_date, :started_at)";
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("run_date", runDate);
+        params.addValue("started_at", LocalDateTime.now());
+        namedParameterJdbcTemplate.update(sql, params);
+    }
+
+    @Override
+    public void finishRun(LocalDate runDate) {
+        String sql = "UPDATE graduation_job_runs SET finished_at = :finished_at WHERE run_date = :run_date";
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("run_date", runDate);
+        params.addValue("finished_at", LocalDateTime.now());
+        namedParameterJdbcTemplate.update(sql, params);
+    }
+
+    @Override
+    public List<LocalDate> getUnfinishedRuns(LocalDate since) {
+        String sql = "SELECT run_date FROM graduation_job_runs WHERE finished_at IS NULL AND run_date >= :since ORDER BY run_date";
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("since", since);
+        return namedParameterJdbcTemplate.queryForList(sql, params, LocalDate.class);
+    }
+
+    @Override
+    public Set<Integer> getCompletedChunks(LocalDate runDate) {
+        String sql = "SELECT chunk FROM graduation_job_checkpoints WHERE run_date = :run_date";
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("run_date", runDate);
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(sql, params, Integer.class));
+    }
+
+    @Override
+    public void saveCheckpoint(LocalDate runDate, int chunk, int graduates) {
+        String sql = "INSERT INTO graduation_job_checkpoints (run_date, chunk, graduates, completed_at) " +
+                "VALUES (:run_date, :chunk, :graduates, :completed_at) " +
+                "ON DUPLICATE KEY UPDATE graduates = graduates + VALUES(graduates), completed_at = VALUES(completed_at)";
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("run_date", runDate);
+        params.addValue("chunk", chunk);
+        params.addValue("graduates", graduates);
+        params.addValue("completed_at", LocalDateTime.now());
+        namedParameterJdbcTemplate.update(sql, params);
+    }
+}
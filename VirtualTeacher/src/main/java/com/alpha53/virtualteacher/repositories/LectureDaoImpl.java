@@ -4,6 +4,7 @@ import com.alpha53.virtualteacher.exceptions.EntityNotFoundException;
 import com.alpha53.virtualteacher.models.Lecture;
 import com.alpha53.virtualteacher.repositories.contracts.LectureDao;
 import com.alpha53.virtualteacher.utilities.LectureMapper;
+import com.alpha53.virtualteacher.utilities.helpers.CourseChangeTracker;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -20,10 +21,12 @@ import java.util.Optional;
 @Transactional
 public class LectureDaoImpl extends NamedParameterJdbcDaoSupport implements LectureDao {
     private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final CourseChangeTracker courseChangeTracker;
 
-    public LectureDaoImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate, DataSource dataSource) {
+    public LectureDaoImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate, DataSource dataSource, CourseChangeTracker courseChangeTracker) {
         this.setDataSource(dataSource);
         this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.courseChangeTracker = courseChangeTracker;
     }
 
     /**
@@ -87,6 +90,7 @@ public class LectureDaoImpl extends NamedParameterJdbcDaoSupport implements Lect
         if (lecture.getDescription() != null) {
             addDescription(lecture, param);
         }
+        courseChangeTracker.courseChanged(lecture.getCourseId());
         return executeResult;
     }
 
@@ -125,6 +129,7 @@ public class LectureDaoImpl extends NamedParameterJdbcDaoSupport implements Lect
         } else if (lecture.getDescription() != null) {
             addDescription(lecture, params);
         }
+        courseChangeTracker.courseChanged(lecture.getCourseId());
     }
 
     /**
@@ -137,7 +142,10 @@ public class LectureDaoImpl extends NamedParameterJdbcDaoSupport implements Lect
     public int delete(int lectureId) {
         String sql = "DELETE FROM lectures WHERE id =:lectureId";
         MapSqlParameterSource params = new MapSqlParameterSource("lectureId", lectureId);
-        return namedParameterJdbcTemplate.update(sql, params);
+        List<Integer> courseIds = namedParameterJdbcTemplate.queryForList("SELECT course_id FROM lectures WHERE id =:lectureId", params, Integer.class);
+        int deleted = namedParameterJdbcTemplate.update(sql, params);
+        courseIds.forEach(courseChangeTracker::courseChanged);
+        return deleted;
     }
 
     /**
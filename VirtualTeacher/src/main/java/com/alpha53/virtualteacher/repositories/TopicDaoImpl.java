@@ -1,35 +1,62 @@
 package com.alpha53.virtualteacher.repositories;
 
+import com.alpha53.virtualteacher.exceptions.EntityNotFoundException;
 import com.alpha53.virtualteacher.models.Topic;
+import com.alpha53.virtualteacher.repositories.contracts.CourseDao;
 import com.alpha53.virtualteacher.repositories.contracts.TopicDao;
+import com.alpha53.virtualteacher.utilities.helpers.ReferenceDataRegistry;
 import com.alpha53.virtualteacher.utilities.mappers.TopicMapper;
-import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcDaoSupport;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import javax.sql.DataSource;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public class TopicDaoImpl extends NamedParameterJdbcDaoSupport implements TopicDao {
     private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
     private final TopicMapper topicMapper = new TopicMapper();
-    public TopicDaoImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate, DataSource dataSource) {
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final CourseDao courseDao;
+    public TopicDaoImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate, DataSource dataSource, ReferenceDataRegistry referenceDataRegistry,
+                        CourseDao courseDao) {
         this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.courseDao = courseDao;
         this.setDataSource(dataSource);
     }
     @Override
     public List<Topic> getAll() {
-        String sql = "SELECT * FROM topics";
-        return namedParameterJdbcTemplate.query(sql,topicMapper);
+        if (!referenceDataRegistry.areTopicsLoaded()) {
+            reload();
+        }
+        return referenceDataRegistry.getTopics();
     }
 
+    /**
+     * Served from the reference data registry. An unknown ID reloads the topics, in case it was added meanwhile,
+     * unless they were reloaded for a miss moments ago.
+     */
     @Override
     public Topic getById(int id) {
-        String sql = "SELECT * FROM topics WHERE id=:id";
-        MapSqlParameterSource in = new MapSqlParameterSource();
-        in.addValue("id", id);
-        return namedParameterJdbcTemplate.queryForObject(sql,in,topicMapper);
+        Optional<Topic> topic = referenceDataRegistry.getTopic(id);
+        if (topic.isEmpty() && referenceDataRegistry.tryAcquireTopicsMissReload()) {
+            reload();
+            topic = referenceDataRegistry.getTopic(id);
+        }
+        return topic.orElseThrow(() -> new EntityNotFoundException("Topic", "id", String.valueOf(id)));
+    }
+
+    /**
+     * Cached courses carry the name of their topic, so they are dropped when the topics have changed.
+     */
+    @Override
+    public void reload() {
+        String sql = "SELECT * FROM topics";
+        if (referenceDataRegistry.replaceTopics(namedParameterJdbcTemplate.query(sql, topicMapper))) {
+            courseDao.topicsChanged();
+        }
     }
 }
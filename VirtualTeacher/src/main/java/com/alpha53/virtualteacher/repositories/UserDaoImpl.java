@@ -5,8 +5,12 @@ import com.alpha53.virtualteacher.models.FilterOptionsUsers;
 import com.alpha53.virtualteacher.models.Role;
 import com.alpha53.virtualteacher.models.User;
 import com.alpha53.virtualteacher.models.dtos.GradedUserDtoOut;
+import com.alpha53.virtualteacher.repositories.contracts.CourseDao;
 import com.alpha53.virtualteacher.repositories.contracts.UserDao;
+import com.alpha53.virtualteacher.utilities.helpers.ReferenceDataRegistry;
+import com.alpha53.virtualteacher.utilities.helpers.TransactionHooks;
 import com.alpha53.virtualteacher.utilities.mappers.UserMapper;
+import com.alpha53.virtualteacher.utilities.search.EnrollmentIndex;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -16,19 +20,30 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Transactional
 @Repository
 public class UserDaoImpl extends NamedParameterJdbcDaoSupport implements UserDao {
 
     private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final EnrollmentIndex enrollmentIndex;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final CourseDao courseDao;
 
-    public UserDaoImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate, DataSource dataSource) {
+    public UserDaoImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate, DataSource dataSource, EnrollmentIndex enrollmentIndex,
+                       ReferenceDataRegistry referenceDataRegistry, CourseDao courseDao) {
         this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.enrollmentIndex = enrollmentIndex;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.courseDao = courseDao;
         this.setDataSource(dataSource);
     }
 
@@ -153,9 +168,12 @@ public class UserDaoImpl extends NamedParameterJdbcDaoSupport implements UserDao
         namedParameterJdbcTemplate.update(sql, in);
     }
 
+    /**
+     * A user without a password, like one taken from the session, keeps the stored password hash.
+     */
     @Override
     public void update(User user) {
-        String sql = "UPDATE users SET email = :email, password = :password, " +
+        String sql = "UPDATE users SET email = :email, password = COALESCE(:password, password), " +
                      "first_name = :firstName, last_name = :lastName, " +
                      "role_id = :role, picture_url = :pictureUrl, is_verified = :isVerified " +
                      "WHERE id = :userId";
@@ -170,7 +188,23 @@ public class UserDaoImpl extends NamedParameterJdbcDaoSupport implements UserDao
         in.addValue("pictureUrl", user.getPictureUrl());
         in.addValue("isVerified", user.isVerified());
 
+        List<List<Object>> previousProfile = namedParameterJdbcTemplate.query(
+                "SELECT email, first_name, last_name, picture_url, is_verified FROM users WHERE id = :userId",
+                in, UserDaoImpl::creatorProfile);
         namedParameterJdbcTemplate.update(sql, in);
+        // Courses show the profile of their creator, other changes of the user leave them as they are.
+        if (previousProfile.isEmpty() || !previousProfile.get(0).equals(creatorProfile(user))) {
+            courseDao.creatorProfileChanged(user.getUserId());
+        }
+    }
+
+    private static List<Object> creatorProfile(ResultSet rs, int rowNum) throws SQLException {
+        return Arrays.asList(rs.getString("email"), rs.getString("first_name"), rs.getString("last_name"),
+                rs.getString("picture_url"), rs.getBoolean("is_verified"));
+    }
+
+    private static List<Object> creatorProfile(User user) {
+        return Arrays.asList(user.getEmail(), user.getFirstName(), user.getLastName(), user.getPictureUrl(), user.isVerified());
     }
 
     @Override
@@ -179,28 +213,36 @@ public class UserDaoImpl extends NamedParameterJdbcDaoSupport implements UserDao
         MapSqlParameterSource in = new MapSqlParameterSource();
         in.addValue("id", id);
         namedParameterJdbcTemplate.update(sql, in);
+        // The enrollments of the user are deleted by the database cascade.
+        TransactionHooks.afterCommit(() -> enrollmentIndex.removeUser(id));
     }
 
+    /**
+     * Served from the reference data registry. An unknown role reloads the roles, in case it was added meanwhile,
+     * unless they were reloaded for a miss moments ago.
+     */
     public Role getRole(String roleType) {
-        String query = "SELECT id as roleId, role as roleType " +
-                       "FROM roles " +
-                       "WHERE role like :roleType;";
-
-        MapSqlParameterSource in = new MapSqlParameterSource();
-        in.addValue("roleType", roleType);
-
-        try {
-            return namedParameterJdbcTemplate.queryForObject(query, in, new BeanPropertyRowMapper<>(Role.class));
-        } catch (IncorrectResultSizeDataAccessException e) {
-            throw new EntityNotFoundException(String.format("No role %s found.", roleType));
+        Optional<Role> role = referenceDataRegistry.getRole(roleType);
+        if (role.isEmpty() && referenceDataRegistry.tryAcquireRolesMissReload()) {
+            reloadRoles();
+            role = referenceDataRegistry.getRole(roleType);
         }
+        return role.orElseThrow(() -> new EntityNotFoundException(String.format("No role %s found.", roleType)));
     }
 
     public List<Role> getRoles() {
+        if (!referenceDataRegistry.areRolesLoaded()) {
+            reloadRoles();
+        }
+        return referenceDataRegistry.getRoles();
+    }
+
+    @Override
+    public void reloadRoles() {
         String query = "SELECT id as roleId, role as roleType " +
                 "FROM roles";
 
-            return namedParameterJdbcTemplate.query(query,new BeanPropertyRowMapper<>(Role.class));
+        referenceDataRegistry.replaceRoles(namedParameterJdbcTemplate.query(query, new BeanPropertyRowMapper<>(Role.class)));
     }
 
     @Override
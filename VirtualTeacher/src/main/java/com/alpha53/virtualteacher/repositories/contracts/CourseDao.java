@@ -2,16 +2,31 @@ package com.alpha53.virtualteacher.repositories.contracts;
 
 import com.alpha53.virtualteacher.models.*;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface CourseDao {
 
     Course get(int id);
 
+    /**
+     * Loads the course together with its lectures and their descriptions in one query.
+     */
+    Course getWithLectures(int id);
+
     Course getByTitle(String title);
 
     List<Course> get(FilterOptions filterOptions);
 
+    /**
+     * @return IDs of the courses matching the filter options, in the order of their sorting
+     */
+    List<Integer> getCourseIds(FilterOptions filterOptions);
+
+    CoursePage getPage(FilterOptions filterOptions);
+
     // List<Course> getUsersEnrolledCourses(int userId);
     List<Course> getUsersCompletedCourses(int userId);
 
@@ -19,8 +34,26 @@ public interface CourseDao {
 
     void enrollUserForCourse(int userId, int courseId);
 
+    /**
+     * Find the users with the given IDs or emails together with their enrollment in the course.
+     */
+    List<EnrollmentCandidate> getEnrollmentCandidates(int courseId, Collection<Integer> userIds, Collection<String> emails);
+
+    /**
+     * Enroll the users for the course in one transaction with batched inserts. Users enrolled meanwhile are skipped.
+     *
+     * @return the IDs of the users which were enrolled
+     */
+    List<Integer> enrollUsersForCourse(int courseId, List<Integer> userIds);
+
     void completeCourse(int userId, int courseId);
 
+    void completeCourses(List<GraduationCandidate> graduates);
+
+    Stream<GraduationCandidate> getGraduationCandidates(int fromCourseId, int toCourseId);
+
+    List<Integer> getOngoingCourseChunks(int chunkSize);
+
     List<Course> getCoursesByUser(int userId);
 
     List<Course> getCoursesByCreator(int creatorId);
@@ -36,14 +69,43 @@ public interface CourseDao {
     //TODO DTO object should not pass to DAO
     void rateCourse(RatingDto rating, int courseId, int raterId);
 
+    List<Integer> getRatedCourseIds(int raterId);
+
+    /**
+     * The courses show the name, email and picture of their creator, so a change of that profile changes all of them.
+     */
+    void creatorProfileChanged(int creatorId);
+
+    /**
+     * The courses show the name of their topic, so a change of the topics changes all of them.
+     */
+    void topicsChanged();
+
+    void refreshRatingSummaries(List<Integer> courseIds);
+
     boolean isUserEnrolled(int userId, int courseId);
 
     void removeStudent(User user, Course course);
 
+    /**
+     * @return true if any student, ongoing or graduated, is enrolled for the course
+     */
+    boolean hasEnrollments(int courseId);
+
+    /**
+     * Load all enrollments into the in-memory enrollment index, which then answers the membership checks.
+     */
+    void rebuildEnrollmentIndex();
+
     boolean hasUserPassedCourse(int userId, int courseId);
 
     List<Integer> getIdOngoingCourses();
 
+    /**
+     * @return hit ratio, size, evictions and load latency of the course cache behind {@link #get(int)}
+     */
+    Map<String, Number> getCacheMetrics();
+
     Integer getCoursesCount();
 
     List<Rating> getRatingsByCourseId(int courseId);
@@ -0,0 +1,27 @@
+package com.alpha53.virtualteacher.repositories.contracts;
+
+import com.alpha53.virtualteacher.models.OutboxEmail;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxDao {
+
+    void enqueue(OutboxEmail email);
+
+    void enqueueAll(List<OutboxEmail> emails);
+
+    List<OutboxEmail> claimBatch(int batchSize, Duration lease);
+
+    /**
+     * The mark methods only update an email which is still claimed with the given token.
+     *
+     * @return false if the lease expired and the email was claimed by another dispatcher meanwhile
+     */
+    boolean markSent(long id, String claimToken);
+
+    boolean markFailed(long id, String claimToken, int attempts, LocalDateTime nextAttemptAt, String error);
+
+    boolean markDead(long id, String claimToken, int attempts, String error);
+}
@@ -0,0 +1,24 @@
+package com.alpha53.virtualteacher.repositories.contracts;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+public interface GraduationCheckpointDao {
+
+    /**
+     * Record that the run of the date started. Starting a run again, when it is resumed, keeps its first start.
+     */
+    void startRun(LocalDate runDate);
+
+    void finishRun(LocalDate runDate);
+
+    /**
+     * @return dates of the runs started on or after the given date which did not finish, oldest first
+     */
+    List<LocalDate> getUnfinishedRuns(LocalDate since);
+
+    Set<Integer> getCompletedChunks(LocalDate runDate);
+
+    void saveCheckpoint(LocalDate runDate, int chunk, int graduates);
+}
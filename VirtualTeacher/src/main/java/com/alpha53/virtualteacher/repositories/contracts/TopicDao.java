@@ -8,4 +8,9 @@ public interface TopicDao {
     List<Topic> getAll();
     Topic getById( int id );
 
+    /**
+     * Load the topics into the reference data registry, which answers the topic lookups.
+     */
+    void reload();
+
 }
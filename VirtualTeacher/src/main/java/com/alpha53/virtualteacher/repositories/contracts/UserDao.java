@@ -26,5 +26,11 @@ public interface UserDao {
     Role getRole(String roleType);
 
     List<Role> getRoles();
+
+    /**
+     * Load the roles into the reference data registry, which answers the role lookups.
+     */
+    void reloadRoles();
+
     List<GradedUserDtoOut> getStudentsByLectureId(int lectureId);
 }
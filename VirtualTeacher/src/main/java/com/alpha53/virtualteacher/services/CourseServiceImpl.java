@@ -3,11 +3,13 @@ package com.alpha53.virtualteacher.services;
 import com.alpha53.virtualteacher.exceptions.AuthorizationException;
 import com.alpha53.virtualteacher.exceptions.EntityDuplicateException;
 import com.alpha53.virtualteacher.exceptions.EntityNotFoundException;
+import com.alpha53.virtualteacher.exceptions.InvalidCursorException;
 import com.alpha53.virtualteacher.models.*;
 import com.alpha53.virtualteacher.repositories.contracts.CourseDao;
-import com.alpha53.virtualteacher.repositories.contracts.LectureDao;
 import com.alpha53.virtualteacher.services.contracts.CourseService;
 import com.alpha53.virtualteacher.services.contracts.UserService;
+import com.alpha53.virtualteacher.utilities.helpers.CourseCursor;
+import com.alpha53.virtualteacher.utilities.search.CourseSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -21,15 +23,19 @@ public class CourseServiceImpl implements CourseService {
     public static final String COURSE_TRANSFER_EXCEPTION = "Courses can only be transferred by an Admin.";
     public static final String ASSIGN_COURSE_TO_USER_EXCEPTION = "Courses can only be assigned to teachers.";
     public static final String INVALID_CURRENT_TEACHER_EXCEPTION = "User with ID %d is not a Teacher.";
+    public static final int MAX_BULK_ENROLLMENT_SIZE = 1000;
+    public static final String BULK_ENROLLMENT_TOO_LARGE = "At most %d users can be enrolled at once.";
+    public static final int MAX_SEARCH_RESULTS = 1000;
+    private static final int SEARCH_ID_CHUNK_SIZE = 1000;
     private final CourseDao courseRepository;
     private final UserService userService;
-    private final LectureDao lectureDao;
+    private final CourseSearchIndex courseSearchIndex;
 
     @Autowired
-    public CourseServiceImpl(CourseDao courseRepository, UserService userService, LectureDao lectureDao) {
+    public CourseServiceImpl(CourseDao courseRepository, UserService userService, CourseSearchIndex courseSearchIndex) {
         this.courseRepository = courseRepository;
         this.userService = userService;
-        this.lectureDao = lectureDao;
+        this.courseSearchIndex = courseSearchIndex;
     }
 
     public void create(Course course, User user) {
@@ -77,7 +83,7 @@ public class CourseServiceImpl implements CourseService {
     public void delete(int id, User user) {
         Course course = courseRepository.get(id);
         checkModifyPermissions(id, user);
-        if (!course.isPublished() || courseRepository.getStudentsWhichAreEnrolledForCourse(id).isEmpty()) {
+        if (!course.isPublished() || !courseRepository.hasEnrollments(id)) {
 
             courseRepository.delete(id);
         } else {
@@ -87,12 +93,10 @@ public class CourseServiceImpl implements CourseService {
     }
 
     public Course getCourseById(int id) {
-        Course course = courseRepository.get(id);
+        Course course = courseRepository.getWithLectures(id);
         if (!course.isPublished()) {
             throw new AuthorizationException("Only teacher or admin can access a course which is not public");
         } else {
-            Set<Lecture> lectures = new HashSet<>(lectureDao.getAllByCourseId(id));
-            course.setLectures(lectures);
             return course;
         }
 
@@ -101,12 +105,10 @@ public class CourseServiceImpl implements CourseService {
 
     @Override
     public Course getCourseByIdAuth(int id, User user) {
-        Course course = courseRepository.get(id);
+        Course course = courseRepository.getWithLectures(id);
         if (!course.isPublished() && (user.getRole().getRoleType().equalsIgnoreCase("student") || user.getRole().getRoleType().equalsIgnoreCase("PendingTeacher"))) {
             throw new AuthorizationException("Only teacher or admin can access a course which is not public");
         } else {
-            Set<Lecture> lectures = new HashSet<>(lectureDao.getAllByCourseId(id));
-            course.setLectures(lectures);
             return course;
         }
     }
@@ -116,11 +118,83 @@ public class CourseServiceImpl implements CourseService {
         return courseRepository.get(filterOptions);
     }
 
+    /**
+     * Get the courses matching the filter options.
+     * A free text search is answered by the search index, the database only loads and filters the matched courses.
+     * A search returns at most MAX_SEARCH_RESULTS courses, without explicit sorting they are ordered by relevance.
+     */
     public List<Course> get(FilterOptions filterOptions, Optional<User> optionalUser) {
-        if (optionalUser.isEmpty() || optionalUser.get().getRole().getRoleType().equalsIgnoreCase("student") || optionalUser.get().getRole().getRoleType().equalsIgnoreCase("PendingTeacher")){
-            filterOptions.setIsPublic(Optional.of(Boolean.TRUE));
+        restrictToPublicCourses(filterOptions, optionalUser);
+        Optional<List<Integer>> rankedIds = searchCourseIds(filterOptions);
+        if (rankedIds.isEmpty()) {
+            return courseRepository.get(filterOptions);
         }
-        return courseRepository.get(filterOptions);
+
+        List<Integer> topIds = filterRanking(filterOptions, rankedIds.get(), 0, MAX_SEARCH_RESULTS);
+        if (topIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        filterOptions.setCourseIds(Optional.of(topIds));
+        List<Course> courses = courseRepository.get(filterOptions);
+        if (!isSorted(filterOptions)) {
+            sortByRank(courses, topIds);
+        }
+        return courses;
+    }
+
+    /**
+     * Get one page of the courses matching the filter options.
+     * A search without explicit sorting is paged in the order of relevance: the ranking is walked from the cursor
+     * in chunks, the database filters each chunk and only the courses of the page are loaded.
+     * Otherwise the database pages the catalog with a keyset, a search is limited to its MAX_SEARCH_RESULTS best matches.
+     */
+    @Override
+    public CoursePage getPage(FilterOptions filterOptions, Optional<User> optionalUser) {
+        restrictToPublicCourses(filterOptions, optionalUser);
+        Optional<List<Integer>> rankedIds = searchCourseIds(filterOptions);
+        int pageSize = CoursePage.resolvePageSize(filterOptions.getPageSize());
+        if (rankedIds.isPresent() && rankedIds.get().isEmpty()) {
+            return new CoursePage(new ArrayList<>(), pageSize, null);
+        }
+        if (rankedIds.isEmpty()) {
+            return courseRepository.getPage(filterOptions);
+        }
+        if (isSorted(filterOptions)) {
+            List<Integer> topIds = filterRanking(filterOptions, rankedIds.get(), 0, MAX_SEARCH_RESULTS);
+            if (topIds.isEmpty()) {
+                return new CoursePage(new ArrayList<>(), pageSize, null);
+            }
+            filterOptions.setCourseIds(Optional.of(topIds));
+            return courseRepository.getPage(filterOptions);
+        }
+
+        Optional<CourseCursor> cursor = Optional.empty();
+        if (filterOptions.getCursor().isPresent() && !filterOptions.getCursor().get().isEmpty()) {
+            CourseCursor decoded = CourseCursor.decode(filterOptions.getCursor().get());
+            if (!decoded.matches(CourseCursor.SORT_BY_RELEVANCE, false)) {
+                throw new InvalidCursorException(filterOptions.getCursor().get());
+            }
+            cursor = Optional.of(decoded);
+        }
+
+        List<Integer> ranking = rankedIds.get();
+        int from = cursor.map(position -> resumePosition(ranking, position)).orElse(0);
+        // One course more than the page tells whether there is a next page
+        List<Integer> pageIds = filterRanking(filterOptions, ranking, from, pageSize + 1);
+        if (pageIds.isEmpty()) {
+            return new CoursePage(new ArrayList<>(), pageSize, null);
+        }
+        boolean hasNext = pageIds.size() > pageSize;
+        if (hasNext) {
+            pageIds = new ArrayList<>(pageIds.subList(0, pageSize));
+        }
+        filterOptions.setCourseIds(Optional.of(pageIds));
+        List<Course> courses = courseRepository.get(filterOptions);
+        sortByRank(courses, pageIds);
+
+        int lastCourseId = pageIds.get(pageIds.size() - 1);
+        String nextCursor = hasNext ? CourseCursor.atPosition(ranking.indexOf(lastCourseId) + 1, lastCourseId).encode() : null;
+        return new CoursePage(courses, pageSize, nextCursor);
     }
 
     @Override
@@ -153,10 +227,9 @@ public class CourseServiceImpl implements CourseService {
 
     @Override
     public void enrollUserForCourse(User user, int courseId) {
-        List<Course> enrolledCourses = courseRepository.getCoursesByUser(user.getUserId());
         Course course = courseRepository.get(courseId);
 
-        if (containsId(enrolledCourses, courseId)) {
+        if (courseRepository.isUserEnrolled(user.getUserId(), courseId)) {
             throw new EntityDuplicateException("Record", "id", Integer.toString(courseId));
 
         } else if (!user.getRole().getRoleType().equalsIgnoreCase("student")) {
@@ -171,6 +244,58 @@ public class CourseServiceImpl implements CourseService {
 
     }
 
+    /**
+     * Enroll a group of students at once. The requested users and their enrollments are loaded with one query
+     * and the enrollable students are inserted in one batch, so the number of statements does not grow with the group.
+     * A user who cannot be enrolled does not fail the request, the reason is reported in its outcome.
+     *
+     * @return one outcome per requested user ID and email, in the order of the request
+     */
+    @Override
+    public List<EnrollmentOutcome> enrollUsersForCourse(int courseId, List<Integer> userIds, List<String> emails, User user) {
+        if (userIds.size() + emails.size() > MAX_BULK_ENROLLMENT_SIZE) {
+            throw new IllegalArgumentException(String.format(BULK_ENROLLMENT_TOO_LARGE, MAX_BULK_ENROLLMENT_SIZE));
+        }
+        Course course = courseRepository.get(courseId);
+        checkModifyPermissions(courseId, user);
+        if (course.getStartingDate().isAfter(LocalDate.now())) {
+            throw new AuthorizationException("You cannot enroll before the starting date");
+        } else if (!course.isPublished()) {
+            throw new AuthorizationException("You cannot enroll for course which is not public");
+        }
+
+        Set<Integer> requestedIds = new LinkedHashSet<>();
+        userIds.stream().filter(Objects::nonNull).forEach(requestedIds::add);
+        Set<String> requestedEmails = new LinkedHashSet<>();
+        emails.stream().filter(email -> email != null && !email.isBlank()).forEach(requestedEmails::add);
+        Map<Integer, EnrollmentCandidate> candidatesById = new HashMap<>();
+        Map<String, EnrollmentCandidate> candidatesByEmail = new HashMap<>();
+        for (EnrollmentCandidate candidate : courseRepository.getEnrollmentCandidates(courseId, requestedIds, requestedEmails)) {
+            candidatesById.put(candidate.getUserId(), candidate);
+            candidatesByEmail.put(candidate.getEmail().toLowerCase(Locale.ROOT), candidate);
+        }
+
+        List<EnrollmentOutcome> outcomes = new ArrayList<>();
+        for (Integer userId : userIds) {
+            outcomes.add(enrollmentOutcome(String.valueOf(userId), candidatesById.get(userId)));
+        }
+        for (String email : emails) {
+            outcomes.add(enrollmentOutcome(email, email == null ? null : candidatesByEmail.get(email.toLowerCase(Locale.ROOT))));
+        }
+
+        Set<Integer> enrollable = new LinkedHashSet<>();
+        outcomes.stream()
+                .filter(outcome -> outcome.getStatus() == EnrollmentOutcome.Status.ENROLLED)
+                .forEach(outcome -> enrollable.add(outcome.getUserId()));
+        Set<Integer> enrolled = new HashSet<>(courseRepository.enrollUsersForCourse(courseId, new ArrayList<>(enrollable)));
+        for (EnrollmentOutcome outcome : outcomes) {
+            if (outcome.getStatus() == EnrollmentOutcome.Status.ENROLLED && !enrolled.contains(outcome.getUserId())) {
+                outcome.setStatus(EnrollmentOutcome.Status.ALREADY_ENROLLED);
+            }
+        }
+        return outcomes;
+    }
+
     @Override
     public void rateCourse(RatingDto rating, int courseId, int raterId) {
         if (courseRepository.hasUserPassedCourse(raterId, courseId)) {
@@ -191,8 +316,80 @@ public class CourseServiceImpl implements CourseService {
         return courseRepository.hasUserPassedCourse(userId, courseId);
     }
 
-    private boolean containsId(final List<Course> list, final int id) {
-        return list.stream().anyMatch(o -> o.getCourseId() == id);
+    private void restrictToPublicCourses(FilterOptions filterOptions, Optional<User> optionalUser) {
+        if (optionalUser.isEmpty() || optionalUser.get().getRole().getRoleType().equalsIgnoreCase("student") || optionalUser.get().getRole().getRoleType().equalsIgnoreCase("PendingTeacher")){
+            filterOptions.setIsPublic(Optional.of(Boolean.TRUE));
+        }
+    }
+
+    /**
+     * Resolve the free text search of the filter options against the search index.
+     *
+     * @return the matched IDs ordered by relevance, or empty Optional if there is no search
+     */
+    private Optional<List<Integer>> searchCourseIds(FilterOptions filterOptions) {
+        if (filterOptions.getSearch().isEmpty() || filterOptions.getSearch().get().isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.of(courseSearchIndex.search(filterOptions.getSearch().get()));
+    }
+
+    /**
+     * Walk the ranking from the given position and keep the IDs which pass the other filter options, until the limit is reached.
+     * Every chunk of the ranking is one bounded IN query, so the cost depends on how deep the walk goes
+     * and not on how many courses matched the search.
+     *
+     * @return the filtered IDs in the order of the ranking, at most limit of them
+     */
+    private List<Integer> filterRanking(FilterOptions filterOptions, List<Integer> ranking, int from, int limit) {
+        List<Integer> filtered = new ArrayList<>();
+        for (int start = from; start < ranking.size() && filtered.size() < limit; start += SEARCH_ID_CHUNK_SIZE) {
+            List<Integer> chunk = ranking.subList(start, Math.min(ranking.size(), start + SEARCH_ID_CHUNK_SIZE));
+            filterOptions.setCourseIds(Optional.of(new ArrayList<>(chunk)));
+            Set<Integer> passed = new HashSet<>(courseRepository.getCourseIds(filterOptions));
+            for (Integer courseId : chunk) {
+                if (passed.contains(courseId) && filtered.size() < limit) {
+                    filtered.add(courseId);
+                }
+            }
+        }
+        return filtered;
+    }
+
+    private static boolean isSorted(FilterOptions filterOptions) {
+        return filterOptions.getSortBy().isPresent() && !filterOptions.getSortBy().get().isEmpty();
+    }
+
+    private static void sortByRank(List<Course> courses, List<Integer> rankedIds) {
+        Map<Integer, Integer> rank = new HashMap<>();
+        for (int i = 0; i < rankedIds.size(); i++) {
+            rank.put(rankedIds.get(i), i);
+        }
+        courses.sort(Comparator.comparing(course -> rank.getOrDefault(course.getCourseId(), Integer.MAX_VALUE)));
+    }
+
+    /**
+     * The page continues after the last course of the previous page, so courses which were added to or removed from
+     * the ranking before it neither repeat nor get skipped. The stored position in the ranking is used if that course is gone.
+     */
+    private static int resumePosition(List<Integer> ranking, CourseCursor cursor) {
+        int last = ranking.indexOf(cursor.getCourseId());
+        return last >= 0 ? last + 1 : Math.min(cursor.getPosition(), ranking.size());
+    }
+
+    private static EnrollmentOutcome enrollmentOutcome(String requestedUser, EnrollmentCandidate candidate) {
+        if (candidate == null) {
+            return new EnrollmentOutcome(requestedUser, null, EnrollmentOutcome.Status.NOT_FOUND);
+        }
+        EnrollmentOutcome.Status status;
+        if (!candidate.getRoleType().equalsIgnoreCase("student")) {
+            status = EnrollmentOutcome.Status.NOT_STUDENT;
+        } else if (candidate.getOngoing() != null) {
+            status = candidate.getOngoing() ? EnrollmentOutcome.Status.ALREADY_ENROLLED : EnrollmentOutcome.Status.ALREADY_COMPLETED;
+        } else {
+            status = EnrollmentOutcome.Status.ENROLLED;
+        }
+        return new EnrollmentOutcome(requestedUser, candidate.getUserId(), status);
     }
 
     private void checkModifyPermissions(int courseId, User user) {
@@ -206,6 +403,11 @@ public class CourseServiceImpl implements CourseService {
      return courseRepository.getCoursesCount();
     }
 
+    @Override
+    public Map<String, Number> getCacheMetrics() {
+        return courseRepository.getCacheMetrics();
+    }
+
     @Override
     public List<Rating> getRatingsByCourseId(int courseId) {
         return courseRepository.getRatingsByCourseId(courseId);
@@ -61,21 +61,21 @@ public class LectureServiceImpl implements LectureService {
 
     @Override
     public List<Lecture> getAllByCourseId(int courseId, User user) {
-
-        Course course = courseDao.get(courseId);
-        if (user.getRole().getRoleType().equalsIgnoreCase("admin") ||
-                course.getCreator().getUserId() == user.getUserId()) {
-            return lectureDao.getAllByCourseId(courseId);
-        }
-
-        List<Course> enrolledCourses = courseDao.getCoursesByUser(user.getUserId());
-        if (enrolledCourses.stream().anyMatch(c -> c.getCourseId() == courseId)) {
+        if (canViewLectures(courseId, user)) {
             return lectureDao.getAllByCourseId(courseId);
         }
         return Collections.emptyList();
 
     }
 
+    @Override
+    public boolean canViewLectures(int courseId, User user) {
+        Course course = courseDao.get(courseId);
+        return user.getRole().getRoleType().equalsIgnoreCase("admin") ||
+                course.getCreator().getUserId() == user.getUserId() ||
+                courseDao.isUserEnrolled(user.getUserId(), courseId);
+    }
+
     /**
      * Create lecture to a course
      * User must be creator of the course or with role "ADMIN"
@@ -137,9 +137,7 @@ public class LectureServiceImpl implements LectureService {
 
         FileValidator.fileTypeValidator(solution, "text");
         if (courseDao.isUserEnrolled(user.getUserId(), courseId)) {
-            Course course = courseDao.get(courseId);
-            Set<Lecture> lectures = new HashSet<>(lectureDao.getAllByCourseId(course.getCourseId()));
-            course.setLectures(lectures);
+            Course course = courseDao.getWithLectures(courseId);
             if (course.getLectures().stream().noneMatch(lecture -> lecture.getId() == lectureId)) {
                 throw new EntityNotFoundException("Lecture", "ID", String.valueOf(lectureId));
             }
@@ -0,0 +1,126 @@
+package com.alpha53.virtualteacher.services;
+
+import com.alpha53.virtualteacher.config.WikiProperties;
+import com.alpha53.virtualteacher.models.WikiResult;
+import com.alpha53.virtualteacher.services.contracts.WikiService;
+import com.alpha53.virtualteacher.utilities.helpers.WikiContentCleaner;
+import com.alpha53.virtualteacher.utilities.search.LocalWikiIndex;
+import com.alpha53.virtualteacher.utilities.search.LocalWikiIndexWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers wiki searches from a local index of a Wikipedia dump, for deployments without access to Wikipedia.
+ * Enabled with {@code wiki.source=local}. The index is built from {@code wiki.local-dump-path} on the first start.
+ */
+@Service
+@ConditionalOnProperty(prefix = "wiki", name = "source", havingValue = "local")
+public class LocalWikiServiceImpl implements WikiService {
+    private final static Logger LOGGER = LoggerFactory.getLogger(LocalWikiServiceImpl.class);
+    public static final int MAX_RESULTS = 3;
+    public static final int SNIPPET_LENGTH = 200;
+    private static final String ARTICLE_URI = "https://en.wikipedia.org/wiki/";
+
+    private final LocalWikiIndex index;
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong queryNanos = new AtomicLong();
+    private final AtomicLong maxQueryNanos = new AtomicLong();
+    private LocalWikiIndexWriter.IngestStats ingestStats;
+
+    public LocalWikiServiceImpl(WikiProperties wikiProperties) {
+        Path indexPath = Path.of(wikiProperties.getLocalIndexPath());
+        try {
+            if (!LocalWikiIndex.exists(indexPath)) {
+                if (wikiProperties.getLocalDumpPath() == null) {
+                    throw new IllegalStateException(String.format("No local wiki index in %s and no dump to build it from", indexPath));
+                }
+                LocalWikiIndexWriter writer = new LocalWikiIndexWriter(new WikiContentCleaner(wikiProperties.getContentMaxLength()));
+                ingestStats = writer.ingest(Path.of(wikiProperties.getLocalDumpPath()), indexPath);
+            }
+            this.index = LocalWikiIndex.open(indexPath);
+        } catch (IOException e) {
+            throw new IllegalStateException(String.format("Failed to open the local wiki index in %s", indexPath), e);
+        }
+        LOGGER.info("Local wiki index opened with {} articles and {} terms", index.size(), index.termCount());
+    }
+
+    @Override
+    public List<WikiResult> getSearchResult(String searchCriteria) {
+        long start = System.nanoTime();
+        List<LocalWikiIndex.Article> articles = index.search(searchCriteria, MAX_RESULTS);
+        List<WikiResult> results = new ArrayList<>(articles.size());
+        for (LocalWikiIndex.Article article : articles) {
+            WikiResult result = new WikiResult();
+            result.setPageid(article.pageId());
+            result.setTitle(article.title());
+            result.setSnippet(snippet(article.content(), searchCriteria));
+            result.setContent(article.content());
+            result.setFullUrl(ARTICLE_URI + URLEncoder.encode(article.title().replace(' ', '_'), StandardCharsets.UTF_8));
+            results.add(result);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        queries.incrementAndGet();
+        queryNanos.addAndGet(elapsed);
+        maxQueryNanos.accumulateAndGet(elapsed, Math::max);
+        return results;
+    }
+
+    @Override
+    public CompletableFuture<List<WikiResult>> getSearchResultAsync(String searchCriteria) {
+        return CompletableFuture.completedFuture(getSearchResult(searchCriteria));
+    }
+
+    @Override
+    public Map<String, Number> getMetrics() {
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        long count = queries.get();
+        metrics.put("articles", index.size());
+        metrics.put("terms", index.termCount());
+        metrics.put("queries", count);
+        metrics.put("averageQueryMicros", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(queryNanos.get() / count));
+        metrics.put("maxQueryMicros", TimeUnit.NANOSECONDS.toMicros(maxQueryNanos.get()));
+        if (ingestStats != null) {
+            metrics.put("ingestMillis", ingestStats.duration().toMillis());
+            metrics.put("ingestArticlesPerSecond", ingestStats.articlesPerSecond());
+            metrics.put("ingestMegabytesPerSecond", ingestStats.megabytesPerSecond());
+        }
+        return metrics;
+    }
+
+    /**
+     * Cut a window of the content around the first occurrence of a search term, or its beginning if no term occurs.
+     */
+    static String snippet(String content, String searchCriteria) {
+        String lowerContent = content.toLowerCase(Locale.ROOT);
+        int match = -1;
+        for (String term : searchCriteria.toLowerCase(Locale.ROOT).split("\\s+")) {
+            int index = term.isEmpty() ? -1 : lowerContent.indexOf(term);
+            if (index >= 0 && (match < 0 || index < match)) {
+                match = index;
+            }
+        }
+
+        int start = Math.max(0, match - SNIPPET_LENGTH / 4);
+        while (start > 0 && !Character.isWhitespace(content.charAt(start - 1))) {
+            start--;
+        }
+        int end = Math.min(content.length(), start + SNIPPET_LENGTH);
+        while (end < content.length() && !Character.isWhitespace(content.charAt(end))) {
+            end++;
+        }
+        String snippet = content.substring(start, end).replaceAll("\\s+", " ").strip();
+        return (start > 0 ? "..." : "") + snippet + (end < content.length() ? "..." : "");
+    }
+}
@@ -4,6 +4,7 @@ import com.alpha53.virtualteacher.exceptions.AuthorizationException;
 import com.alpha53.virtualteacher.exceptions.EntityDuplicateException;
 import com.alpha53.virtualteacher.exceptions.EntityNotFoundException;
 import com.alpha53.virtualteacher.exceptions.RegistrationException;
+import com.alpha53.virtualteacher.exceptions.StorageException;
 import com.alpha53.virtualteacher.models.*;
 import com.alpha53.virtualteacher.models.dtos.GradedUserDtoOut;
 import com.alpha53.virtualteacher.models.dtos.UserDto;
@@ -14,8 +15,12 @@ import com.alpha53.virtualteacher.services.contracts.ConfirmationTokenService;
 import com.alpha53.virtualteacher.services.contracts.EmailService;
 import com.alpha53.virtualteacher.services.contracts.StorageService;
 import com.alpha53.virtualteacher.services.contracts.UserService;
+import com.alpha53.virtualteacher.utilities.helpers.PasswordHasher;
+import com.alpha53.virtualteacher.utilities.helpers.ProfilePictures;
+import com.alpha53.virtualteacher.utilities.helpers.UserChangeTracker;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
@@ -47,15 +52,21 @@ public class UserServiceImpl implements UserService {
     private final StorageService storageService;
     private final ConfirmationTokenService confirmationTokenService;
     private final EmailService emailService;
+    private final PasswordHasher passwordHasher;
+    private final UserChangeTracker userChangeTracker;
+    private final ProfilePictures profilePictures;
 
     @Autowired
-    public UserServiceImpl(UserDao userRepository, CourseDao courseDao, SolutionDao solutionDao, StorageService storageService, ConfirmationTokenService confirmationTokenService, EmailService emailService) {
+    public UserServiceImpl(UserDao userRepository, CourseDao courseDao, SolutionDao solutionDao, StorageService storageService, ConfirmationTokenService confirmationTokenService, EmailService emailService, PasswordHasher passwordHasher, UserChangeTracker userChangeTracker, ProfilePictures profilePictures) {
         this.userDao = userRepository;
         this.courseDao = courseDao;
         this.solutionDao = solutionDao;
         this.storageService = storageService;
         this.confirmationTokenService = confirmationTokenService;
         this.emailService = emailService;
+        this.passwordHasher = passwordHasher;
+        this.userChangeTracker = userChangeTracker;
+        this.profilePictures = profilePictures;
     }
 
 
@@ -91,6 +102,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public void create(User user, String userRole) {
         // TODO: 1.12.23 consider alternatives for the following 10 rows.
         try {
@@ -116,6 +128,7 @@ public class UserServiceImpl implements UserService {
         Role role = userDao.getRole(userRole);
         user.setRole(role);
         user.setPictureUrl(DEFAULT_PHOTO_URL);
+        user.setPassword(passwordHasher.hash(user.getPassword()));
         userDao.create(user);
         sendConfirmationToken(user);
     }
@@ -136,6 +149,7 @@ public class UserServiceImpl implements UserService {
         confirmationTokenService.setConfirmedAt(token);
         user.setVerified(true);
         userDao.update(user);
+        userChangeTracker.userChanged(user.getUserId());
     }
     
 
@@ -156,8 +170,9 @@ public class UserServiceImpl implements UserService {
         }
         user.setFirstName(userDto.getFirstName());
         user.setLastName(userDto.getLastName());
-        user.setPassword(userDto.getPassword());
+        user.setPassword(passwordHasher.hash(userDto.getPassword()));
         userDao.update(user);
+        userChangeTracker.userChanged(user.getUserId());
     }
 
     @Override
@@ -181,8 +196,12 @@ public class UserServiceImpl implements UserService {
         storageService.deleteAll(solutionList);
         if (!userToDelete.getPictureUrl().equals(DEFAULT_PHOTO_URL)) {
             storageService.delete(userToDelete.getPictureUrl());
+            profilePictures.deleteVariants(userToDelete.getPictureUrl());
         }
+        List<Integer> ratedCourseIds = courseDao.getRatedCourseIds(id);
         userDao.delete(id);
+        userChangeTracker.userChanged(id);
+        courseDao.refreshRatingSummaries(ratedCourseIds);
     }
 
     @Override
@@ -206,6 +225,7 @@ public class UserServiceImpl implements UserService {
 
         userToGetRole.setRole(roleToGive);
         userDao.update(userToGetRole);
+        userChangeTracker.userChanged(userToGetRole.getUserId());
     }
 
     @Override
@@ -218,12 +238,22 @@ public class UserServiceImpl implements UserService {
         }
         // TODO: 29.11.23 add file validation after we agree on how it would work.
         String currentUserPhotoUrl = user.getPictureUrl();
-        if (!currentUserPhotoUrl.equals(DEFAULT_PHOTO_URL)) {
-            storageService.delete(currentUserPhotoUrl);
-        }
         String picturePath = storageService.store(file);
+        try {
+            profilePictures.storeVariants(picturePath);
+        } catch (StorageException e) {
+            storageService.delete(picturePath);
+            profilePictures.deleteVariants(picturePath);
+            throw e;
+        }
         user.setPictureUrl(picturePath);
         userDao.update(user);
+        userChangeTracker.userChanged(user.getUserId());
+        // The old picture is kept until the new one is in place
+        if (!currentUserPhotoUrl.equals(DEFAULT_PHOTO_URL)) {
+            storageService.delete(currentUserPhotoUrl);
+            profilePictures.deleteVariants(currentUserPhotoUrl);
+        }
     }
 
     @Override
@@ -232,7 +262,7 @@ public class UserServiceImpl implements UserService {
             throw new EntityDuplicateException("User", "email", email);
         }
         String referralEmail = emailService.generateReferralEmail(loggedInUser.getFirstName(), loggedInUser.getLastName(), REGISTRATION_LINK);
-        emailService.send(email,referralEmail, REFERRAL_SUBJECT, null, null);
+        emailService.enqueue(email,referralEmail, REFERRAL_SUBJECT, null, null);
     }
 
     public List<Role> getRoles(){
@@ -244,7 +274,7 @@ public class UserServiceImpl implements UserService {
         confirmationTokenService.save(confirmationToken);
         String link = CONFIRMATION_LINK.concat(confirmationToken.getToken());
         String confirmationEmail = emailService.generateConfirmationEmail(user.getFirstName(),link);
-        emailService.send(user.getEmail(),confirmationEmail,REGISTRATION_CONFIRMATION_SUBJECT, null,null);
+        emailService.enqueue(user.getEmail(),confirmationEmail,REGISTRATION_CONFIRMATION_SUBJECT, null,null);
     }
 
     public List<GradedUserDtoOut> getStudentsByLectureId(int lectureId){
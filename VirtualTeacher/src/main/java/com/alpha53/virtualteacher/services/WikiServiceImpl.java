@@ -1,75 +1,200 @@
 package com.alpha53.virtualteacher.services;
 
+import com.alpha53.virtualteacher.config.WikiProperties;
+import com.alpha53.virtualteacher.exceptions.WikiUnavailableException;
 import com.alpha53.virtualteacher.models.WikiResult;
 import com.alpha53.virtualteacher.services.contracts.WikiService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.alpha53.virtualteacher.utilities.helpers.CircuitBreaker;
+import com.alpha53.virtualteacher.utilities.helpers.TtlLruCache;
+import com.alpha53.virtualteacher.utilities.helpers.WikiContentCleaner;
+import com.alpha53.virtualteacher.utilities.helpers.WikiResponseParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.wikiclean.WikiClean;
-import org.wikiclean.languages.English;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
 @Service
+@ConditionalOnProperty(prefix = "wiki", name = "source", havingValue = "online", matchIfMissing = true)
 public class WikiServiceImpl implements WikiService {
-    public static final String EXTRACT_CONTENT_URI = "https://en.wikipedia.org/w/api.php?action=query&prop=revisions&rvslots=*&rvprop=content&formatversion=2&format=json&titles=";
-    private static final String EXTRACT_PAGEID_AND_TITLE_URI = "https://en.wikipedia.org/w/api.php?action=query&list=search&format=json&srlimit=3&formatversion=2&srsearch=";
-    private static final String EXTRACT_FULL_URI = "https://en.wikipedia.org/w/api.php?action=query&prop=info&inprop=url&format=json&pageids=";
-    private final ObjectMapper objectMapper;
+    private final static Logger LOGGER = LoggerFactory.getLogger(WikiServiceImpl.class);
+    public static final String WIKIPEDIA_API_URI = "https://en.wikipedia.org/w/api.php";
+    private static final String EXTRACT_PAGEID_AND_TITLE_QUERY = "?action=query&list=search&format=json&srlimit=3&formatversion=2&srsearch=";
+    private static final String EXTRACT_CONTENT_QUERY = "?action=query&prop=revisions&rvslots=*&rvprop=content&formatversion=2&format=json&titles=";
+    public static final String EXTRACT_CONTENT_URI = WIKIPEDIA_API_URI + EXTRACT_CONTENT_QUERY;
+    private static final String EXTRACT_FULL_QUERY = "?action=query&prop=info&inprop=url&format=json&pageids=";
+    public static final int CACHE_MAX_SIZE = 500;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
     private final HttpClient httpClient;
-
-    public WikiServiceImpl(ObjectMapper objectMapper, HttpClient httpClient) {
-        this.objectMapper = objectMapper;
+    private final String apiUri;
+    private final Duration requestTimeout;
+    // The search and the parallel content and URL lookups each get one request timeout.
+    private final Duration searchDeadline;
+    private final WikiResponseParser responseParser;
+    private final WikiContentCleaner contentCleaner;
+    private final TtlLruCache<String, List<WikiResult>> cache;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final int maxConcurrentCalls;
+    private final AtomicLong bulkheadRejections = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong staleResults = new AtomicLong();
+
+    public WikiServiceImpl(ObjectMapper objectMapper, HttpClient httpClient, WikiProperties wikiProperties) {
         this.httpClient = httpClient;
+        this.apiUri = wikiProperties.getApiUri();
+        this.requestTimeout = wikiProperties.getRequestTimeout();
+        this.searchDeadline = wikiProperties.getRequestTimeout().multipliedBy(2);
+        this.responseParser = new WikiResponseParser(objectMapper.getFactory());
+        this.contentCleaner = new WikiContentCleaner(wikiProperties.getContentMaxLength());
+        this.cache = new TtlLruCache<>(CACHE_MAX_SIZE, wikiProperties.getCacheTtl());
+        this.circuitBreaker = new CircuitBreaker(wikiProperties.getBreakerFailureThreshold(), wikiProperties.getBreakerOpenDuration());
+        this.maxConcurrentCalls = wikiProperties.getMaxConcurrentCalls();
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
     }
 
+    /**
+     * Blocking variant of {@link #getSearchResultAsync(String)}.
+     */
     @Override
     public List<WikiResult> getSearchResult(String searchCriteria) throws URISyntaxException, IOException, InterruptedException {
-        List<WikiResult> searchResultlist = new ArrayList<>();
+        try {
+            return getSearchResultAsync(searchCriteria).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
 
-        HttpRequest request = HttpRequest
-                .newBuilder(new URI(EXTRACT_PAGEID_AND_TITLE_URI.concat(URLEncoder.encode(searchCriteria, StandardCharsets.UTF_8))))
-                .GET()
-                .build();
+    /**
+     * Results are cached per normalized search criteria, so repeated searches of the same term
+     * and concurrent searches of a term which is already being fetched cause only one round of Wikipedia calls.
+     * The search runs first, then the content and the full URL lookups run concurrently.
+     * No thread is blocked while waiting for Wikipedia.
+     * If Wikipedia fails, is too slow or the circuit breaker or the bulkhead rejects the search,
+     * an expired cached result is served when there is one.
+     */
+    @Override
+    public CompletableFuture<List<WikiResult>> getSearchResultAsync(String searchCriteria) {
+        String key = normalize(searchCriteria);
+        return cache.getAsync(key, () -> fetchGuarded(key))
+                .exceptionallyCompose(error -> {
+                    Optional<List<WikiResult>> stale = cache.getStale(key);
+                    if (stale.isPresent()) {
+                        staleResults.incrementAndGet();
+                        return CompletableFuture.completedFuture(stale.get());
+                    }
+                    return CompletableFuture.failedFuture(error);
+                });
+    }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        extractPageIdAndTitle(response, searchResultlist);
+    @Override
+    public Map<String, Number> getMetrics() {
+        Map<String, Number> metrics = new LinkedHashMap<>(cache.getMetrics());
+        metrics.putAll(circuitBreaker.getMetrics());
+        metrics.put("activeCalls", maxConcurrentCalls - bulkhead.availablePermits());
+        metrics.put("bulkheadRejections", bulkheadRejections.get());
+        metrics.put("timeouts", timeouts.get());
+        metrics.put("staleResults", staleResults.get());
+        return metrics;
+    }
 
-        String titlesRequestParams = generateTitleParamValue(searchResultlist);
+    static String normalize(String searchCriteria) {
+        return WHITESPACE.matcher(searchCriteria.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
 
-        request = HttpRequest
-                .newBuilder(new URI(EXTRACT_CONTENT_URI.concat(titlesRequestParams)))
-                .GET()
-                .build();
-        response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        extractContent(response, searchResultlist);
+    /**
+     * Fetch the search result within the deadline, unless too many searches are in flight or the circuit breaker is open.
+     */
+    private CompletableFuture<List<WikiResult>> fetchGuarded(String searchCriteria) {
+        if (!bulkhead.tryAcquire()) {
+            bulkheadRejections.incrementAndGet();
+            return CompletableFuture.failedFuture(new WikiUnavailableException("Too many Wikipedia searches in progress, please try again"));
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            bulkhead.release();
+            return CompletableFuture.failedFuture(new WikiUnavailableException("Wikipedia is currently unavailable, please try again later"));
+        }
 
-        String pageidsRequestParams = generatePageIdParamValue(searchResultlist);
+        CompletableFuture<List<WikiResult>> search;
+        try {
+            search = fetchSearchResult(searchCriteria);
+        } catch (RuntimeException e) {
+            search = CompletableFuture.failedFuture(e);
+        }
+        return search
+                .orTimeout(searchDeadline.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((result, error) -> {
+                    bulkhead.release();
+                    if (error == null) {
+                        circuitBreaker.onSuccess();
+                        return result;
+                    }
+                    circuitBreaker.onFailure();
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (cause instanceof TimeoutException || cause instanceof HttpTimeoutException) {
+                        timeouts.incrementAndGet();
+                        cause = new WikiUnavailableException("Wikipedia did not answer in time", cause);
+                    }
+                    LOGGER.warn("Wikipedia search for '{}' failed: {}", searchCriteria, cause.toString());
+                    throw cause instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(cause);
+                });
+    }
+
+    private CompletableFuture<List<WikiResult>> fetchSearchResult(String searchCriteria) {
+        return send(EXTRACT_PAGEID_AND_TITLE_QUERY.concat(URLEncoder.encode(searchCriteria, StandardCharsets.UTF_8)))
+                .thenCompose(searchResponse -> {
+                    List<WikiResult> searchResultlist = new ArrayList<>();
+                    extractPageIdAndTitle(searchResponse, searchResultlist);
+                    if (searchResultlist.isEmpty()) {
+                        return CompletableFuture.completedFuture(List.of());
+                    }
+
+                    CompletableFuture<Void> content = send(EXTRACT_CONTENT_QUERY.concat(generateTitleParamValue(searchResultlist)))
+                            .thenAccept(response -> extractContent(response, searchResultlist));
+                    CompletableFuture<Void> fullUrls = send(EXTRACT_FULL_QUERY.concat(generatePageIdParamValue(searchResultlist)))
+                            .thenAccept(response -> extractFullUrl(response, searchResultlist));
+                    return content.thenCombine(fullUrls, (ignored, alsoIgnored) -> Collections.unmodifiableList(searchResultlist));
+                });
+    }
 
-        request = HttpRequest
-                .newBuilder(new URI(EXTRACT_FULL_URI.concat(pageidsRequestParams)))
+    private CompletableFuture<byte[]> send(String query) {
+        HttpRequest request = HttpRequest
+                .newBuilder(URI.create(apiUri + query))
+                .timeout(requestTimeout)
                 .GET()
                 .build();
-        response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        extractFullUrl(response, searchResultlist);
-
-
-        return searchResultlist;
-
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).thenApply(response -> {
+            if (response.statusCode() != 200) {
+                throw new UncheckedIOException(new IOException("Wikipedia answered with status " + response.statusCode()));
+            }
+            return response.body();
+        });
     }
 
     private String generateTitleParamValue(List<WikiResult> searchResultlist) {
@@ -92,24 +217,20 @@ public class WikiServiceImpl implements WikiService {
 
     }
 
-    private void extractPageIdAndTitle(HttpResponse<String> response, List<WikiResult> resultList) throws JsonProcessingException {
-        JsonNode source = objectMapper.readTree(response.body()).path("query").path("search");
-        for (JsonNode jsonNode : source) {
-            WikiResult w = new WikiResult();
-            w.setPageid(jsonNode.get("pageid").asInt(-1));
-            w.setTitle(jsonNode.get("title").asText("Not available"));
-            String htmlSnipped = jsonNode.get("snippet").asText("Not available");
-            Document textSnipped = Jsoup.parse(htmlSnipped);
-            w.setSnippet(textSnipped.text());
-            resultList.add(w);
+    private void extractPageIdAndTitle(byte[] response, List<WikiResult> resultList) {
+        try {
+            resultList.addAll(responseParser.parseSearchResults(response));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
-    private void extractFullUrl(HttpResponse<String> response, List<WikiResult> searchResultlist) throws JsonProcessingException {
-        JsonNode source = objectMapper.readTree(response.body()).path("query").path("pages");
-        Map<Integer, String> urlMap = new HashMap<>();
-        for (JsonNode node : source) {
-            urlMap.put(node.get("pageid").asInt(), node.get("fullurl").asText());
+    private void extractFullUrl(byte[] response, List<WikiResult> searchResultlist) {
+        Map<Integer, String> urlMap;
+        try {
+            urlMap = responseParser.parseFullUrls(response);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
         for (WikiResult wikiResult : searchResultlist) {
             wikiResult.setFullUrl(urlMap.get(wikiResult.getPageid()));
@@ -117,24 +238,15 @@ public class WikiServiceImpl implements WikiService {
 
     }
 
-    private void extractContent(HttpResponse<String> response, List<WikiResult> resultList) throws JsonProcessingException {
-        JsonNode source = objectMapper.readTree(response.body()).path("query").path("pages");
-        Map<Integer, String> contentMap = new HashMap<>();
-        for (JsonNode jsonNode : source) {
-            JsonNode n = objectMapper.readTree(jsonNode.toString()).path("revisions");
-            Integer pageId = jsonNode.get("pageid").asInt();
-            for (JsonNode node : n) {
-                contentMap.put(pageId, node.path("slots").path("main").get("content").asText("N/A"));
-            }
+    private void extractContent(byte[] response, List<WikiResult> resultList) {
+        Map<Integer, String> contentMap;
+        try {
+            contentMap = responseParser.parseContents(response);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-
-        WikiClean wikiClean = new WikiClean.Builder().withLanguage(new English()).withTitle(true).build();
         for (WikiResult wikiResult : resultList) {
-            String xmlStartTag = "<text xml:space=\"preserve\">";
-            String xmlEndTag = "</text>";
-            String articleWithXml = xmlStartTag + contentMap.get(wikiResult.getPageid()) + xmlEndTag;
-            String plainText = wikiClean.clean(articleWithXml);
-            wikiResult.setContent(plainText);
+            wikiResult.setContent(contentCleaner.clean(contentMap.get(wikiResult.getPageid())));
         }
 
     }
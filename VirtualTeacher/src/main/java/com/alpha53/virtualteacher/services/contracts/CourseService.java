@@ -3,6 +3,7 @@ package com.alpha53.virtualteacher.services.contracts;
 import com.alpha53.virtualteacher.models.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface CourseService {
@@ -20,14 +21,17 @@ public interface CourseService {
 
     void transferTeacherCourses(int teacherToTransferFromId, int teacherToTransferToId, User loggedUser);
      List<Course> get(FilterOptions filterOptions, Optional<User> optionalUser);
+     CoursePage getPage(FilterOptions filterOptions, Optional<User> optionalUser);
      List<Course> getPublic(FilterOptions filterOptions);
      List<Course> getUsersEnrolledCourses(int userId);
      List<Course> getUsersCompletedCourses(int userId);
      void enrollUserForCourse(User user, int courseId);
+     List<EnrollmentOutcome> enrollUsersForCourse(int courseId, List<Integer> userIds, List<String> emails, User user);
      void rateCourse(RatingDto rating, int courseId, int raterId);
     boolean isUserEnrolled(int userId, int courseId);
     boolean hasUserPassedCourse(int userId, int courseId);
     Integer getCoursesCount();
+    Map<String, Number> getCacheMetrics();
     List<Rating> getRatingsByCourseId(int courseId);
     public List<User> getStudentsWhichAreEnrolledForCourse(int courseId);
 }
@@ -1,13 +1,23 @@
 package com.alpha53.virtualteacher.services.contracts;
 
+import com.alpha53.virtualteacher.models.OutboxEmail;
+
 import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
 
 public interface EmailService {
     void send(String to, String email, String subject, ByteArrayOutputStream pdfStream, String pdfFileName);
 
+    void enqueue(String to, String email, String subject, ByteArrayOutputStream pdfStream, String pdfFileName);
+
+    void enqueueAll(List<OutboxEmail> emails);
+
     String generateConfirmationEmail(String name, String link);
 
     String generateReferralEmail(String firstName, String lastName, String registrationLink);
 
     String generateGraduationEmail(String firstName, String course);
+
+    Map<String, Number> getTransportMetrics();
 }
@@ -14,6 +14,11 @@ public interface LectureService {
 
     List<Lecture> getAllByCourseId(int courseId, User user);
 
+    /**
+     * @return true if the user sees the lectures of the course, otherwise the course is shown without lectures
+     */
+    boolean canViewLectures(int courseId, User user);
+
     void create(Lecture lecture, User user, MultipartFile assignment);
 
 
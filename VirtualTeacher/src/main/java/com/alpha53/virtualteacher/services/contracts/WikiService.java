@@ -5,7 +5,13 @@ import com.alpha53.virtualteacher.models.WikiResult;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface WikiService {
     List<WikiResult> getSearchResult(String searchCriteria) throws URISyntaxException, IOException, InterruptedException;
+
+    CompletableFuture<List<WikiResult>> getSearchResultAsync(String searchCriteria);
+
+    Map<String, Number> getMetrics();
 }
@@ -0,0 +1,107 @@
+package com.alpha53.virtualteacher.utilities;
+
+import com.alpha53.virtualteacher.models.OutboxEmail;
+import com.alpha53.virtualteacher.repositories.contracts.EmailOutboxDao;
+import com.alpha53.virtualteacher.services.contracts.EmailService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Delivers the emails stored in the outbox. Due emails are claimed in batches and sent on a bounded worker pool.
+ * A failed email is retried with exponential backoff and moved to the dead-letter state after {@value #MAX_ATTEMPTS} attempts.
+ */
+@Component
+public class EmailOutboxDispatcher {
+    private final static Logger LOGGER = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+    public static final int BATCH_SIZE = 50;
+    public static final int MAX_ATTEMPTS = 6;
+    public static final int WORKERS = 4;
+    public static final Duration BASE_BACKOFF = Duration.ofSeconds(30);
+    public static final Duration MAX_BACKOFF = Duration.ofHours(1);
+    public static final Duration LEASE = Duration.ofMinutes(5);
+
+    private final EmailOutboxDao emailOutboxDao;
+    private final EmailService emailService;
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(WORKERS, WORKERS, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(BATCH_SIZE), new ThreadPoolExecutor.CallerRunsPolicy());
+
+    public EmailOutboxDispatcher(EmailOutboxDao emailOutboxDao, EmailService emailService) {
+        this.emailOutboxDao = emailOutboxDao;
+        this.emailService = emailService;
+    }
+
+    @Scheduled(fixedDelay = 5000, initialDelay = 5000)
+    public void dispatch() {
+        List<OutboxEmail> batch;
+        do {
+            batch = emailOutboxDao.claimBatch(BATCH_SIZE, LEASE);
+            List<Future<?>> futures = new ArrayList<>(batch.size());
+            for (OutboxEmail email : batch) {
+                futures.add(executor.submit(() -> deliver(email)));
+            }
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                LOGGER.error("Failed to dispatch emails", e.getCause());
+                return;
+            }
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    private void deliver(OutboxEmail email) {
+        try {
+            ByteArrayOutputStream attachment = null;
+            if (email.getAttachment() != null) {
+                attachment = new ByteArrayOutputStream(email.getAttachment().length);
+                attachment.writeBytes(email.getAttachment());
+            }
+            emailService.send(email.getRecipient(), email.getBody(), email.getSubject(), attachment, email.getAttachmentName());
+            if (!emailOutboxDao.markSent(email.getId(), email.getClaimToken())) {
+                logLeaseLost(email);
+            }
+        } catch (RuntimeException e) {
+            int attempts = email.getAttempts() + 1;
+            String error = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            boolean marked;
+            if (attempts >= MAX_ATTEMPTS) {
+                LOGGER.error("Email {} to {} moved to dead letters after {} attempts", email.getId(), email.getRecipient(), attempts);
+                marked = emailOutboxDao.markDead(email.getId(), email.getClaimToken(), attempts, error);
+            } else {
+                marked = emailOutboxDao.markFailed(email.getId(), email.getClaimToken(), attempts,
+                        LocalDateTime.now().plus(backoff(attempts)), error);
+            }
+            if (!marked) {
+                logLeaseLost(email);
+            }
+        }
+    }
+
+    private static void logLeaseLost(OutboxEmail email) {
+        LOGGER.warn("Lease of email {} expired before it was delivered, it is handled by another dispatcher", email.getId());
+    }
+
+    static Duration backoff(int attempts) {
+        Duration delay = BASE_BACKOFF.multipliedBy(1L << Math.min(attempts - 1, 16));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
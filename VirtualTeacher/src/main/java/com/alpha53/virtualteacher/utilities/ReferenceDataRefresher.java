@@ -0,0 +1,27 @@
+package com.alpha53.virtualteacher.utilities;
+
+import com.alpha53.virtualteacher.repositories.contracts.TopicDao;
+import com.alpha53.virtualteacher.repositories.contracts.UserDao;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reloads the topics and the roles into the reference data registry, so changes made directly in the database
+ * are picked up without a restart. A reload which finds the same content keeps the version of the table.
+ */
+@Component
+public class ReferenceDataRefresher {
+    private final TopicDao topicDao;
+    private final UserDao userDao;
+
+    public ReferenceDataRefresher(TopicDao topicDao, UserDao userDao) {
+        this.topicDao = topicDao;
+        this.userDao = userDao;
+    }
+
+    @Scheduled(fixedDelay = 300_000, initialDelay = 300_000)
+    public void refresh() {
+        topicDao.reload();
+        userDao.reloadRoles();
+    }
+}
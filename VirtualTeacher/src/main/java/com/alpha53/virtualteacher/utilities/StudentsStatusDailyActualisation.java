@@ -1,64 +1,242 @@
 package com.alpha53.virtualteacher.utilities;
 
-import com.alpha53.virtualteacher.models.Course;
-import com.alpha53.virtualteacher.models.Lecture;
-import com.alpha53.virtualteacher.models.User;
+import com.alpha53.virtualteacher.models.GraduationCandidate;
+import com.alpha53.virtualteacher.models.OutboxEmail;
 import com.alpha53.virtualteacher.repositories.contracts.CourseDao;
-import com.alpha53.virtualteacher.repositories.contracts.LectureDao;
-import com.alpha53.virtualteacher.repositories.contracts.SolutionDao;
+import com.alpha53.virtualteacher.repositories.contracts.GraduationCheckpointDao;
 import com.alpha53.virtualteacher.services.contracts.EmailService;
-import com.alpha53.virtualteacher.utilities.helpers.CertificateGenerator;
+import com.alpha53.virtualteacher.utilities.helpers.CertificateEngine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
+/**
+ * Daily graduation job. Courses with ongoing enrollments are partitioned into chunks of course IDs
+ * which are evaluated in parallel. Every run is recorded under its date and every finished chunk is checkpointed
+ * for the run, so a run which was interrupted is resumed on startup or by the next scheduled run
+ * and only processes the chunks which were not finished yet.
+ */
 @Component
 @EnableScheduling
 public class StudentsStatusDailyActualisation {
+    private final static Logger LOGGER = LoggerFactory.getLogger(StudentsStatusDailyActualisation.class);
     public static final String SUCCESSFUL_GRADUATION_TITLE = "Successful graduation of course: %s";
+    public static final int COMPLETION_BATCH_SIZE = 500;
+    public static final int COURSES_PER_CHUNK = 50;
+    // Every worker holds one connection for the streamed evaluation and one for the completion batches.
+    public static final int MAX_WORKERS = 4;
+    // Unfinished runs older than this are left as they are, the next full run covers their students
+    public static final int RESUME_WINDOW_DAYS = 1;
     private final CourseDao courseDao;
-    private final LectureDao lectureDao;
-    private final SolutionDao solutionDao;
+    private final GraduationCheckpointDao checkpointDao;
     private final EmailService emailService;
+    private final CertificateEngine certificateEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService jobExecutor;
+    private final AtomicBoolean running = new AtomicBoolean(false);
 
-    public StudentsStatusDailyActualisation(CourseDao courseDao, LectureDao lectureDao, SolutionDao solutionDao, EmailService emailService) {
+    @Autowired
+    public StudentsStatusDailyActualisation(CourseDao courseDao, GraduationCheckpointDao checkpointDao, EmailService emailService,
+                                            CertificateEngine certificateEngine, TransactionTemplate transactionTemplate) {
+        this(courseDao, checkpointDao, emailService, certificateEngine, transactionTemplate, Executors.newSingleThreadExecutor());
+    }
+
+    StudentsStatusDailyActualisation(CourseDao courseDao, GraduationCheckpointDao checkpointDao, EmailService emailService,
+                                     CertificateEngine certificateEngine, TransactionTemplate transactionTemplate, ExecutorService jobExecutor) {
         this.courseDao = courseDao;
-        this.lectureDao = lectureDao;
-        this.solutionDao = solutionDao;
+        this.checkpointDao = checkpointDao;
         this.emailService = emailService;
+        this.certificateEngine = certificateEngine;
+        this.transactionTemplate = transactionTemplate;
+        this.jobExecutor = jobExecutor;
     }
+
+    /**
+     * Complete the courses of all students which fulfil the graduation requirements and send them their certificates.
+     * Chunks already checkpointed for today are skipped. Overlapping runs are ignored.
+     */
     @Scheduled(cron = "00 10 10 * * *")
-    private void informGraduatedStudents() {
-        System.out.println("Certificates sent");
-        List<Integer> ongoingCoursesIds = courseDao.getIdOngoingCourses();
-        Map<Course, List<User>> enrolledStudents = new HashMap<>();
-
-        for (Integer ongoingCourse : ongoingCoursesIds) {
-            Course course = courseDao.get(ongoingCourse);
-            Set<Lecture> lectures = new HashSet<>(lectureDao.getAllByCourseId(ongoingCourse));
-            course.setLectures(lectures);
-            enrolledStudents.put(course, courseDao.getStudentsWhichAreEnrolledForCourse(ongoingCourse));
+    public void informGraduatedStudents() {
+        runExclusively(() -> runToday(checkpointDao.getUnfinishedRuns(LocalDate.now().minusDays(RESUME_WINDOW_DAYS))));
+    }
+
+    /**
+     * Resume a run which was interrupted, like by a crash or a redeployment, instead of waiting for the next scheduled run.
+     * The run is resumed in the background, so it does not hold up the startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedRuns() {
+        jobExecutor.execute(() -> runExclusively(() -> {
+            List<LocalDate> unfinishedRuns = checkpointDao.getUnfinishedRuns(LocalDate.now().minusDays(RESUME_WINDOW_DAYS));
+            if (!unfinishedRuns.isEmpty()) {
+                LOGGER.info("Resuming unfinished graduation jobs of {}", unfinishedRuns);
+                runToday(unfinishedRuns);
+            }
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdown();
+    }
+
+    /**
+     * Every run evaluates the candidates as they are now, so the run of today covers the unfinished runs
+     * of earlier days, which are closed instead of processing the same candidates twice.
+     */
+    private void runToday(List<LocalDate> unfinishedRuns) {
+        LocalDate today = LocalDate.now();
+        for (LocalDate runDate : unfinishedRuns) {
+            if (runDate.isBefore(today)) {
+                LOGGER.info("Graduation job of {} is covered by the run of {}", runDate, today);
+                checkpointDao.finishRun(runDate);
+            }
+        }
+        run(today);
+    }
+
+    private void runExclusively(Runnable job) {
+        if (!running.compareAndSet(false, true)) {
+            LOGGER.warn("Graduation job is already running");
+            return;
+        }
+        try {
+            job.run();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void run(LocalDate runDate) {
+        long start = System.nanoTime();
+        checkpointDao.startRun(runDate);
+        Set<Integer> completedChunks = checkpointDao.getCompletedChunks(runDate);
+        List<Integer> pendingChunks = new ArrayList<>();
+        for (Integer chunk : courseDao.getOngoingCourseChunks(COURSES_PER_CHUNK)) {
+            if (!completedChunks.contains(chunk)) {
+                pendingChunks.add(chunk);
+            }
         }
 
-        for (Map.Entry<Course, List<User>> course : enrolledStudents.entrySet()) {
-            for (User user : course.getValue()) {
-                Map<Integer, Double> map = solutionDao.getSolutionCountAndAVGPerStudent(user.getUserId(), course.getKey().getCourseId());
-                for (Map.Entry<Integer, Double> entry : map.entrySet()) {
-                    if (entry.getKey() == course.getKey().getLectures().size() && entry.getValue() >= course.getKey().getPassingGrade()) {
-                        courseDao.completeCourse(user.getUserId(), course.getKey().getCourseId());
-                        ByteArrayOutputStream certificate = CertificateGenerator.generateCertificate(user.getFirstName(), course.getKey().getTitle());
-                        String graduationEmail = emailService.generateGraduationEmail(user.getFirstName(), course.getKey().getTitle());
-                        emailService.send(user.getEmail(),
-                                graduationEmail,
-                                String.format(SUCCESSFUL_GRADUATION_TITLE, course.getKey().getTitle()),
-                                certificate,
-                                "Certificate.pdf");
+        AtomicInteger graduatesCount = new AtomicInteger();
+        AtomicInteger failedChunks = new AtomicInteger();
+        boolean interrupted = false;
+        if (!pendingChunks.isEmpty()) {
+            int workers = Math.min(Math.min(Runtime.getRuntime().availableProcessors(), MAX_WORKERS), pendingChunks.size());
+            ExecutorService executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(workers * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (Integer chunk : pendingChunks) {
+                    futures.add(executor.submit(() -> processChunk(runDate, chunk, graduatesCount, failedChunks)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                interrupted = true;
+            } catch (ExecutionException e) {
+                LOGGER.error("Graduation job failed", e.getCause());
+                interrupted = true;
+            } finally {
+                executor.shutdown();
+            }
+        }
+        // A run with failed chunks stays unfinished, so it is resumed later
+        if (failedChunks.get() == 0 && !interrupted) {
+            checkpointDao.finishRun(runDate);
+        }
+
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        double seconds = Math.max(duration.toMillis(), 1) / 1000.0;
+        LOGGER.info("Graduation job for {} finished in {} ms: {} chunks processed, {} skipped, {} failed, {} graduates ({} graduates/s)",
+                runDate, duration.toMillis(), pendingChunks.size() - failedChunks.get(), completedChunks.size(), failedChunks.get(),
+                graduatesCount.get(), String.format("%.1f", graduatesCount.get() / seconds));
+    }
+
+    private void processChunk(LocalDate runDate, int chunk, AtomicInteger graduatesCount, AtomicInteger failedChunks) {
+        int fromCourseId = chunk * COURSES_PER_CHUNK;
+        List<GraduationCandidate> batch = new ArrayList<>(COMPLETION_BATCH_SIZE);
+        int chunkGraduates = 0;
+        try {
+            try (Stream<GraduationCandidate> candidates = courseDao.getGraduationCandidates(fromCourseId, fromCourseId + COURSES_PER_CHUNK)) {
+                Iterator<GraduationCandidate> iterator = candidates.iterator();
+                while (iterator.hasNext()) {
+                    batch.add(iterator.next());
+                    if (batch.size() == COMPLETION_BATCH_SIZE) {
+                        chunkGraduates += graduate(batch);
+                        batch.clear();
                     }
                 }
             }
+            chunkGraduates += graduate(batch);
+            checkpointDao.saveCheckpoint(runDate, chunk, chunkGraduates);
+        } catch (RuntimeException e) {
+            failedChunks.incrementAndGet();
+            LOGGER.error(String.format("Graduation of courses %d-%d failed", fromCourseId, fromCourseId + COURSES_PER_CHUNK - 1), e);
+        } finally {
+            graduatesCount.addAndGet(chunkGraduates);
+        }
+    }
+
+    /**
+     * Only the graduates whose certificate email was prepared are completed, the others stay candidates
+     * and are picked up again by the next run.
+     */
+    private int graduate(List<GraduationCandidate> graduates) {
+        if (graduates.isEmpty()) {
+            return 0;
+        }
+        Map<GraduationCandidate, OutboxEmail> emails = Collections.synchronizedMap(new IdentityHashMap<>(graduates.size()));
+        List<GraduationCandidate> failed = certificateEngine.renderBatch(graduates, GraduationCandidate::getFirstName,
+                GraduationCandidate::getCourseTitle,
+                (graduate, certificate) -> emails.put(graduate, new OutboxEmail(graduate.getEmail(),
+                        String.format(SUCCESSFUL_GRADUATION_TITLE, graduate.getCourseTitle()),
+                        emailService.generateGraduationEmail(graduate.getFirstName(), graduate.getCourseTitle()),
+                        certificate.toByteArray(),
+                        "Certificate.pdf")));
+
+        List<GraduationCandidate> graduated = failed.isEmpty() ? graduates : withoutFailed(graduates, failed);
+        if (graduated.isEmpty()) {
+            return 0;
+        }
+        List<OutboxEmail> graduatedEmails = new ArrayList<>(graduated.size());
+        for (GraduationCandidate graduate : graduated) {
+            graduatedEmails.add(emails.get(graduate));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            courseDao.completeCourses(graduated);
+            emailService.enqueueAll(graduatedEmails);
+        });
+        return graduated.size();
+    }
+
+    private static List<GraduationCandidate> withoutFailed(List<GraduationCandidate> graduates, List<GraduationCandidate> failed) {
+        LOGGER.warn("{} of {} graduates are not completed because their certificate failed", failed.size(), graduates.size());
+        Set<GraduationCandidate> failedSet = Collections.newSetFromMap(new IdentityHashMap<>(failed.size()));
+        failedSet.addAll(failed);
+        List<GraduationCandidate> graduated = new ArrayList<>(graduates.size() - failed.size());
+        for (GraduationCandidate graduate : graduates) {
+            if (!failedSet.contains(graduate)) {
+                graduated.add(graduate);
+            }
         }
+        return graduated;
     }
 }
@@ -0,0 +1,183 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import com.alpha53.virtualteacher.config.AuthProperties;
+import com.alpha53.virtualteacher.exceptions.AuthorizationException;
+import com.alpha53.virtualteacher.models.Role;
+import com.alpha53.virtualteacher.models.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.*;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and verifies short-lived API tokens, so a REST request is authenticated without a database round trip.
+ * A token is {@code payload.signature}, both base64url encoded. The payload carries the user id, email, role and
+ * verification status of the user at the time of issue; the signature is an HMAC-SHA256 of the payload.
+ * Revoked tokens are kept in memory by their random id only until they would have expired anyway.
+ */
+@Component
+public class ApiTokenManager {
+    public static final String TOKEN_TYPE = "Bearer";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int KEY_LENGTH = 32;
+    private static final byte VERSION = 1;
+    private static final String INVALID_TOKEN_ERROR = "Invalid authentication.";
+    private static final String EXPIRED_TOKEN_ERROR = "The token has expired.";
+    private static final String REVOKED_TOKEN_ERROR = "The token has been revoked.";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadLocal<Mac> macs;
+    private final Map<Long, Long> revoked = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ApiTokenManager(AuthProperties authProperties) {
+        this(authProperties, Clock.systemUTC());
+    }
+
+    public ApiTokenManager(AuthProperties authProperties, Clock clock) {
+        byte[] secret;
+        if (authProperties.getTokenSecret() == null || authProperties.getTokenSecret().isBlank()) {
+            secret = new byte[KEY_LENGTH];
+            random.nextBytes(secret);
+        } else {
+            secret = Base64.getDecoder().decode(authProperties.getTokenSecret());
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.ttl = authProperties.getTokenTtl();
+        this.clock = clock;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public IssuedToken issue(User user) {
+        long now = clock.millis();
+        long expiresAt = now + ttl.toMillis();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(random.nextLong());
+            out.writeLong(now);
+            out.writeLong(expiresAt);
+            out.writeInt(user.getUserId());
+            out.writeUTF(user.getEmail());
+            out.writeInt(user.getRole().getRoleId());
+            out.writeUTF(user.getRole().getRoleType());
+            out.writeBoolean(user.isVerified());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] payload = bytes.toByteArray();
+        String token = ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+        return new IssuedToken(token, Instant.ofEpochMilli(expiresAt));
+    }
+
+    /**
+     * @return the user the token was issued to, with only the id, email, role and verification status set
+     */
+    public User verify(String token) {
+        Claims claims = decode(token);
+        if (revoked.containsKey(claims.tokenId())) {
+            throw new AuthorizationException(REVOKED_TOKEN_ERROR);
+        }
+        return claims.user();
+    }
+
+    /**
+     * Refuse the token from now on. Only tokens which verify can be revoked, so the denylist cannot be flooded.
+     */
+    public void revoke(String token) {
+        Claims claims = decode(token);
+        revoked.put(claims.tokenId(), claims.expiresAt());
+    }
+
+    public int revokedCount() {
+        return revoked.size();
+    }
+
+    /**
+     * Expired tokens are refused by their expiry alone, so they can be dropped from the denylist.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeRevoked() {
+        long now = clock.millis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    private Claims decode(String token) {
+        int separator = token == null ? -1 : token.indexOf('.');
+        if (separator <= 0) {
+            throw new AuthorizationException(INVALID_TOKEN_ERROR);
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, separator));
+            signature = DECODER.decode(token.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new AuthorizationException(INVALID_TOKEN_ERROR);
+        }
+        if (!MessageDigest.isEqual(sign(payload), signature)) {
+            throw new AuthorizationException(INVALID_TOKEN_ERROR);
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            if (in.readByte() != VERSION) {
+                throw new AuthorizationException(INVALID_TOKEN_ERROR);
+            }
+            long tokenId = in.readLong();
+            in.readLong();
+            long expiresAt = in.readLong();
+            if (expiresAt <= clock.millis()) {
+                throw new AuthorizationException(EXPIRED_TOKEN_ERROR);
+            }
+            User user = new User();
+            user.setUserId(in.readInt());
+            user.setEmail(in.readUTF());
+            Role role = new Role();
+            role.setRoleId(in.readInt());
+            role.setRoleType(in.readUTF());
+            user.setRole(role);
+            user.setVerified(in.readBoolean());
+            return new Claims(tokenId, expiresAt, user);
+        } catch (IOException e) {
+            throw new AuthorizationException(INVALID_TOKEN_ERROR);
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        Mac mac = macs.get();
+        return mac.doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    public record IssuedToken(String token, Instant expiresAt) {
+    }
+
+    private record Claims(long tokenId, long expiresAt, User user) {
+    }
+}
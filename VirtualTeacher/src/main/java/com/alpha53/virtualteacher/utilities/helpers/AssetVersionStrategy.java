@@ -0,0 +1,85 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.resource.AbstractVersionStrategy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+/**
+ * Versions the static assets by the hash of their content in the file name, like css/style-{hash}.css.
+ * The hashes are computed at build time into the asset manifest, so nothing is read or hashed at runtime;
+ * assets missing from the manifest, for example when running from the sources, are hashed on first use.
+ * The content hash is the same as the one of Spring's ContentVersionStrategy.
+ */
+@Component
+public class AssetVersionStrategy extends AbstractVersionStrategy {
+    public static final String MANIFEST_LOCATION = "asset-manifest.properties";
+    private static final String STATIC_LOCATION = "static/";
+    private final static Logger LOGGER = LoggerFactory.getLogger(AssetVersionStrategy.class);
+
+    private final Properties manifest;
+
+    @Autowired
+    public AssetVersionStrategy() {
+        this(loadManifest());
+    }
+
+    public AssetVersionStrategy(Properties manifest) {
+        super(new FileNameVersionPathStrategy());
+        this.manifest = manifest;
+    }
+
+    @Override
+    public String getResourceVersion(Resource resource) {
+        if (resource instanceof ClassPathResource classPathResource
+                && classPathResource.getPath().startsWith(STATIC_LOCATION)) {
+            String version = manifest.getProperty(classPathResource.getPath().substring(STATIC_LOCATION.length()));
+            if (version != null) {
+                return version;
+            }
+        }
+        try (InputStream content = resource.getInputStream()) {
+            return DigestUtils.md5DigestAsHex(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param requestPath - path of the asset relative to the static location, like css/style-{hash}.css
+     * @return true if the path carries the current version of the asset, so its content never changes
+     */
+    public boolean isFingerprinted(String requestPath) {
+        String version = extractVersion(requestPath);
+        if (!StringUtils.hasText(version)) {
+            return false;
+        }
+        return version.equals(manifest.getProperty(removeVersion(requestPath, version)));
+    }
+
+    private static Properties loadManifest() {
+        Properties manifest = new Properties();
+        ClassPathResource resource = new ClassPathResource(MANIFEST_LOCATION);
+        if (!resource.exists()) {
+            LOGGER.warn("{} not found, static assets are hashed on first use", MANIFEST_LOCATION);
+            return manifest;
+        }
+        try (InputStream content = resource.getInputStream()) {
+            manifest.load(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        LOGGER.info("Asset manifest loaded: {} assets", manifest.size());
+        return manifest;
+    }
+}
@@ -3,6 +3,7 @@ package com.alpha53.virtualteacher.utilities.helpers;
 import com.alpha53.virtualteacher.exceptions.AuthorizationException;
 import com.alpha53.virtualteacher.exceptions.EntityNotFoundException;
 import com.alpha53.virtualteacher.models.User;
+import com.alpha53.virtualteacher.models.UserSnapshot;
 import com.alpha53.virtualteacher.services.contracts.UserService;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,19 +16,40 @@ public class AuthenticationHelper {
     public static final String PROFILE_CONFIRMATION_EXCEPTION = "Your profile has not been confirmed. Please follow the link sent to your email.";
     private static final String AUTHORIZATION_HEADER_NAME = "Authorization";
     private static final String INVALID_AUTHENTICATION_ERROR = "Invalid authentication.";
+    private static final String BEARER_PREFIX = ApiTokenManager.TOKEN_TYPE + " ";
+    private static final String CURRENT_USER_ATTRIBUTE = "currentUser";
+    private static final String CURRENT_USER_EMAIL_ATTRIBUTE = "currentUserEmail";
+    private static final String CURRENT_USER_ROLE_ATTRIBUTE = "currentUserRole";
     public final UserService userService;
+    private final ApiTokenManager apiTokenManager;
+    private final CredentialVerifier credentialVerifier;
+    private final UserChangeTracker userChangeTracker;
 
     @Autowired
-    public AuthenticationHelper(UserService userService) {
+    public AuthenticationHelper(UserService userService, ApiTokenManager apiTokenManager, CredentialVerifier credentialVerifier,
+                                UserChangeTracker userChangeTracker) {
         this.userService = userService;
+        this.apiTokenManager = apiTokenManager;
+        this.credentialVerifier = credentialVerifier;
+        this.userChangeTracker = userChangeTracker;
     }
 
+    /**
+     * Authenticates the request either with a "Bearer" API token or with "email password" credentials.
+     * A token is verified without the database, so the returned user then carries only its id, email, role and
+     * verification status. Use {@link #tryGetUserProfile(HttpHeaders)} when the rest of the profile is needed.
+     */
     public User tryGetUser(HttpHeaders headers) {
         if (!headers.containsKey(AUTHORIZATION_HEADER_NAME)) {
             throw new AuthorizationException(INVALID_AUTHENTICATION_ERROR);
         }
 
         String userInfo = headers.getFirst(AUTHORIZATION_HEADER_NAME);
+        if (userInfo.startsWith(BEARER_PREFIX)) {
+            User user = apiTokenManager.verify(userInfo.substring(BEARER_PREFIX.length()).strip());
+            throwIfNotVerified(user);
+            return user;
+        }
         String email = getEmail(userInfo);
         String password = getPassword(userInfo);
 
@@ -36,27 +58,79 @@ public class AuthenticationHelper {
         return user;
     }
 
+    /**
+     * Like {@link #tryGetUser(HttpHeaders)}, but always returns the complete user as stored.
+     */
+    public User tryGetUserProfile(HttpHeaders headers) {
+        User user = tryGetUser(headers);
+        try {
+            return userService.get(user.getUserId());
+        } catch (EntityNotFoundException e) {
+            throw new AuthorizationException(INVALID_AUTHENTICATION_ERROR);
+        }
+    }
+
+    public ApiTokenManager.IssuedToken issueToken(String email, String password) {
+        return apiTokenManager.issue(verifyAuthentication(email, password));
+    }
 
-    public User tryGetCurrentUser(HttpSession session) {
-        String currentEmail = (String) session.getAttribute("currentUserEmail");
-//TODO Check if commented part is useless
-        /*if (currentEmail == null) {
+    public void revokeToken(HttpHeaders headers) {
+        String userInfo = headers.getFirst(AUTHORIZATION_HEADER_NAME);
+        if (userInfo == null || !userInfo.startsWith(BEARER_PREFIX)) {
             throw new AuthorizationException(INVALID_AUTHENTICATION_ERROR);
-        }*/
+        }
+        apiTokenManager.revoke(userInfo.substring(BEARER_PREFIX.length()).strip());
+    }
 
-        try {
-           User user = userService.get(currentEmail);
-           throwIfNotVerified(user);
-           return user;
-        } catch (EntityNotFoundException e) {
+
+    /**
+     * Returns the logged-in user from the snapshot kept in the session. The user is loaded again only when it has been
+     * changed since the snapshot was taken, by this or any other session.
+     * The returned user is a copy, so changing it does not change the session.
+     */
+    public User tryGetCurrentUser(HttpSession session) {
+        if (!(session.getAttribute(CURRENT_USER_ATTRIBUTE) instanceof UserSnapshot snapshot)) {
             throw new AuthorizationException(INVALID_AUTHENTICATION_ERROR);
         }
+        if (!userChangeTracker.isCurrent(snapshot.getUserId(), snapshot.getVersion())) {
+            long version = userChangeTracker.version();
+            try {
+                snapshot = new UserSnapshot(userService.get(snapshot.getEmail()), version);
+            } catch (EntityNotFoundException e) {
+                logOut(session);
+                throw new AuthorizationException(INVALID_AUTHENTICATION_ERROR);
+            }
+            storeInSession(session, snapshot);
+        }
+        if (!snapshot.isVerified()) {
+            throw new AuthorizationException(PROFILE_CONFIRMATION_EXCEPTION);
+        }
+        return snapshot.toUser();
+    }
+
+    public User logIn(HttpSession session, String email, String password) {
+        long version = userChangeTracker.version();
+        User user = verifyAuthentication(email, password);
+        storeInSession(session, new UserSnapshot(user, version));
+        return user;
+    }
+
+    public void logOut(HttpSession session) {
+        session.removeAttribute(CURRENT_USER_ATTRIBUTE);
+        session.removeAttribute(CURRENT_USER_EMAIL_ATTRIBUTE);
+        session.removeAttribute(CURRENT_USER_ROLE_ATTRIBUTE);
+    }
+
+    private static void storeInSession(HttpSession session, UserSnapshot snapshot) {
+        session.setAttribute(CURRENT_USER_ATTRIBUTE, snapshot);
+        session.setAttribute(CURRENT_USER_EMAIL_ATTRIBUTE, snapshot.getEmail());
+        session.setAttribute(CURRENT_USER_ROLE_ATTRIBUTE, snapshot.getRole().getRoleType());
     }
 
     public User verifyAuthentication(String email, String password) {
         try {
             User user = userService.get(email);
-            if (!user.getPassword().equals(password)) {
+            if (!credentialVerifier.verify(user, password)) {
                 throw new AuthorizationException(INVALID_AUTHENTICATION_ERROR);
             }
             throwIfNotVerified(user);
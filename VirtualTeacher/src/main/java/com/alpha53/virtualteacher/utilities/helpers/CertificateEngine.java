@@ -0,0 +1,228 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Renders the completion certificate from a template prepared once at startup.
+ * Every PDF object except the page content is static, so a certificate is produced by writing the static bytes,
+ * the content stream with the escaped names and a freshly computed cross-reference table.
+ * Batches are rendered on a bounded worker pool and every worker reuses its own output buffer.
+ */
+@Component
+public class CertificateEngine {
+    private final static Logger LOGGER = LoggerFactory.getLogger(CertificateEngine.class);
+    public static final int MAX_WORKERS = 4;
+    public static final int QUEUE_CAPACITY = 64;
+    private static final int INITIAL_BUFFER_SIZE = 2048;
+    private static final int CONTENT_OBJECT = 6;
+
+    private static final byte[] HEADER_AND_STATIC_OBJECTS;
+    private static final int[] STATIC_OBJECT_OFFSETS;
+    private static final byte[] CONTENT_BEFORE_STUDENT = ascii(
+            "BT /F2 16 Tf 100 700 Td (Certificate of Completion) Tj ET\n" +
+            "BT /F1 12 Tf 100 650 Td (This is to certify that) Tj ET\n" +
+            "BT /F2 16 Tf 100 630 Td (");
+    private static final byte[] CONTENT_BEFORE_COURSE = ascii(
+            ") Tj ET\n" +
+            "BT /F1 12 Tf 100 600 Td (has successfully completed the course) Tj ET\n" +
+            "BT /F2 16 Tf 100 580 Td (");
+    private static final byte[] CONTENT_END = ascii(") Tj ET\n");
+    private static final byte[] CONTENT_OBJECT_START = ascii(CONTENT_OBJECT + " 0 obj\n<< /Length ");
+    private static final byte[] STREAM_START = ascii(" >>\nstream\n");
+    private static final byte[] STREAM_END = ascii("\nendstream\nendobj\n");
+    private static final byte[] XREF_START = ascii("xref\n0 " + (CONTENT_OBJECT + 1) + "\n0000000000 65535 f \n");
+    private static final byte[] XREF_ENTRY_END = ascii(" 00000 n \n");
+    private static final byte[] TRAILER = ascii("trailer\n<< /Size " + (CONTENT_OBJECT + 1) + " /Root 1 0 R >>\nstartxref\n");
+    private static final byte[] EOF = ascii("\n%%EOF\n");
+    // WinAnsiEncoding code of every char, 0 if the char can not be shown with the standard fonts.
+    private static final byte[] WIN_ANSI = new byte[Character.MAX_VALUE + 1];
+
+    static {
+        String[] objects = {
+                "1 0 obj\n<< /Type /Catalog /Pages 2 0 R >>\nendobj\n",
+                "2 0 obj\n<< /Type /Pages /Kids [3 0 R] /Count 1 >>\nendobj\n",
+                "3 0 obj\n<< /Type /Page /Parent 2 0 R /MediaBox [0 0 595.2756 841.8898] " +
+                        "/Resources << /Font << /F1 4 0 R /F2 5 0 R >> >> /Contents " + CONTENT_OBJECT + " 0 R >>\nendobj\n",
+                "4 0 obj\n<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>\nendobj\n",
+                "5 0 obj\n<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>\nendobj\n"
+        };
+        ByteArrayOutputStream template = new ByteArrayOutputStream();
+        template.writeBytes(ascii("%PDF-1.4\n"));
+        template.writeBytes(new byte[]{'%', (byte) 0xE2, (byte) 0xE3, (byte) 0xCF, (byte) 0xD3, '\n'});
+        STATIC_OBJECT_OFFSETS = new int[objects.length];
+        for (int i = 0; i < objects.length; i++) {
+            STATIC_OBJECT_OFFSETS[i] = template.size();
+            template.writeBytes(ascii(objects[i]));
+        }
+        HEADER_AND_STATIC_OBJECTS = template.toByteArray();
+
+        Charset winAnsi = Charset.forName("windows-1252");
+        for (int code = 0x20; code <= 0xFF; code++) {
+            String decoded = new String(new byte[]{(byte) code}, winAnsi);
+            if (decoded.length() == 1 && decoded.charAt(0) != '\uFFFD' && code != 0x7F) {
+                WIN_ANSI[decoded.charAt(0)] = (byte) code;
+            }
+        }
+    }
+
+    private final ThreadLocal<ByteArrayOutputStream> buffers = ThreadLocal.withInitial(() -> new ByteArrayOutputStream(INITIAL_BUFFER_SIZE));
+    private final ThreadLocal<ContentBuffer> contentBuffers = ThreadLocal.withInitial(ContentBuffer::new);
+    private final ThreadPoolExecutor executor;
+
+    public CertificateEngine() {
+        int workers = Math.min(Runtime.getRuntime().availableProcessors(), MAX_WORKERS);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Render a certificate into a new buffer.
+     */
+    public ByteArrayOutputStream generateCertificate(String studentName, String courseName) {
+        ByteArrayOutputStream certificate = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        render(studentName, courseName, certificate);
+        return certificate;
+    }
+
+    /**
+     * Render a certificate into the given buffer. The buffer is reset first.
+     */
+    public void render(String studentName, String courseName, ByteArrayOutputStream out) {
+        ContentBuffer content = contentBuffers.get();
+        content.reset();
+        content.writeBytes(CONTENT_BEFORE_STUDENT);
+        writePdfString(content, studentName);
+        content.writeBytes(CONTENT_BEFORE_COURSE);
+        writePdfString(content, courseName);
+        content.writeBytes(CONTENT_END);
+
+        out.reset();
+        out.writeBytes(HEADER_AND_STATIC_OBJECTS);
+        int contentOffset = out.size();
+        out.writeBytes(CONTENT_OBJECT_START);
+        writeNumber(out, content.size(), 0);
+        out.writeBytes(STREAM_START);
+        content.copyTo(out);
+        out.writeBytes(STREAM_END);
+
+        int xrefOffset = out.size();
+        out.writeBytes(XREF_START);
+        for (int offset : STATIC_OBJECT_OFFSETS) {
+            writeNumber(out, offset, 10);
+            out.writeBytes(XREF_ENTRY_END);
+        }
+        writeNumber(out, contentOffset, 10);
+        out.writeBytes(XREF_ENTRY_END);
+        out.writeBytes(TRAILER);
+        writeNumber(out, xrefOffset, 0);
+        out.writeBytes(EOF);
+    }
+
+    /**
+     * Render the certificates of many recipients on the worker pool.
+     * The consumer is called on a worker thread with a buffer which is reused for the next certificate
+     * of the same worker, so it has to copy or send the bytes before it returns.
+     * A failure of one recipient is logged and does not stop the others.
+     *
+     * @return recipients whose certificate was not rendered or consumed, in the order of the batch
+     */
+    public <T> List<T> renderBatch(List<T> recipients, Function<T, String> studentName, Function<T, String> courseName,
+                                   BiConsumer<T, ByteArrayOutputStream> consumer) {
+        List<Future<Boolean>> futures = new ArrayList<>(recipients.size());
+        for (T recipient : recipients) {
+            futures.add(executor.submit(() -> {
+                try {
+                    ByteArrayOutputStream buffer = buffers.get();
+                    render(studentName.apply(recipient), courseName.apply(recipient), buffer);
+                    consumer.accept(recipient, buffer);
+                    return true;
+                } catch (RuntimeException e) {
+                    LOGGER.error("Failed to deliver certificate", e);
+                    return false;
+                }
+            }));
+        }
+
+        List<T> failed = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                if (!futures.get(i).get()) {
+                    failed.add(recipients.get(i));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // Not waited for, so the rest of the batch counts as failed
+                for (int j = i; j < futures.size(); j++) {
+                    futures.get(j).cancel(false);
+                    failed.add(recipients.get(j));
+                }
+                break;
+            } catch (ExecutionException e) {
+                LOGGER.error("Failed to render certificates", e.getCause());
+                failed.add(recipients.get(i));
+            }
+        }
+        return failed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static void writePdfString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '(' || c == ')' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else {
+                byte code = WIN_ANSI[c];
+                out.write(code == 0 ? '?' : code);
+            }
+        }
+    }
+
+    private static void writeNumber(ByteArrayOutputStream out, int value, int width) {
+        int digits = value == 0 ? 1 : (int) Math.log10(value) + 1;
+        for (int i = digits; i < width; i++) {
+            out.write('0');
+        }
+        int divisor = 1;
+        for (int i = 1; i < digits; i++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.write('0' + (value / divisor) % 10);
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static class ContentBuffer extends ByteArrayOutputStream {
+        ContentBuffer() {
+            super(INITIAL_BUFFER_SIZE);
+        }
+
+        void copyTo(ByteArrayOutputStream out) {
+            out.write(buf, 0, count);
+        }
+    }
+}
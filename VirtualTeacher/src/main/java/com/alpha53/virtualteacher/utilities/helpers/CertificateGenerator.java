@@ -1,63 +0,0 @@
-package com.alpha53.virtualteacher.utilities.helpers;
-
-import com.alpha53.virtualteacher.services.contracts.EmailService;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-
-public class CertificateGenerator {
-    private final static Logger LOGGER = LoggerFactory.getLogger(CertificateGenerator.class);
-
-    public static ByteArrayOutputStream generateCertificate(String studentName, String courseName)  {
-        try (PDDocument document = new PDDocument()) {
-            PDPage page = new PDPage(PDRectangle.A4);
-            document.addPage(page);
-
-            try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
-                contentStream.setFont(PDType1Font.HELVETICA_BOLD, 16);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(100, 700);
-                contentStream.showText("Certificate of Completion");
-                contentStream.endText();
-
-                contentStream.setFont(PDType1Font.HELVETICA, 12);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(100, 650);
-                contentStream.showText("This is to certify that");
-                contentStream.endText();
-
-                contentStream.setFont(PDType1Font.HELVETICA_BOLD, 16);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(100, 630);
-                contentStream.showText(studentName);
-                contentStream.endText();
-
-                contentStream.setFont(PDType1Font.HELVETICA, 12);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(100, 600);
-                contentStream.showText("has successfully completed the course");
-                contentStream.endText();
-
-                contentStream.setFont(PDType1Font.HELVETICA_BOLD, 16);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(100, 580);
-                contentStream.showText(courseName);
-                contentStream.endText();
-            }
-
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            document.save(outputStream);
-            return outputStream;
-        } catch (IOException e) {
-            LOGGER.error("Error saving document", e);
-            throw new IllegalStateException("Failed to generate certificate.");
-        }
-    }
-}
@@ -0,0 +1,90 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions of the courses for conditional requests. A write to a course, its description, its lectures or its ratings
+ * gives the course a new version; the catalog version is the version of the latest write to any course.
+ * Versions are values of one increasing counter prefixed with the start time of the instance in the entity tags,
+ * so tags issued before a restart never match. Changes are recorded after commit and the version has to be read
+ * before the data is loaded, so a response is never tagged with a version newer than its content.
+ */
+@Component
+public class CourseChangeTracker {
+    private final Clock clock;
+    private final String epoch;
+    private final AtomicLong counter = new AtomicLong();
+    private final Map<Integer, Version> changes = new ConcurrentHashMap<>();
+    private volatile Version latest;
+    private volatile Version allChanged;
+
+    @Autowired
+    public CourseChangeTracker() {
+        this(Clock.systemUTC());
+    }
+
+    public CourseChangeTracker(Clock clock) {
+        this.clock = clock;
+        this.epoch = Long.toString(clock.millis(), Character.MAX_RADIX);
+        this.latest = new Version(0, now());
+        this.allChanged = latest;
+    }
+
+    public Version catalogVersion() {
+        return latest;
+    }
+
+    public Version courseVersion(int courseId) {
+        Version course = changes.get(courseId);
+        Version all = allChanged;
+        return course == null || course.value() < all.value() ? all : course;
+    }
+
+    public void courseChanged(int courseId) {
+        TransactionHooks.afterCommit(() -> {
+            Version version = next();
+            changes.merge(courseId, version, (previous, current) -> previous.value() > current.value() ? previous : current);
+        });
+    }
+
+    /**
+     * Used when a write changes many courses at once, like a transfer of courses.
+     */
+    public void allCoursesChanged() {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                allChanged = next();
+            }
+        });
+    }
+
+    /**
+     * @param variant - distinguishes the representations served for the same version, like the views of different roles
+     * @return strong entity tag of the version
+     */
+    public String eTag(Version version, String variant) {
+        return "\"" + epoch + "-" + version.value() + "-" + variant + "\"";
+    }
+
+    private synchronized Version next() {
+        Version version = new Version(counter.incrementAndGet(), now());
+        latest = version;
+        return version;
+    }
+
+    private Instant now() {
+        // HTTP dates have a resolution of seconds
+        return clock.instant().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    public record Version(long value, Instant changedAt) {
+    }
+}
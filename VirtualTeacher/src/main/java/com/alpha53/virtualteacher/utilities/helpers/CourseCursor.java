@@ -0,0 +1,92 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import com.alpha53.virtualteacher.exceptions.InvalidCursorException;
+import com.alpha53.virtualteacher.models.Course;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position inside the course catalog.
+ * Holds the sort key and direction it was issued for, the id of the last returned course
+ * (used as tiebreaker) and the value of the sort column for that course.
+ * Pages of search results ordered by relevance have no sort column, their cursor holds the position
+ * of the next course in the ranking instead.
+ */
+public class CourseCursor {
+    public static final String SORT_BY_ID = "id";
+    public static final String SORT_BY_TITLE = "title";
+    public static final String SORT_BY_RATING = "rating";
+    public static final String SORT_BY_RELEVANCE = "relevance";
+    private static final String SEPARATOR = "|";
+
+    private final String sortKey;
+    private final boolean descending;
+    private final int courseId;
+    private final String value;
+
+    private CourseCursor(String sortKey, boolean descending, int courseId, String value) {
+        this.sortKey = sortKey;
+        this.descending = descending;
+        this.courseId = courseId;
+        this.value = value;
+    }
+
+    public static CourseCursor of(String sortKey, boolean descending, Course lastCourse) {
+        String value = switch (sortKey) {
+            case SORT_BY_TITLE -> lastCourse.getTitle();
+            case SORT_BY_RATING -> String.valueOf(lastCourse.getAvgRating());
+            default -> "";
+        };
+        return new CourseCursor(sortKey, descending, lastCourse.getCourseId(), value);
+    }
+
+    public static CourseCursor atPosition(int position, int lastCourseId) {
+        return new CourseCursor(SORT_BY_RELEVANCE, false, lastCourseId, String.valueOf(position));
+    }
+
+    public static CourseCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\|", 4);
+            if (parts.length != 4) {
+                throw new InvalidCursorException(token);
+            }
+            CourseCursor cursor = new CourseCursor(parts[0], "d".equals(parts[1]), Integer.parseInt(parts[2]), parts[3]);
+            if (SORT_BY_RATING.equals(cursor.sortKey)) {
+                cursor.getRatingValue();
+            }
+            if (SORT_BY_RELEVANCE.equals(cursor.sortKey) && cursor.getPosition() < 0) {
+                throw new InvalidCursorException(token);
+            }
+            return cursor;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+
+    public String encode() {
+        String raw = sortKey + SEPARATOR + (descending ? "d" : "a") + SEPARATOR + courseId + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean matches(String sortKey, boolean descending) {
+        return this.sortKey.equals(sortKey) && this.descending == descending;
+    }
+
+    public int getCourseId() {
+        return courseId;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public double getRatingValue() {
+        return Double.parseDouble(value);
+    }
+
+    public int getPosition() {
+        return Integer.parseInt(value);
+    }
+}
@@ -0,0 +1,142 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import com.alpha53.virtualteacher.config.AuthProperties;
+import com.alpha53.virtualteacher.exceptions.AuthenticationUnavailableException;
+import com.alpha53.virtualteacher.models.User;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks passwords against their stored hashes. Hashing is deliberately expensive, so it runs on a small bounded pool:
+ * a burst of logins queues there instead of taking the CPU from request threads, and is refused once the queue is full.
+ * A password that was verified recently is accepted again by comparing keyed digests, until the stored hash changes
+ * or the entry expires, which keeps REST clients that send their credentials with every call cheap.
+ */
+@Component
+public class CredentialVerifier {
+    private static final int CACHE_SIZE = 10_000;
+    private static final String DIGEST_ALGORITHM = "HmacSHA256";
+    private static final String BUSY_ERROR = "Too many logins are being processed. Please try again.";
+
+    private final PasswordHasher passwordHasher;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final TtlLruCache<String, VerifiedCredential> verified;
+    private final SecretKeySpec digestKey;
+
+    private final AtomicLong hashVerifications = new AtomicLong();
+    private final AtomicLong cachedVerifications = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Autowired
+    public CredentialVerifier(PasswordHasher passwordHasher, AuthProperties authProperties) {
+        this.passwordHasher = passwordHasher;
+        this.timeout = authProperties.getVerificationTimeout();
+        this.executor = new ThreadPoolExecutor(authProperties.getVerificationThreads(), authProperties.getVerificationThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(authProperties.getVerificationQueueCapacity()),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "password-verifier-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        this.verified = authProperties.getCredentialCacheTtl().isZero() ? null
+                : new TtlLruCache<>(CACHE_SIZE, authProperties.getCredentialCacheTtl());
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.digestKey = new SecretKeySpec(key, DIGEST_ALGORITHM);
+    }
+
+    /**
+     * @return true if the password belongs to the user
+     * @throws AuthenticationUnavailableException if the verification pool is saturated or too slow
+     */
+    public boolean verify(User user, String password) {
+        String storedHash = user.getPassword();
+        byte[] digest = verified == null ? null : digest(user.getEmail(), password);
+        if (digest != null) {
+            Optional<VerifiedCredential> credential = verified.getIfPresent(user.getEmail());
+            if (credential.isPresent() && credential.get().storedHash().equals(storedHash)
+                    && MessageDigest.isEqual(credential.get().digest(), digest)) {
+                cachedVerifications.incrementAndGet();
+                return true;
+            }
+        }
+
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> passwordHasher.matches(password, storedHash));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new AuthenticationUnavailableException(BUSY_ERROR, e);
+        }
+        boolean matches;
+        try {
+            matches = result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejected.incrementAndGet();
+            throw new AuthenticationUnavailableException(BUSY_ERROR, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthenticationUnavailableException(BUSY_ERROR, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password verification failed", e.getCause());
+        }
+        hashVerifications.incrementAndGet();
+
+        if (matches && digest != null) {
+            verified.put(user.getEmail(), new VerifiedCredential(storedHash, digest));
+        }
+        return matches;
+    }
+
+    public Map<String, Number> getMetrics() {
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("hashVerifications", hashVerifications.get());
+        metrics.put("cachedVerifications", cachedVerifications.get());
+        metrics.put("rejected", rejected.get());
+        metrics.put("activeThreads", executor.getActiveCount());
+        metrics.put("queued", executor.getQueue().size());
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private byte[] digest(String email, String password) {
+        try {
+            Mac mac = Mac.getInstance(DIGEST_ALGORITHM);
+            mac.init(digestKey);
+            mac.update(email.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private record VerifiedCredential(String storedHash, byte[] digest) {
+    }
+}
@@ -0,0 +1,111 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Email template compiled once into static segments and named slots ({@code {{name}}}).
+ * Rendering computes the exact output length first and fills a pre-sized buffer,
+ * HTML-escaping every slot value.
+ */
+public class EmailTemplate {
+    private static final String SLOT_START = "{{";
+    private static final String SLOT_END = "}}";
+
+    private final String[] segments;
+    private final String[] slots;
+    private final int staticLength;
+
+    private EmailTemplate(String[] segments, String[] slots) {
+        this.segments = segments;
+        this.slots = slots;
+        int length = 0;
+        for (String segment : segments) {
+            length += segment.length();
+        }
+        this.staticLength = length;
+    }
+
+    public static EmailTemplate compile(String source) {
+        List<String> segments = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int start = source.indexOf(SLOT_START, position);
+            int end = start < 0 ? -1 : source.indexOf(SLOT_END, start + SLOT_START.length());
+            if (end < 0) {
+                segments.add(source.substring(position));
+                break;
+            }
+            segments.add(source.substring(position, start));
+            slots.add(source.substring(start + SLOT_START.length(), end).trim());
+            position = end + SLOT_END.length();
+        }
+        return new EmailTemplate(segments.toArray(new String[0]), slots.toArray(new String[0]));
+    }
+
+    /**
+     * @param values - slot values by slot name, missing values are rendered as empty text
+     */
+    public String render(Map<String, String> values) {
+        String[] slotValues = new String[slots.length];
+        int length = staticLength;
+        for (int i = 0; i < slots.length; i++) {
+            slotValues[i] = values.getOrDefault(slots[i], "");
+            length += escapedLength(slotValues[i]);
+        }
+
+        StringBuilder output = new StringBuilder(length);
+        for (int i = 0; i < slots.length; i++) {
+            output.append(segments[i]);
+            appendEscaped(output, slotValues[i]);
+        }
+        output.append(segments[slots.length]);
+        return output.toString();
+    }
+
+    /**
+     * Render the template for many recipients. The static segments are shared by all of them.
+     */
+    public List<String> renderAll(List<Map<String, String>> recipients) {
+        List<String> result = new ArrayList<>(recipients.size());
+        for (Map<String, String> values : recipients) {
+            result.add(render(values));
+        }
+        return result;
+    }
+
+    private static int escapedLength(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            length += switch (value.charAt(i)) {
+                case '&' -> 5;
+                case '<', '>' -> 4;
+                case '"', '\'' -> 6;
+                default -> 1;
+            };
+        }
+        return length;
+    }
+
+    private static void appendEscaped(StringBuilder output, String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> output.append("&amp;");
+                case '<' -> output.append("&lt;");
+                case '>' -> output.append("&gt;");
+                case '"' -> output.append("&quot;");
+                case '\'' -> output.append("&#x27;");
+                default -> output.append(c);
+            }
+        }
+    }
+}
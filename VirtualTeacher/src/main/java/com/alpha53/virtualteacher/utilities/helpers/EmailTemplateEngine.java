@@ -0,0 +1,49 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads and compiles the email templates from {@value #TEMPLATE_LOCATION} once at startup.
+ */
+@Component
+public class EmailTemplateEngine {
+    public static final String TEMPLATE_LOCATION = "email/";
+    public static final String CONFIRMATION = "confirmation";
+    public static final String REFERRAL = "referral";
+    public static final String GRADUATION = "graduation";
+
+    private final Map<String, EmailTemplate> templates = new HashMap<>();
+
+    public EmailTemplateEngine() {
+        for (String name : new String[]{CONFIRMATION, REFERRAL, GRADUATION}) {
+            templates.put(name, EmailTemplate.compile(load(name)));
+        }
+    }
+
+    public EmailTemplate get(String name) {
+        EmailTemplate template = templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException(String.format("Email template %s does not exist.", name));
+        }
+        return template;
+    }
+
+    public String render(String name, Map<String, String> values) {
+        return get(name).render(values);
+    }
+
+    private static String load(String name) {
+        try (InputStream inputStream = new ClassPathResource(TEMPLATE_LOCATION + name + ".html").getInputStream()) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(String.format("Failed to load email template %s.", name), e);
+        }
+    }
+}
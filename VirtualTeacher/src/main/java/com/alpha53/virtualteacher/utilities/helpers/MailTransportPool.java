@@ -0,0 +1,217 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a small set of authenticated SMTP connections open over one shared session,
+ * so the TCP, STARTTLS and login handshake is paid once per connection instead of once per message.
+ * A connection is recycled after {@value #MAX_MESSAGES_PER_CONNECTION} messages or when it was idle too long,
+ * and it is dropped as soon as a send on it fails.
+ */
+@Component
+public class MailTransportPool {
+    private final static Logger LOGGER = LoggerFactory.getLogger(MailTransportPool.class);
+    public static final int MAX_CONNECTIONS = 4;
+    public static final int MAX_MESSAGES_PER_CONNECTION = 100;
+    public static final Duration MAX_IDLE = Duration.ofSeconds(60);
+    public static final Duration BORROW_TIMEOUT = Duration.ofSeconds(30);
+    private final static String SMTP_HOST = "smtp.gmail.com";
+    private final static int SMTP_PORT = 587;
+    private final static String SMTP_USER = "virtualteachertelerik@gmail.com";
+    private final static String SMTP_PASSWORD = "hwds wmnx adur ypli";
+
+    private final Session session;
+    private final Connector connector;
+    private final Duration borrowTimeout;
+    private final BlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits = new Semaphore(MAX_CONNECTIONS, true);
+
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong connectionsClosed = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong sendFailures = new AtomicLong();
+    private final AtomicLong borrowWaitNanos = new AtomicLong();
+
+    public MailTransportPool() {
+        Properties prop = new Properties();
+        prop.put("mail.smtp.host", SMTP_HOST);
+        prop.put("mail.smtp.port", String.valueOf(SMTP_PORT));
+        prop.put("mail.smtp.auth", "true");
+        prop.put("mail.smtp.starttls.enable", "true"); //TLS
+        prop.put("mail.smtp.connectiontimeout", "10000");
+        prop.put("mail.smtp.timeout", "30000");
+        prop.put("mail.smtp.writetimeout", "30000");
+        this.session = Session.getInstance(prop);
+        this.connector = () -> {
+            Transport transport = session.getTransport("smtp");
+            transport.connect(SMTP_HOST, SMTP_PORT, SMTP_USER, SMTP_PASSWORD);
+            return transport;
+        };
+        this.borrowTimeout = BORROW_TIMEOUT;
+    }
+
+    MailTransportPool(Session session, Connector connector, Duration borrowTimeout) {
+        this.session = session;
+        this.connector = connector;
+        this.borrowTimeout = borrowTimeout;
+    }
+
+    public MimeMessage createMessage() {
+        return new MimeMessage(session);
+    }
+
+    /**
+     * Send the message over a pooled connection.
+     *
+     * @throws MessagingException if no connection could be obtained or the server rejected the message
+     */
+    public void send(MimeMessage message) throws MessagingException {
+        PooledTransport transport = borrow();
+        boolean healthy = false;
+        try {
+            message.saveChanges();
+            transport.transport.sendMessage(message, message.getAllRecipients());
+            transport.messages++;
+            messagesSent.incrementAndGet();
+            healthy = true;
+        } catch (MessagingException e) {
+            sendFailures.incrementAndGet();
+            throw e;
+        } finally {
+            release(transport, healthy);
+        }
+    }
+
+    /**
+     * Close the connections which were not used for longer than {@link #MAX_IDLE}.
+     */
+    @Scheduled(fixedDelay = 30000, initialDelay = 30000)
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (PooledTransport transport : idle) {
+            if (now - transport.lastUsed > MAX_IDLE.toNanos() && idle.remove(transport)) {
+                close(transport);
+            }
+        }
+    }
+
+    public Map<String, Number> getMetrics() {
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("idleConnections", idle.size());
+        metrics.put("activeConnections", MAX_CONNECTIONS - permits.availablePermits());
+        metrics.put("connectionsOpened", connectionsOpened.get());
+        metrics.put("connectionsClosed", connectionsClosed.get());
+        metrics.put("messagesSent", messagesSent.get());
+        metrics.put("sendFailures", sendFailures.get());
+        metrics.put("borrowWaitMillis", TimeUnit.NANOSECONDS.toMillis(borrowWaitNanos.get()));
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        PooledTransport transport;
+        while ((transport = idle.poll()) != null) {
+            close(transport);
+        }
+        LOGGER.info("Mail transport pool closed: {}", getMetrics());
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("No SMTP connection available");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while waiting for an SMTP connection", e);
+        } finally {
+            borrowWaitNanos.addAndGet(System.nanoTime() - start);
+        }
+
+        try {
+            PooledTransport transport;
+            while ((transport = idle.pollFirst()) != null) {
+                if (transport.isReusable()) {
+                    return transport;
+                }
+                close(transport);
+            }
+            return open();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void release(PooledTransport transport, boolean healthy) {
+        try {
+            if (healthy && transport.messages < MAX_MESSAGES_PER_CONNECTION) {
+                transport.lastUsed = System.nanoTime();
+                idle.offerFirst(transport);
+            } else {
+                close(transport);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private PooledTransport open() throws MessagingException {
+        Transport transport = connector.connect();
+        connectionsOpened.incrementAndGet();
+        return new PooledTransport(transport);
+    }
+
+    private void close(PooledTransport transport) {
+        try {
+            transport.transport.close();
+        } catch (MessagingException e) {
+            LOGGER.warn("Failed to close SMTP connection", e);
+        } finally {
+            connectionsClosed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Opens an authenticated connection.
+     */
+    @FunctionalInterface
+    interface Connector {
+        Transport connect() throws MessagingException;
+    }
+
+    private static class PooledTransport {
+        private final Transport transport;
+        private int messages;
+        private long lastUsed = System.nanoTime();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        private boolean isReusable() {
+            return transport.isConnected()
+                    && messages < MAX_MESSAGES_PER_CONNECTION
+                    && System.nanoTime() - lastUsed <= MAX_IDLE.toNanos();
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import com.alpha53.virtualteacher.config.StorageProperties;
+import com.alpha53.virtualteacher.exceptions.StorageException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Square variants of the profile pictures, so an avatar is never served bigger than it is shown.
+ * An upload is decoded once, cropped to a centered square and scaled to every variant size on a bounded worker pool;
+ * the variants are stored next to the original as name-{size}.ext.
+ * Templates call {@link #url(String, int)} and {@link #srcset(String)} through the bean, pictures uploaded before
+ * the variants existed get them generated in the background the first time they are shown and are served
+ * as they are until then.
+ */
+@Component
+public class ProfilePictures {
+    private final static Logger LOGGER = LoggerFactory.getLogger(ProfilePictures.class);
+    public static final int[] VARIANT_SIZES = {64, 128, 512};
+    public static final int MAX_WORKERS = 4;
+    public static final int QUEUE_CAPACITY = 32;
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final Path rootLocation;
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    public ProfilePictures(StorageProperties storageProperties) {
+        this.rootLocation = Paths.get(storageProperties.getLocation());
+        int workers = Math.min(Runtime.getRuntime().availableProcessors(), MAX_WORKERS);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY));
+    }
+
+    /**
+     * Create the variants of a stored picture and wait for them. If one of them fails, the others are still
+     * waited for and then all of them are deleted, so a failed upload leaves no variants behind.
+     *
+     * @param pictureUrl - URL returned by the storage for the original
+     */
+    public void storeVariants(String pictureUrl) {
+        if (pictureUrl == null) {
+            return;
+        }
+        BufferedImage square = decode(original(pictureUrl));
+        List<Future<?>> futures = new ArrayList<>(VARIANT_SIZES.length);
+        RuntimeException failure = null;
+        for (int size : VARIANT_SIZES) {
+            Runnable task = () -> writeVariant(square, size, variant(pictureUrl, size));
+            try {
+                futures.add(executor.submit(task));
+            } catch (RejectedExecutionException e) {
+                // Pool is saturated, the uploading thread does the work itself
+                try {
+                    task.run();
+                } catch (RuntimeException taskFailure) {
+                    failure = taskFailure;
+                    break;
+                }
+            }
+        }
+
+        boolean interrupted = false;
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    // Keep waiting, a variant written after this method returned could not be cleaned up
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = new StorageException("Failed to resize picture.", e.getCause());
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            try {
+                deleteVariants(pictureUrl);
+            } catch (StorageException e) {
+                failure.addSuppressed(e);
+            }
+            throw failure;
+        }
+        states.put(pictureUrl, State.READY);
+    }
+
+    public void deleteVariants(String pictureUrl) {
+        if (pictureUrl == null) {
+            return;
+        }
+        states.remove(pictureUrl);
+        try {
+            for (int size : VARIANT_SIZES) {
+                Files.deleteIfExists(variant(pictureUrl, size));
+            }
+        } catch (IOException e) {
+            throw new StorageException(String.format("Unable to delete variants of %s.", pictureUrl));
+        }
+    }
+
+    /**
+     * @param displaySize - size in CSS pixels the picture is shown at
+     * @return URL of the smallest variant which is at least the display size, the original if it has no variants yet
+     */
+    public String url(String pictureUrl, int displaySize) {
+        if (!isReady(pictureUrl)) {
+            return pictureUrl;
+        }
+        for (int size : VARIANT_SIZES) {
+            if (size >= displaySize) {
+                return variantUrl(pictureUrl, size);
+            }
+        }
+        return variantUrl(pictureUrl, VARIANT_SIZES[VARIANT_SIZES.length - 1]);
+    }
+
+    /**
+     * @return srcset with the width of every variant, so the browser picks the smallest one which fits
+     * the sizes of the image at the pixel density of the screen; null if the picture has no variants yet
+     */
+    public String srcset(String pictureUrl) {
+        if (!isReady(pictureUrl)) {
+            return null;
+        }
+        StringBuilder srcset = new StringBuilder();
+        for (int size : VARIANT_SIZES) {
+            if (!srcset.isEmpty()) {
+                srcset.append(", ");
+            }
+            srcset.append(variantUrl(pictureUrl, size)).append(' ').append(size).append('w');
+        }
+        return srcset.toString();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    static String variantUrl(String pictureUrl, int size) {
+        int dotIndex = pictureUrl.lastIndexOf('.');
+        if (dotIndex <= pictureUrl.lastIndexOf('/')) {
+            return pictureUrl + "-" + size;
+        }
+        return pictureUrl.substring(0, dotIndex) + "-" + size + pictureUrl.substring(dotIndex);
+    }
+
+    private boolean isReady(String pictureUrl) {
+        if (pictureUrl == null) {
+            return false;
+        }
+        return states.computeIfAbsent(pictureUrl, this::probe) == State.READY;
+    }
+
+    private State probe(String pictureUrl) {
+        try {
+            boolean complete = true;
+            for (int size : VARIANT_SIZES) {
+                complete &= Files.exists(variant(pictureUrl, size));
+            }
+            if (complete) {
+                return State.READY;
+            }
+            if (!Files.isRegularFile(original(pictureUrl))) {
+                return State.MISSING;
+            }
+        } catch (StorageException e) {
+            // Not a file of the storage
+            return State.MISSING;
+        }
+        try {
+            executor.execute(() -> backfill(pictureUrl));
+        } catch (RejectedExecutionException e) {
+            // Not remembered, tried again the next time the picture is shown
+            return null;
+        }
+        return State.PENDING;
+    }
+
+    /**
+     * Runs on a worker, so the variants are written one after another instead of waiting for other workers.
+     */
+    private void backfill(String pictureUrl) {
+        try {
+            BufferedImage square = decode(original(pictureUrl));
+            for (int size : VARIANT_SIZES) {
+                writeVariant(square, size, variant(pictureUrl, size));
+            }
+            states.put(pictureUrl, State.READY);
+            LOGGER.info("Created variants of {}", pictureUrl);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to create variants of {}", pictureUrl, e);
+            states.put(pictureUrl, State.MISSING);
+        }
+    }
+
+    private Path original(String pictureUrl) {
+        return file(pictureUrl.substring(pictureUrl.lastIndexOf('/') + 1));
+    }
+
+    private Path variant(String pictureUrl, int size) {
+        String url = variantUrl(pictureUrl, size);
+        return file(url.substring(url.lastIndexOf('/') + 1));
+    }
+
+    private Path file(String fileName) {
+        Path file = rootLocation.resolve(fileName).normalize().toAbsolutePath();
+        if (!file.getParent().equals(rootLocation.toAbsolutePath().normalize())) {
+            throw new StorageException("Cannot access file outside storage directory.");
+        }
+        return file;
+    }
+
+    /**
+     * Decode the picture and crop it to its centered square. The square is copied into an integer pixel layout,
+     * which Java2D scales much faster than the byte layouts decoders produce.
+     */
+    private static BufferedImage decode(Path original) {
+        BufferedImage image;
+        try {
+            image = ImageIO.read(original.toFile());
+        } catch (IOException e) {
+            throw new StorageException("Failed to read picture.", e);
+        }
+        if (image == null) {
+            throw new StorageException("Unsupported picture format.");
+        }
+        int side = Math.min(image.getWidth(), image.getHeight());
+        BufferedImage square = image.getSubimage((image.getWidth() - side) / 2, (image.getHeight() - side) / 2, side, side);
+        return draw(square, side, image.getColorModel().hasAlpha());
+    }
+
+    /**
+     * Pictures smaller than the size are not enlarged, the variant has the size of the picture then.
+     */
+    private static void writeVariant(BufferedImage square, int size, Path target) {
+        String format = format(target);
+        BufferedImage scaled = scale(square, Math.min(size, square.getWidth()), format.equals("png"));
+        try (OutputStream out = Files.newOutputStream(target)) {
+            if (format.equals("png")) {
+                ImageIO.write(scaled, format, out);
+            } else {
+                writeJpeg(scaled, out);
+            }
+        } catch (IOException e) {
+            throw new StorageException("Failed to store picture variant.", e);
+        }
+    }
+
+    /**
+     * Halve the picture with bilinear interpolation until one more halving would go below the size, then scale
+     * to the size. Every step averages at most four pixels, which keeps quality close to area averaging
+     * at a fraction of its cost.
+     */
+    private static BufferedImage scale(BufferedImage source, int size, boolean alpha) {
+        BufferedImage current = source;
+        int side = source.getWidth();
+        while (side / 2 >= size) {
+            side /= 2;
+            current = draw(current, side, alpha);
+        }
+        return current.getWidth() == size && current != source ? current : draw(current, size, alpha);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int side, boolean alpha) {
+        BufferedImage target = new BufferedImage(side, side, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, side, side, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static void writeJpeg(BufferedImage image, OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static String format(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".png") ? "png" : "jpeg";
+    }
+
+    private enum State {
+        READY, PENDING, MISSING
+    }
+}
@@ -0,0 +1,187 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import com.alpha53.virtualteacher.models.Role;
+import com.alpha53.virtualteacher.models.Topic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+
+/**
+ * In-memory copy of the reference data: the topics and the roles. Both tables change only by migrations or by hand,
+ * so the DAOs load them once and serve every lookup from here.
+ * Each table is kept in an immutable snapshot indexed by ID and by name, which a reload replaces atomically.
+ * The version of a table is a checksum of its content, so it is the same on every instance and changes only
+ * when the content does; validators of responses which show topics fold it in.
+ * A lookup of an unknown ID or name may reload its table at most once per {@link #MISS_RELOAD_INTERVAL}, so requests
+ * for entries which do not exist cannot turn every lookup into a query.
+ * Returned topics and roles are copies, callers may modify them.
+ */
+@Component
+public class ReferenceDataRegistry {
+    private final static Logger LOGGER = LoggerFactory.getLogger(ReferenceDataRegistry.class);
+    public static final Duration MISS_RELOAD_INTERVAL = Duration.ofSeconds(10);
+
+    private final Clock clock;
+    private final AtomicLong topicsMissReloadedAt = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong rolesMissReloadedAt = new AtomicLong(Long.MIN_VALUE);
+    private volatile Snapshot<Topic> topics;
+    private volatile Snapshot<Role> roles;
+
+    @Autowired
+    public ReferenceDataRegistry() {
+        this(Clock.systemUTC());
+    }
+
+    public ReferenceDataRegistry(Clock clock) {
+        this.clock = clock;
+    }
+
+    public boolean areTopicsLoaded() {
+        return topics != null;
+    }
+
+    public List<Topic> getTopics() {
+        return copies(topics, ReferenceDataRegistry::copyOf);
+    }
+
+    public Optional<Topic> getTopic(int id) {
+        return lookup(topics, Snapshot::byId, id, ReferenceDataRegistry::copyOf);
+    }
+
+    public Optional<Topic> getTopic(String name) {
+        return lookup(topics, Snapshot::byName, name.toLowerCase(Locale.ROOT), ReferenceDataRegistry::copyOf);
+    }
+
+    public long getTopicsVersion() {
+        return topics == null ? 0 : topics.version();
+    }
+
+    /**
+     * @return true if the caller should reload the topics after a lookup missed, false if they were reloaded
+     * for a miss less than {@link #MISS_RELOAD_INTERVAL} ago
+     */
+    public boolean tryAcquireTopicsMissReload() {
+        return tryAcquireMissReload(topicsMissReloadedAt);
+    }
+
+    /**
+     * @return true if the content of the topics changed
+     */
+    public boolean replaceTopics(List<Topic> topics) {
+        Snapshot<Topic> previous = this.topics;
+        this.topics = Snapshot.of(topics, Topic::getTopicId, Topic::getTopic, ReferenceDataRegistry::copyOf);
+        return logChange("Topics", previous, this.topics);
+    }
+
+    public boolean areRolesLoaded() {
+        return roles != null;
+    }
+
+    public List<Role> getRoles() {
+        return copies(roles, ReferenceDataRegistry::copyOf);
+    }
+
+    public Optional<Role> getRole(int id) {
+        return lookup(roles, Snapshot::byId, id, ReferenceDataRegistry::copyOf);
+    }
+
+    public Optional<Role> getRole(String roleType) {
+        return lookup(roles, Snapshot::byName, roleType.toLowerCase(Locale.ROOT), ReferenceDataRegistry::copyOf);
+    }
+
+    /**
+     * @return true if the caller should reload the roles after a lookup missed, false if they were reloaded
+     * for a miss less than {@link #MISS_RELOAD_INTERVAL} ago
+     */
+    public boolean tryAcquireRolesMissReload() {
+        return tryAcquireMissReload(rolesMissReloadedAt);
+    }
+
+    /**
+     * @return true if the content of the roles changed
+     */
+    public boolean replaceRoles(List<Role> roles) {
+        Snapshot<Role> previous = this.roles;
+        this.roles = Snapshot.of(roles, Role::getRoleId, Role::getRoleType, ReferenceDataRegistry::copyOf);
+        return logChange("Roles", previous, this.roles);
+    }
+
+    private boolean tryAcquireMissReload(AtomicLong reloadedAt) {
+        long now = clock.millis();
+        long previous = reloadedAt.get();
+        if (previous != Long.MIN_VALUE && now - previous < MISS_RELOAD_INTERVAL.toMillis()) {
+            return false;
+        }
+        // Only one of the concurrent misses reloads
+        return reloadedAt.compareAndSet(previous, now);
+    }
+
+    private static <T> List<T> copies(Snapshot<T> snapshot, UnaryOperator<T> copier) {
+        if (snapshot == null) {
+            return new ArrayList<>();
+        }
+        List<T> copies = new ArrayList<>(snapshot.all().size());
+        snapshot.all().forEach(value -> copies.add(copier.apply(value)));
+        return copies;
+    }
+
+    private static <T, K> Optional<T> lookup(Snapshot<T> snapshot, Function<Snapshot<T>, Map<K, T>> index, K key, UnaryOperator<T> copier) {
+        if (snapshot == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(index.apply(snapshot).get(key)).map(copier);
+    }
+
+    private static boolean logChange(String table, Snapshot<?> previous, Snapshot<?> current) {
+        if (previous != null && previous.version() == current.version()) {
+            return false;
+        }
+        LOGGER.info("{} loaded: {} entries, version {}", table, current.all().size(), Long.toHexString(current.version()));
+        return true;
+    }
+
+    private static Topic copyOf(Topic topic) {
+        return new Topic(topic.getTopicId(), topic.getTopic());
+    }
+
+    private static Role copyOf(Role role) {
+        Role copy = new Role();
+        copy.setRoleId(role.getRoleId());
+        copy.setRoleType(role.getRoleType());
+        return copy;
+    }
+
+    private record Snapshot<T>(List<T> all, Map<Integer, T> byId, Map<String, T> byName, long version) {
+
+        private static <T> Snapshot<T> of(List<T> values, ToIntFunction<T> id, Function<T, String> name,
+                                          UnaryOperator<T> copier) {
+            List<T> all = new ArrayList<>(values.size());
+            Map<Integer, T> byId = new HashMap<>();
+            Map<String, T> byName = new HashMap<>();
+            for (T value : values) {
+                T copy = copier.apply(value);
+                all.add(copy);
+                byId.put(id.applyAsInt(copy), copy);
+                byName.put(name.apply(copy).toLowerCase(Locale.ROOT), copy);
+            }
+            all.sort(Comparator.comparingInt(id));
+
+            CRC32 checksum = new CRC32();
+            for (T value : all) {
+                checksum.update((id.applyAsInt(value) + "\t" + name.apply(value) + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return new Snapshot<>(List.copyOf(all), Map.copyOf(byId), Map.copyOf(byName), checksum.getValue());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache with a time to live and least recently used eviction.
+ * Concurrent loads of the same key are coalesced, so only one caller runs the loader and the others wait for its result.
+ * Expired values are kept until they are replaced or evicted, so they can still be served as stale results.
+ */
+public class TtlLruCache<K, V> {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+
+    public TtlLruCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    public TtlLruCache(int maxSize, Duration ttl, LongSupplier nanoClock) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlLruCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the cached value or load it. If another caller is already loading the key, wait for its result.
+     *
+     * @throws ExecutionException wrapping the exception of the loader
+     */
+    public V get(K key, Callable<V> loader) throws ExecutionException, InterruptedException {
+        return getAsync(key, () -> {
+            try {
+                return CompletableFuture.completedFuture(loader.call());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }).get();
+    }
+
+    /**
+     * Get the cached value or start loading it. If another caller is already loading the key, share its result.
+     * The value is cached when the future returned by the loader completes successfully.
+     */
+    public CompletableFuture<V> getAsync(K key, Supplier<CompletableFuture<V>> loader) {
+        Optional<V> cached = getIfPresent(key);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached.get());
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing.copy();
+        }
+
+        CompletableFuture<V> load;
+        try {
+            load = loader.get();
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        load.whenComplete((value, error) -> {
+            if (error == null) {
+                put(key, value);
+            } else {
+                loadFailures.incrementAndGet();
+            }
+            inFlight.remove(key, future);
+            if (error == null) {
+                future.complete(value);
+            } else {
+                future.completeExceptionally(error);
+            }
+        });
+        return future.copy();
+    }
+
+    /**
+     * @return the value if it is cached and not expired. Counts as a hit or a miss.
+     */
+    public Optional<V> getIfPresent(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && nanoClock.getAsLong() - entry.createdAt < ttlNanos) {
+                hits.incrementAndGet();
+                return Optional.of(entry.value);
+            }
+            if (entry != null) {
+                expirations.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * @return the cached value even if it is expired. Does not affect the metrics.
+     */
+    public Optional<V> getStale(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            return entry == null ? Optional.empty() : Optional.of(entry.value);
+        }
+    }
+
+    public void put(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, nanoClock.getAsLong()));
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public Map<String, Number> getMetrics() {
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("size", size());
+        metrics.put("hits", hits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("coalesced", coalesced.get());
+        metrics.put("evictions", evictions.get());
+        metrics.put("expirations", expirations.get());
+        metrics.put("loadFailures", loadFailures.get());
+        return metrics;
+    }
+
+    private record Entry<V>(V value, long createdAt) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records when users were last changed, as values of one increasing counter shared by all sessions.
+ * A copy of a user taken at {@link #version()} is still current as long as that user has not changed after it.
+ * The version has to be read before the user is loaded, so a change made in between is not missed.
+ */
+@Component
+public class UserChangeTracker {
+    private final AtomicLong counter = new AtomicLong();
+    private final Map<Integer, Long> changedAt = new ConcurrentHashMap<>();
+
+    public long version() {
+        return counter.get();
+    }
+
+    public void userChanged(int userId) {
+        changedAt.merge(userId, counter.incrementAndGet(), Math::max);
+    }
+
+    public boolean isCurrent(int userId, long version) {
+        return changedAt.getOrDefault(userId, 0L) <= version;
+    }
+}
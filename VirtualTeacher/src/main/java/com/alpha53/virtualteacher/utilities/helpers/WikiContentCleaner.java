@@ -0,0 +1,105 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import org.wikiclean.WikiClean;
+import org.wikiclean.languages.English;
+
+/**
+ * Converts wiki markup to plain text with one shared {@link WikiClean}, which keeps no state between calls.
+ * Only a preview of the article is shown, so the markup is cleaned paragraph group by paragraph group
+ * and cleaning stops as soon as the text reaches the maximum length.
+ */
+public class WikiContentCleaner {
+    private static final WikiClean WIKI_CLEAN = new WikiClean.Builder().withLanguage(new English()).withTitle(true).build();
+    private static final String XML_START_TAG = "<text xml:space=\"preserve\">";
+    private static final String XML_END_TAG = "</text>";
+    // Markup is usually two to three times longer than the text it produces.
+    private static final int MARKUP_PER_TEXT_CHAR = 3;
+    private static final int MIN_WINDOW = 2048;
+    private static final String ELLIPSIS = "...";
+
+    private final int maxLength;
+
+    /**
+     * @param maxLength maximum length of the cleaned text, 0 or less to clean whole articles
+     */
+    public WikiContentCleaner(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    public String clean(String markup) {
+        if (markup == null) {
+            return "";
+        }
+        if (maxLength <= 0) {
+            return cleanFragment(markup);
+        }
+
+        StringBuilder text = new StringBuilder(maxLength + ELLIPSIS.length());
+        int start = 0;
+        while (start < markup.length() && text.length() < maxLength) {
+            int window = Math.max(MIN_WINDOW, (maxLength - text.length()) * MARKUP_PER_TEXT_CHAR);
+            int end = nextBoundary(markup, start, start + window);
+            String fragment = cleanFragment(markup.substring(start, end)).strip();
+            if (!fragment.isEmpty()) {
+                if (!text.isEmpty()) {
+                    text.append("\n\n");
+                }
+                text.append(fragment);
+            }
+            start = end;
+        }
+
+        boolean truncated = text.length() > maxLength || start < markup.length();
+        if (text.length() > maxLength) {
+            int cut = maxLength;
+            while (cut > maxLength / 2 && !Character.isWhitespace(text.charAt(cut))) {
+                cut--;
+            }
+            text.setLength(cut > maxLength / 2 ? cut : maxLength);
+        }
+        if (truncated) {
+            text.append(ELLIPSIS);
+        }
+        return text.toString();
+    }
+
+    private static String cleanFragment(String markup) {
+        return WIKI_CLEAN.clean(XML_START_TAG + markup + XML_END_TAG);
+    }
+
+    /**
+     * Find the first blank line at or after {@code target} which is not inside a template, a table, a link or a comment,
+     * so a fragment never splits a construct which WikiClean has to see whole.
+     *
+     * @return index after the blank line, or the length of the markup if there is none
+     */
+    static int nextBoundary(String markup, int from, int target) {
+        if (target >= markup.length()) {
+            return markup.length();
+        }
+        int depth = 0;
+        boolean comment = false;
+        for (int i = from; i < markup.length() - 1; i++) {
+            char c = markup.charAt(i);
+            char next = markup.charAt(i + 1);
+            if (comment) {
+                if (c == '-' && markup.startsWith("-->", i)) {
+                    comment = false;
+                    i += 2;
+                }
+            } else if (c == '<' && markup.startsWith("<!--", i)) {
+                comment = true;
+                i += 3;
+            } else if ((c == '{' && (next == '{' || next == '|')) || (c == '[' && next == '[')) {
+                depth++;
+                i++;
+            } else if ((c == '}' && next == '}') || (c == '|' && next == '}') || (c == ']' && next == ']')) {
+                depth = Math.max(0, depth - 1);
+                i++;
+            } else if (c == '\n' && next == '\n' && depth == 0 && i >= target) {
+                return i + 2;
+            }
+        }
+        return markup.length();
+    }
+}
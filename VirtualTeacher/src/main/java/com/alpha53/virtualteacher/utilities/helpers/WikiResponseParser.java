@@ -0,0 +1,208 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import com.alpha53.virtualteacher.models.WikiResult;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.jsoup.Jsoup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams the MediaWiki API responses and picks out only the fields used for the wiki search,
+ * without building a tree of the whole response. Everything else is skipped token by token.
+ * The parser is stateless and can be shared between threads.
+ */
+public class WikiResponseParser {
+    private static final String NOT_AVAILABLE = "Not available";
+
+    private final JsonFactory jsonFactory;
+
+    public WikiResponseParser(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Read the pages of a {@code list=search} response.
+     */
+    public List<WikiResult> parseSearchResults(byte[] body) throws IOException {
+        List<WikiResult> results = new ArrayList<>();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (moveToQueryField(parser, "search")) {
+                forEachElement(parser, () -> {
+                    WikiResult result = new WikiResult();
+                    result.setPageid(-1);
+                    result.setTitle(NOT_AVAILABLE);
+                    result.setSnippet(NOT_AVAILABLE);
+                    forEachField(parser, name -> {
+                        switch (name) {
+                            case "pageid" -> result.setPageid(parser.getValueAsInt(-1));
+                            case "title" -> result.setTitle(parser.getValueAsString(NOT_AVAILABLE));
+                            case "snippet" -> result.setSnippet(Jsoup.parse(parser.getValueAsString(NOT_AVAILABLE)).text());
+                            default -> parser.skipChildren();
+                        }
+                    });
+                    results.add(result);
+                });
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Read the wiki markup of the latest revision of every page of a {@code prop=revisions} response.
+     *
+     * @return markup by page id
+     */
+    public Map<Integer, String> parseContents(byte[] body) throws IOException {
+        Map<Integer, String> contents = new HashMap<>();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (moveToQueryField(parser, "pages")) {
+                forEachElement(parser, () -> {
+                    int[] pageId = {-1};
+                    String[] content = {null};
+                    forEachField(parser, name -> {
+                        switch (name) {
+                            case "pageid" -> pageId[0] = parser.getValueAsInt(-1);
+                            case "revisions" -> forEachElement(parser, () -> forEachField(parser, revisionField -> {
+                                if (revisionField.equals("slots")) {
+                                    forEachField(parser, slot -> {
+                                        if (slot.equals("main")) {
+                                            forEachField(parser, mainField -> {
+                                                if (mainField.equals("content")) {
+                                                    content[0] = parser.getValueAsString("N/A");
+                                                } else {
+                                                    parser.skipChildren();
+                                                }
+                                            });
+                                        } else {
+                                            parser.skipChildren();
+                                        }
+                                    });
+                                } else {
+                                    parser.skipChildren();
+                                }
+                            }));
+                            default -> parser.skipChildren();
+                        }
+                    });
+                    if (content[0] != null) {
+                        contents.put(pageId[0], content[0]);
+                    }
+                });
+            }
+        }
+        return contents;
+    }
+
+    /**
+     * Read the canonical URL of every page of a {@code prop=info&inprop=url} response.
+     *
+     * @return URL by page id
+     */
+    public Map<Integer, String> parseFullUrls(byte[] body) throws IOException {
+        Map<Integer, String> urls = new HashMap<>();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (moveToQueryField(parser, "pages")) {
+                forEachElement(parser, () -> {
+                    int[] pageId = {-1};
+                    String[] url = {null};
+                    forEachField(parser, name -> {
+                        switch (name) {
+                            case "pageid" -> pageId[0] = parser.getValueAsInt(-1);
+                            case "fullurl" -> url[0] = parser.getValueAsString();
+                            default -> parser.skipChildren();
+                        }
+                    });
+                    urls.put(pageId[0], url[0]);
+                });
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Advance the parser to the value of {@code query.<field>}.
+     *
+     * @return false if the response has no such field
+     */
+    private static boolean moveToQueryField(JsonParser parser, String field) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.START_OBJECT && name.equals("query")) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String queryField = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    if (queryField.equals(field) && (value == JsonToken.START_ARRAY || value == JsonToken.START_OBJECT)) {
+                        return true;
+                    }
+                    parser.skipChildren();
+                }
+                return false;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    /**
+     * Call the handler for every object in the array or, for the older format which keys the pages by id,
+     * for every object value of the object the parser is positioned at. Values of other types are skipped.
+     */
+    private static void forEachElement(JsonParser parser, ElementHandler handler) throws IOException {
+        JsonToken container = parser.currentToken();
+        if (container == JsonToken.START_ARRAY) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                if (token == JsonToken.START_OBJECT) {
+                    handler.handle();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else if (container == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    handler.handle();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    /**
+     * Call the handler with the parser positioned at the value of every field of the current object.
+     * The handler has to consume the value, by reading it or by skipping its children.
+     */
+    private static void forEachField(JsonParser parser, FieldHandler handler) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            handler.handle(name);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ElementHandler {
+        void handle() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface FieldHandler {
+        void handle(String name) throws IOException;
+    }
+}
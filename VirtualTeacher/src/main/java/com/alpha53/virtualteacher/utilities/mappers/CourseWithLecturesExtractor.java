@@ -0,0 +1,56 @@
+package com.alpha53.virtualteacher.utilities.mappers;
+
+import com.alpha53.virtualteacher.models.Course;
+import com.alpha53.virtualteacher.models.Lecture;
+import com.alpha53.virtualteacher.models.LectureDescription;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Folds the rows of a course joined with its lectures into one {@link Course} with its lectures set.
+ * The course columns repeat on every row and are mapped once; a course without lectures comes as a single row
+ * with null lecture columns. Returns null if there are no rows.
+ */
+public class CourseWithLecturesExtractor implements ResultSetExtractor<Course> {
+    private final CourseMapper courseMapper;
+
+    public CourseWithLecturesExtractor(CourseMapper courseMapper) {
+        this.courseMapper = courseMapper;
+    }
+
+    @Override
+    public Course extractData(ResultSet rs) throws SQLException {
+        Course course = null;
+        Set<Lecture> lectures = new HashSet<>();
+        int rowNum = 0;
+        while (rs.next()) {
+            if (course == null) {
+                course = courseMapper.mapRow(rs, rowNum);
+            }
+            rowNum++;
+            int lectureId = rs.getInt("lecture_id");
+            if (rs.wasNull()) {
+                continue;
+            }
+            Lecture lecture = new Lecture();
+            LectureDescription description = new LectureDescription();
+            lecture.setId(lectureId);
+            lecture.setTitle(rs.getString("lecture_title"));
+            lecture.setVideoUrl(rs.getString("video_url"));
+            lecture.setAssignmentUrl(rs.getString("assignment_url"));
+            lecture.setCourseId(course.getCourseId());
+            description.setDescription(rs.getString("lecture_description"));
+            description.setDescriptionId(rs.getInt("lecture_description_id"));
+            lecture.setDescription(description);
+            lectures.add(lecture);
+        }
+        if (course != null) {
+            course.setLectures(lectures);
+        }
+        return course;
+    }
+}
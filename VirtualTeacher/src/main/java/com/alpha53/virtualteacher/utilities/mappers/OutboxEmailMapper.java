@@ -0,0 +1,28 @@
+package com.alpha53.virtualteacher.utilities.mappers;
+
+import com.alpha53.virtualteacher.models.OutboxEmail;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+public class OutboxEmailMapper implements RowMapper<OutboxEmail> {
+
+    @Override
+    public OutboxEmail mapRow(ResultSet rs, int rowNum) throws SQLException {
+        OutboxEmail email = new OutboxEmail();
+        email.setId(rs.getLong("id"));
+        email.setRecipient(rs.getString("recipient"));
+        email.setSubject(rs.getString("subject"));
+        email.setBody(rs.getString("body"));
+        email.setAttachment(rs.getBytes("attachment"));
+        email.setAttachmentName(rs.getString("attachment_name"));
+        email.setStatus(rs.getString("status"));
+        email.setAttempts(rs.getInt("attempts"));
+        email.setNextAttemptAt(rs.getObject("next_attempt_at", LocalDateTime.class));
+        email.setLastError(rs.getString("last_error"));
+        email.setClaimToken(rs.getString("claim_token"));
+        return email;
+    }
+}
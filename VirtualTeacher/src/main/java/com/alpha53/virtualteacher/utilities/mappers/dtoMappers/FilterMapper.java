@@ -15,6 +15,9 @@ public class FilterMapper {
         filterOption.setSortBy(Optional.ofNullable(filterOptionDto.getSortBy()));
         filterOption.setIsPublic(Optional.ofNullable(filterOptionDto.getIsPublic()));
         filterOption.setSortOrder(Optional.ofNullable(filterOptionDto.getSortOrder()));
+        filterOption.setPageSize(Optional.ofNullable(filterOptionDto.getPageSize()));
+        filterOption.setCursor(Optional.ofNullable(filterOptionDto.getCursor()));
+        filterOption.setSearch(Optional.ofNullable(filterOptionDto.getSearch()));
         return filterOption;
     }
 }
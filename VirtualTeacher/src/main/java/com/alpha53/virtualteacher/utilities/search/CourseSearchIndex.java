@@ -0,0 +1,163 @@
+package com.alpha53.virtualteacher.utilities.search;
+
+import com.alpha53.virtualteacher.models.Course;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over course title, description, topic and creator name.
+ * Query tokens are matched as prefixes of indexed terms and every token must match (AND semantics).
+ * Results are ranked by field weight, idf of the matched term and how much of the term the token covers.
+ * Reads are lock-free, writes are serialized.
+ */
+@Component
+public class CourseSearchIndex {
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float TOPIC_WEIGHT = 2.0f;
+    private static final float CREATOR_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ConcurrentSkipListMap<String, Map<Integer, Float>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Map<String, Float>> documents = new ConcurrentHashMap<>();
+
+    /**
+     * Replace the whole index content with the given courses.
+     *
+     * @param courses - all courses of the platform
+     */
+    public synchronized void rebuild(Collection<Course> courses) {
+        postings.clear();
+        documents.clear();
+        for (Course course : courses) {
+            index(course);
+        }
+    }
+
+    /**
+     * Add the course to the index or replace its previous version.
+     *
+     * @param course - course with title, description, topic and creator populated
+     */
+    public synchronized void index(Course course) {
+        if (course.getCourseId() == null) {
+            return;
+        }
+        remove(course.getCourseId());
+
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, course.getTitle(), TITLE_WEIGHT);
+        if (course.getTopic() != null) {
+            addField(terms, course.getTopic().getTopic(), TOPIC_WEIGHT);
+        }
+        if (course.getCreator() != null) {
+            addField(terms, course.getCreator().getFirstName(), CREATOR_WEIGHT);
+            addField(terms, course.getCreator().getLastName(), CREATOR_WEIGHT);
+        }
+        if (course.getDescription() != null) {
+            addField(terms, course.getDescription().getDescription(), DESCRIPTION_WEIGHT);
+        }
+
+        int courseId = course.getCourseId();
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), key -> new ConcurrentHashMap<>()).put(courseId, term.getValue());
+        }
+        documents.put(courseId, terms);
+    }
+
+    public synchronized void remove(int courseId) {
+        Map<String, Float> terms = documents.remove(courseId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<Integer, Float> courses = postings.get(term);
+            if (courses != null) {
+                courses.remove(courseId);
+                if (courses.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Search the index.
+     *
+     * @param query - free text, every token is matched as a prefix
+     * @return IDs of the matching courses, most relevant first. Empty if nothing matches or the query has no tokens.
+     */
+    public List<Integer> search(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int documentCount = Math.max(documents.size(), 1);
+
+        Map<Integer, Float> scores = null;
+        for (String token : new LinkedHashSet<>(tokens)) {
+            Map<Integer, Float> tokenScores = new HashMap<>();
+            ConcurrentNavigableMap<String, Map<Integer, Float>> matches =
+                    postings.subMap(token, true, token + Character.MAX_VALUE, false);
+            for (Map.Entry<String, Map<Integer, Float>> match : matches.entrySet()) {
+                Map<Integer, Float> courses = match.getValue();
+                float idf = (float) Math.log(1 + (double) documentCount / (courses.size() + 1));
+                float coverage = (float) token.length() / match.getKey().length();
+                for (Map.Entry<Integer, Float> posting : courses.entrySet()) {
+                    tokenScores.merge(posting.getKey(), posting.getValue() * idf * coverage, Math::max);
+                }
+            }
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                for (Map.Entry<Integer, Float> score : scores.entrySet()) {
+                    score.setValue(score.getValue() + tokenScores.get(score.getKey()));
+                }
+            }
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<Map.Entry<Integer, Float>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Integer, Float>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        List<Integer> result = new ArrayList<>(ranked.size());
+        for (Map.Entry<Integer, Float> entry : ranked) {
+            result.add(entry.getKey());
+        }
+        return result;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static void addField(Map<String, Float> terms, String text, float weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.alpha53.virtualteacher.utilities.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+/**
+ * In-memory copy of the course_user table for membership checks.
+ * Per user it keeps the IDs of the ongoing and the completed courses, per course the IDs of all enrolled students,
+ * each in a primitive int hash set, so a check is a constant time lookup without boxing.
+ * Until the first {@link #replace(Builder)} the index is not loaded and callers have to ask the database.
+ * IDs must be positive, which auto-increment keys are.
+ */
+@Component
+public class EnrollmentIndex {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Integer, IntSet> ongoingByUser = new HashMap<>();
+    private Map<Integer, IntSet> completedByUser = new HashMap<>();
+    private Map<Integer, IntSet> studentsByCourse = new HashMap<>();
+    private volatile boolean loaded;
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean isOngoing(int userId, int courseId) {
+        return contains(ongoingByUser, userId, courseId);
+    }
+
+    public boolean isCompleted(int userId, int courseId) {
+        return contains(completedByUser, userId, courseId);
+    }
+
+    public boolean hasStudents(int courseId) {
+        lock.readLock().lock();
+        try {
+            IntSet students = studentsByCourse.get(courseId);
+            return students != null && students.size() > 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void enroll(int userId, int courseId) {
+        lock.writeLock().lock();
+        try {
+            add(ongoingByUser, userId, courseId);
+            add(studentsByCourse, courseId, userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void complete(int userId, int courseId) {
+        lock.writeLock().lock();
+        try {
+            if (remove(ongoingByUser, userId, courseId)) {
+                add(completedByUser, userId, courseId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int userId, int courseId) {
+        lock.writeLock().lock();
+        try {
+            remove(ongoingByUser, userId, courseId);
+            remove(completedByUser, userId, courseId);
+            remove(studentsByCourse, courseId, userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeUser(int userId) {
+        lock.writeLock().lock();
+        try {
+            IntSet ongoing = ongoingByUser.remove(userId);
+            IntSet completed = completedByUser.remove(userId);
+            for (IntSet courses : new IntSet[]{ongoing, completed}) {
+                if (courses != null) {
+                    courses.forEach(courseId -> remove(studentsByCourse, courseId, userId));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Replace the whole index content with the enrollments collected by the builder.
+     */
+    public void replace(Builder builder) {
+        lock.writeLock().lock();
+        try {
+            ongoingByUser = builder.ongoingByUser;
+            completedByUser = builder.completedByUser;
+            studentsByCourse = builder.studentsByCourse;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean contains(Map<Integer, IntSet> sets, int key, int value) {
+        lock.readLock().lock();
+        try {
+            IntSet set = sets.get(key);
+            return set != null && set.contains(value);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void add(Map<Integer, IntSet> sets, int key, int value) {
+        sets.computeIfAbsent(key, k -> new IntSet()).add(value);
+    }
+
+    private static boolean remove(Map<Integer, IntSet> sets, int key, int value) {
+        IntSet set = sets.get(key);
+        if (set == null || !set.remove(value)) {
+            return false;
+        }
+        if (set.size() == 0) {
+            sets.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * Collects the enrollments of a full reload without blocking the index.
+     */
+    public static class Builder {
+        private final Map<Integer, IntSet> ongoingByUser = new HashMap<>();
+        private final Map<Integer, IntSet> completedByUser = new HashMap<>();
+        private final Map<Integer, IntSet> studentsByCourse = new HashMap<>();
+
+        public void add(int userId, int courseId, boolean ongoing) {
+            EnrollmentIndex.add(ongoing ? ongoingByUser : completedByUser, userId, courseId);
+            EnrollmentIndex.add(studentsByCourse, courseId, userId);
+        }
+    }
+
+    /**
+     * Open addressing hash set of positive ints with linear probing; 0 marks a free slot.
+     */
+    static class IntSet {
+        private static final int MIN_CAPACITY = 4;
+
+        private int[] slots = new int[MIN_CAPACITY];
+        private int size;
+
+        boolean contains(int value) {
+            int mask = slots.length - 1;
+            for (int i = mix(value) & mask; slots[i] != 0; i = (i + 1) & mask) {
+                if (slots[i] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean add(int value) {
+            if (value <= 0) {
+                throw new IllegalArgumentException("Only positive values can be stored: " + value);
+            }
+            if ((size + 1) * 4 > slots.length * 3) {
+                resize(slots.length * 2);
+            }
+            int mask = slots.length - 1;
+            int i = mix(value) & mask;
+            for (; slots[i] != 0; i = (i + 1) & mask) {
+                if (slots[i] == value) {
+                    return false;
+                }
+            }
+            slots[i] = value;
+            size++;
+            return true;
+        }
+
+        boolean remove(int value) {
+            int mask = slots.length - 1;
+            int i = mix(value) & mask;
+            for (; slots[i] != value; i = (i + 1) & mask) {
+                if (slots[i] == 0) {
+                    return false;
+                }
+            }
+            // Shift the following entries of the probe sequence back, so no lookup stops at the freed slot.
+            int free = i;
+            for (int j = (free + 1) & mask; slots[j] != 0; j = (j + 1) & mask) {
+                int home = mix(slots[j]) & mask;
+                if (((j - home) & mask) >= ((j - free) & mask)) {
+                    slots[free] = slots[j];
+                    free = j;
+                }
+            }
+            slots[free] = 0;
+            size--;
+            return true;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void forEach(IntConsumer action) {
+            for (int value : slots) {
+                if (value != 0) {
+                    action.accept(value);
+                }
+            }
+        }
+
+        private void resize(int capacity) {
+            int[] old = slots;
+            slots = new int[capacity];
+            size = 0;
+            for (int value : old) {
+                if (value != 0) {
+                    add(value);
+                }
+            }
+        }
+
+        private static int mix(int value) {
+            int h = value * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
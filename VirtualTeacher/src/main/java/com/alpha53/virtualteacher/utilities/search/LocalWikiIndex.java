@@ -0,0 +1,221 @@
+package com.alpha53.virtualteacher.utilities.search;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static com.alpha53.virtualteacher.utilities.search.LocalWikiIndexWriter.*;
+
+/**
+ * Read side of the index built by {@link LocalWikiIndexWriter}.
+ * The term dictionary is loaded into memory, the postings and the articles are memory-mapped,
+ * so a query reads only the postings of its terms and the articles it returns.
+ * Articles are ranked with BM25. The index is immutable and can be queried from many threads.
+ */
+public class LocalWikiIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // Terms found in more than this share of the articles act as stopwords: they have the longest postings
+    // and barely change the ranking
+    private static final double MAX_TERM_SHARE = 0.25;
+    // Postings read by one query at most
+    private static final long MAX_POSTINGS_PER_QUERY = 2_000_000;
+
+    private final Map<String, Term> terms;
+    private final MappedFile postings;
+    private final MappedFile articles;
+    private final MappedFile offsets;
+    private final int articleCount;
+    private final double averageLength;
+
+    private LocalWikiIndex(Map<String, Term> terms, MappedFile postings, MappedFile articles, MappedFile offsets,
+                           int articleCount, double averageLength) {
+        this.terms = terms;
+        this.postings = postings;
+        this.articles = articles;
+        this.offsets = offsets;
+        this.articleCount = articleCount;
+        this.averageLength = averageLength;
+    }
+
+    /**
+     * @return true if the directory holds a completely written index
+     */
+    public static boolean exists(Path directory) {
+        return Files.isRegularFile(directory.resolve(META_FILE));
+    }
+
+    public static LocalWikiIndex open(Path directory) throws IOException {
+        Properties meta = new Properties();
+        try (Reader reader = Files.newBufferedReader(directory.resolve(META_FILE))) {
+            meta.load(reader);
+        }
+
+        Map<String, Term> terms;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(directory.resolve(TERMS_FILE)))) {
+            int count = in.readInt();
+            terms = new HashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                terms.put(in.readUTF(), new Term(in.readLong(), in.readInt()));
+            }
+        }
+
+        return new LocalWikiIndex(terms,
+                MappedFile.map(directory.resolve(POSTINGS_FILE)),
+                MappedFile.map(directory.resolve(ARTICLES_FILE)),
+                MappedFile.map(directory.resolve(OFFSETS_FILE)),
+                Integer.parseInt(meta.getProperty("articles")),
+                Double.parseDouble(meta.getProperty("averageLength")));
+    }
+
+    /**
+     * Terms are read from the rarest. Stopwords are skipped unless the query has no other term,
+     * and the postings of the last term are cut once the query has read MAX_POSTINGS_PER_QUERY of them.
+     *
+     * @return the best matching articles, best first. Every query term is optional.
+     */
+    public List<Article> search(String query, int limit) {
+        List<Term> queryTerms = new ArrayList<>();
+        for (String token : new LinkedHashSet<>(CourseSearchIndex.tokenize(query))) {
+            Term term = terms.get(token);
+            if (term != null) {
+                queryTerms.add(term);
+            }
+        }
+        queryTerms.sort(Comparator.comparingInt(Term::frequency));
+
+        Map<Integer, Float> scores = new HashMap<>();
+        long budget = MAX_POSTINGS_PER_QUERY;
+        for (int t = 0; t < queryTerms.size() && budget > 0; t++) {
+            Term term = queryTerms.get(t);
+            if (t > 0 && term.frequency > articleCount * MAX_TERM_SHARE) {
+                break;
+            }
+            double idf = Math.log(1 + (articleCount - term.frequency + 0.5) / (term.frequency + 0.5));
+            int count = (int) Math.min(term.frequency, budget);
+            budget -= count;
+            long position = term.offset;
+            for (int i = 0; i < count; i++, position += 2L * Integer.BYTES) {
+                int article = postings.getInt(position);
+                int frequency = postings.getInt(position + Integer.BYTES);
+                int length = offsets.getInt((long) article * OFFSET_ENTRY_SIZE + Long.BYTES);
+                double norm = K1 * (1 - B + B * length / Math.max(averageLength, 1));
+                scores.merge(article, (float) (idf * frequency * (K1 + 1) / (frequency + norm)), Float::sum);
+            }
+        }
+
+        PriorityQueue<Map.Entry<Integer, Float>> best = new PriorityQueue<>(
+                Map.Entry.<Integer, Float>comparingByValue().thenComparing(Map.Entry.<Integer, Float>comparingByKey().reversed()));
+        for (Map.Entry<Integer, Float> score : scores.entrySet()) {
+            best.offer(score);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Article> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            Map.Entry<Integer, Float> entry = best.poll();
+            result.add(readArticle(entry.getKey(), entry.getValue()));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    public int size() {
+        return articleCount;
+    }
+
+    public int termCount() {
+        return terms.size();
+    }
+
+    private Article readArticle(int article, float score) {
+        long position = offsets.getLong((long) article * OFFSET_ENTRY_SIZE);
+        int pageId = articles.getInt(position);
+        byte[] title = new byte[articles.getInt(position + Integer.BYTES)];
+        articles.read(position + 2L * Integer.BYTES, title);
+        position += 2L * Integer.BYTES + title.length;
+        byte[] content = new byte[articles.getInt(position)];
+        articles.read(position + Integer.BYTES, content);
+        return new Article(pageId, new String(title, StandardCharsets.UTF_8), new String(content, StandardCharsets.UTF_8), score);
+    }
+
+    public record Article(int pageId, String title, String content, float score) {
+    }
+
+    private record Term(long offset, int frequency) {
+    }
+
+    /**
+     * Read-only mapping of a file of any size, split into segments because a single mapping is limited to 2 GB.
+     * Only absolute reads are used, so the buffers can be shared between threads.
+     */
+    private static class MappedFile {
+        private static final int SEGMENT_BITS = 30;
+        private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+        private final MappedByteBuffer[] segments;
+
+        private MappedFile(MappedByteBuffer[] segments) {
+            this.segments = segments;
+        }
+
+        private static MappedFile map(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+                for (int i = 0; i < segments.length; i++) {
+                    long start = i * SEGMENT_SIZE;
+                    segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+                }
+                return new MappedFile(segments);
+            }
+        }
+
+        private void read(long position, byte[] destination) {
+            int copied = 0;
+            while (copied < destination.length) {
+                int segment = (int) (position >>> SEGMENT_BITS);
+                if (segment >= segments.length) {
+                    throw new BufferUnderflowException();
+                }
+                int offset = (int) (position & (SEGMENT_SIZE - 1));
+                int length = Math.min(destination.length - copied, segments[segment].limit() - offset);
+                segments[segment].get(offset, destination, copied, length);
+                copied += length;
+                position += length;
+            }
+        }
+
+        private int getInt(long position) {
+            int segment = (int) (position >>> SEGMENT_BITS);
+            int offset = (int) (position & (SEGMENT_SIZE - 1));
+            if (segment < segments.length && offset + Integer.BYTES <= segments[segment].limit()) {
+                return segments[segment].getInt(offset);
+            }
+            byte[] bytes = new byte[Integer.BYTES];
+            read(position, bytes);
+            return ByteBuffer.wrap(bytes).getInt();
+        }
+
+        private long getLong(long position) {
+            int segment = (int) (position >>> SEGMENT_BITS);
+            int offset = (int) (position & (SEGMENT_SIZE - 1));
+            if (segment < segments.length && offset + Long.BYTES <= segments[segment].limit()) {
+                return segments[segment].getLong(offset);
+            }
+            byte[] bytes = new byte[Long.BYTES];
+            read(position, bytes);
+            return ByteBuffer.wrap(bytes).getLong();
+        }
+    }
+}
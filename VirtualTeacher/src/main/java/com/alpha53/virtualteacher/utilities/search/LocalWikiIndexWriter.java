@@ -0,0 +1,239 @@
+package com.alpha53.virtualteacher.utilities.search;
+
+import com.alpha53.virtualteacher.utilities.helpers.WikiContentCleaner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Builds a {@link LocalWikiIndex} from a MediaWiki XML dump, plain or gzipped.
+ * The dump is streamed page by page. Only articles of the main namespace which are not redirects are kept.
+ * Their cleaned text goes straight to the article file and only the postings are held in memory until the end,
+ * so the writer is meant for a subset of Wikipedia rather than the full dump.
+ * The index is written to a temporary directory which replaces the target directory once it is complete.
+ */
+public class LocalWikiIndexWriter {
+    private final static Logger LOGGER = LoggerFactory.getLogger(LocalWikiIndexWriter.class);
+    static final String ARTICLES_FILE = "articles.dat";
+    static final String OFFSETS_FILE = "articles.idx";
+    static final String POSTINGS_FILE = "postings.dat";
+    static final String TERMS_FILE = "terms.dat";
+    static final String META_FILE = "index.properties";
+    // Every article has an offset in the article file and a length in tokens.
+    static final int OFFSET_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+    private static final int TITLE_TERM_FREQUENCY = 3;
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final WikiContentCleaner cleaner;
+
+    public LocalWikiIndexWriter(WikiContentCleaner cleaner) {
+        this.cleaner = cleaner;
+    }
+
+    public IngestStats ingest(Path dump, Path indexDirectory) throws IOException {
+        long start = System.nanoTime();
+        Path temporaryDirectory = indexDirectory.resolveSibling(indexDirectory.getFileName() + ".tmp");
+        deleteRecursively(temporaryDirectory);
+        Files.createDirectories(temporaryDirectory);
+
+        Map<String, PostingList> postings = new HashMap<>();
+        int articles = 0;
+        long totalLength = 0;
+        try (InputStream in = openDump(dump);
+             DataOutputStream articleOut = openData(temporaryDirectory.resolve(ARTICLES_FILE));
+             DataOutputStream offsetOut = openData(temporaryDirectory.resolve(OFFSETS_FILE))) {
+            XMLStreamReader reader = createReader(in);
+            try {
+                long articleOffset = 0;
+                String title = null;
+                String text = null;
+                int pageId = -1;
+                int namespace = 0;
+                boolean redirect = false;
+                boolean inRevision = false;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        switch (reader.getLocalName()) {
+                            case "page" -> {
+                                title = null;
+                                text = null;
+                                pageId = -1;
+                                namespace = 0;
+                                redirect = false;
+                            }
+                            case "title" -> title = reader.getElementText();
+                            case "ns" -> namespace = Integer.parseInt(reader.getElementText().trim());
+                            case "id" -> {
+                                String id = reader.getElementText().trim();
+                                if (!inRevision && pageId < 0) {
+                                    pageId = Integer.parseInt(id);
+                                }
+                            }
+                            case "redirect" -> redirect = true;
+                            case "revision" -> inRevision = true;
+                            case "text" -> text = reader.getElementText();
+                            default -> {
+                            }
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        if (reader.getLocalName().equals("revision")) {
+                            inRevision = false;
+                        } else if (reader.getLocalName().equals("page") && namespace == 0 && !redirect && title != null && text != null) {
+                            String content = cleaner.clean(text);
+                            int length = addPostings(postings, articles, title, content);
+                            byte[] titleBytes = title.getBytes(StandardCharsets.UTF_8);
+                            byte[] contentBytes = content.getBytes(StandardCharsets.UTF_8);
+                            articleOut.writeInt(pageId);
+                            articleOut.writeInt(titleBytes.length);
+                            articleOut.write(titleBytes);
+                            articleOut.writeInt(contentBytes.length);
+                            articleOut.write(contentBytes);
+                            offsetOut.writeLong(articleOffset);
+                            offsetOut.writeInt(length);
+                            articleOffset += 3L * Integer.BYTES + titleBytes.length + contentBytes.length;
+                            totalLength += length;
+                            articles++;
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("Invalid wiki dump " + dump, e);
+        }
+
+        writePostings(temporaryDirectory, postings);
+        Properties meta = new Properties();
+        meta.setProperty("articles", String.valueOf(articles));
+        meta.setProperty("terms", String.valueOf(postings.size()));
+        meta.setProperty("averageLength", String.valueOf(articles == 0 ? 0 : (double) totalLength / articles));
+        try (Writer writer = Files.newBufferedWriter(temporaryDirectory.resolve(META_FILE))) {
+            meta.store(writer, "Local wiki index of " + dump.getFileName());
+        }
+
+        deleteRecursively(indexDirectory);
+        Files.move(temporaryDirectory, indexDirectory);
+
+        IngestStats stats = new IngestStats(articles, postings.size(), Files.size(dump), Duration.ofNanos(System.nanoTime() - start));
+        LOGGER.info("Ingested {} articles and {} terms from {} in {} ms ({} articles/s, {} MB/s)",
+                stats.articles(), stats.terms(), dump, stats.duration().toMillis(),
+                String.format("%.1f", stats.articlesPerSecond()), String.format("%.2f", stats.megabytesPerSecond()));
+        return stats;
+    }
+
+    /**
+     * @return length of the article in tokens
+     */
+    private static int addPostings(Map<String, PostingList> postings, int article, String title, String content) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : CourseSearchIndex.tokenize(title)) {
+            frequencies.merge(token, TITLE_TERM_FREQUENCY, Integer::sum);
+        }
+        int length = 0;
+        for (String token : CourseSearchIndex.tokenize(content)) {
+            frequencies.merge(token, 1, Integer::sum);
+            length++;
+        }
+        for (Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+            if (frequency.getKey().length() > MAX_TERM_LENGTH) {
+                continue;
+            }
+            postings.computeIfAbsent(frequency.getKey(), term -> new PostingList()).add(article, frequency.getValue());
+        }
+        return length;
+    }
+
+    /**
+     * Postings are written term by term in term order, every posting as the article number and the term frequency.
+     * The term file maps every term to the position and the number of its postings.
+     */
+    private static void writePostings(Path directory, Map<String, PostingList> postings) throws IOException {
+        List<String> terms = new ArrayList<>(postings.keySet());
+        Collections.sort(terms);
+        try (DataOutputStream postingOut = openData(directory.resolve(POSTINGS_FILE));
+             DataOutputStream termOut = openData(directory.resolve(TERMS_FILE))) {
+            termOut.writeInt(terms.size());
+            long offset = 0;
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                termOut.writeUTF(term);
+                termOut.writeLong(offset);
+                termOut.writeInt(list.size / 2);
+                for (int i = 0; i < list.size; i++) {
+                    postingOut.writeInt(list.data[i]);
+                }
+                offset += (long) list.size * Integer.BYTES;
+            }
+        }
+    }
+
+    private static XMLStreamReader createReader(InputStream in) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory.createXMLStreamReader(in, StandardCharsets.UTF_8.name());
+    }
+
+    private static InputStream openDump(Path dump) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(dump), BUFFER_SIZE);
+        return dump.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+    }
+
+    private static DataOutputStream openData(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    public record IngestStats(int articles, int terms, long bytes, Duration duration) {
+        public double articlesPerSecond() {
+            return articles / seconds();
+        }
+
+        public double megabytesPerSecond() {
+            return bytes / (1024.0 * 1024.0) / seconds();
+        }
+
+        private double seconds() {
+            return Math.max(duration.toMillis(), 1) / 1000.0;
+        }
+    }
+
+    private static class PostingList {
+        private int[] data = new int[4];
+        private int size;
+
+        private void add(int article, int frequency) {
+            if (size + 2 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size++] = article;
+            data[size++] = frequency;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package db.migration;
+
+import com.alpha53.virtualteacher.utilities.helpers.PasswordHasher;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Replaces the plaintext passwords of existing users with salted hashes.
+ * Written in Java because the hash cannot be computed in SQL.
+ */
+public class V10__hash_user_passwords extends BaseJavaMigration {
+    private static final int BATCH_SIZE = 100;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        PasswordHasher passwordHasher = new PasswordHasher(PasswordHasher.DEFAULT_ITERATIONS);
+        Connection connection = context.getConnection();
+        try (Statement select = connection.createStatement();
+             ResultSet users = select.executeQuery("SELECT id, password FROM users");
+             PreparedStatement update = connection.prepareStatement("UPDATE users SET password = ? WHERE id = ?")) {
+            int pending = 0;
+            while (users.next()) {
+                String password = users.getString("password");
+                if (PasswordHasher.isHashed(password)) {
+                    continue;
+                }
+                update.setString(1, passwordHasher.hash(password));
+                update.setInt(2, users.getInt("id"));
+                update.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    update.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                update.executeBatch();
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+use virtual_teacher;
+
+-- Keep one row per enrollment before the key is added, a completed enrollment wins over an ongoing duplicate
+create table course_user_deduplicated as
+select course_id, user_id, min(ongoing) as ongoing
+from course_user
+group by course_id, user_id;
+
+delete from course_user;
+
+insert into course_user (course_id, user_id, ongoing)
+select course_id, user_id, ongoing
+from course_user_deduplicated;
+
+drop table course_user_deduplicated;
+
+alter table course_user
+    add constraint course_user_pk
+        unique (course_id, user_id);
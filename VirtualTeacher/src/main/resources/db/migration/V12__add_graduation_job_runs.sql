@@ -0,0 +1,12 @@
+use virtual_teacher;
+
+create table graduation_job_runs
+(
+    run_date    date     not null
+        primary key,
+    started_at  datetime not null,
+    finished_at datetime null
+);
+
+create index graduation_job_runs_finished_at_index
+    on graduation_job_runs (finished_at, run_date);
@@ -0,0 +1,21 @@
+use virtual_teacher;
+
+-- Unrated courses keep a null avg_rating but sort as 0, so the sort column never needs a COALESCE
+alter table course_rating_summary
+    add sort_rating decimal(14, 4) not null default 0;
+
+update course_rating_summary
+set sort_rating = avg_rating
+where avg_rating is not null;
+
+/*======================== ONE SUMMARY ROW PER COURSE ===============================*/
+insert into course_rating_summary (course_id, rating_count, rating_sum, avg_rating, sort_rating)
+select courses.id, 0, 0, null, 0
+from courses
+         left join course_rating_summary on courses.id = course_rating_summary.course_id
+where course_rating_summary.course_id is null;
+
+drop index course_rating_summary_avg_rating_index on course_rating_summary;
+
+create index course_rating_summary_sort_rating_index
+    on course_rating_summary (sort_rating, course_id);
@@ -0,0 +1,7 @@
+use virtual_teacher;
+
+CREATE INDEX courses_title_id_index
+    ON courses (title, id);
+
+CREATE INDEX courses_is_published_title_id_index
+    ON courses (is_published, title, id);
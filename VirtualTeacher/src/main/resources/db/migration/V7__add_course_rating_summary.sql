@@ -0,0 +1,39 @@
+use virtual_teacher;
+
+create table course_rating_summary
+(
+    course_id    int            not null
+        primary key,
+    rating_count int            not null,
+    rating_sum   decimal(12, 0) not null,
+    avg_rating   decimal(14, 4) null,
+    constraint course_rating_summary_courses_id_fk
+        foreign key (course_id) references courses (id)
+            on delete cascade
+);
+
+create index course_rating_summary_avg_rating_index
+    on course_rating_summary (avg_rating, course_id);
+
+create table course_rating_histogram
+(
+    course_id    int     not null,
+    rating       decimal not null,
+    rating_count int     not null,
+    constraint course_rating_histogram_pk
+        primary key (course_id, rating),
+    constraint course_rating_histogram_courses_id_fk
+        foreign key (course_id) references courses (id)
+            on delete cascade
+);
+
+/*======================== BACKFILL FROM EXISTING RATINGS ===============================*/
+INSERT INTO course_rating_summary (course_id, rating_count, rating_sum, avg_rating)
+SELECT course_id, COUNT(*), SUM(rating), AVG(rating)
+FROM ratings
+GROUP BY course_id;
+
+INSERT INTO course_rating_histogram (course_id, rating, rating_count)
+SELECT course_id, rating, COUNT(*)
+FROM ratings
+GROUP BY course_id, rating;
@@ -0,0 +1,13 @@
+use virtual_teacher;
+
+create table graduation_job_checkpoints
+(
+    run_date     date     not null,
+    chunk        int      not null,
+    graduates    int      not null,
+    completed_at datetime not null,
+    primary key (run_date, chunk)
+);
+
+create index course_user_ongoing_course_index
+    on course_user (ongoing, course_id);
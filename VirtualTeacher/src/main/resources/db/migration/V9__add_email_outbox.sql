@@ -0,0 +1,26 @@
+use virtual_teacher;
+
+create table email_outbox
+(
+    id              bigint auto_increment
+        primary key,
+    recipient       varchar(255)                  not null,
+    subject         varchar(255)                  not null,
+    body            mediumtext                    not null,
+    attachment      mediumblob                    null,
+    attachment_name varchar(255)                  null,
+    status          varchar(16) default 'PENDING' not null,
+    attempts        int         default 0         not null,
+    next_attempt_at datetime                      not null,
+    claim_token     varchar(36)                   null,
+    locked_until    datetime                      null,
+    last_error      varchar(1024)                 null,
+    created_at      datetime                      not null,
+    sent_at         datetime                      null
+);
+
+create index email_outbox_status_next_attempt_index
+    on email_outbox (status, next_attempt_at);
+
+create index email_outbox_claim_token_index
+    on email_outbox (claim_token);
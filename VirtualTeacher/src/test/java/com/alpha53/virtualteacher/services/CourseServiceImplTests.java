@@ -3,14 +3,16 @@ package com.alpha53.virtualteacher.services;
 import com.alpha53.virtualteacher.exceptions.AuthorizationException;
 import com.alpha53.virtualteacher.exceptions.EntityDuplicateException;
 import com.alpha53.virtualteacher.exceptions.EntityNotFoundException;
+import com.alpha53.virtualteacher.exceptions.InvalidCursorException;
 import com.alpha53.virtualteacher.models.*;
 import com.alpha53.virtualteacher.repositories.contracts.CourseDao;
-import com.alpha53.virtualteacher.repositories.contracts.LectureDao;
 import com.alpha53.virtualteacher.repositories.contracts.SolutionDao;
 import com.alpha53.virtualteacher.repositories.contracts.UserDao;
 import com.alpha53.virtualteacher.services.contracts.ConfirmationTokenService;
 import com.alpha53.virtualteacher.services.contracts.EmailService;
 import com.alpha53.virtualteacher.services.contracts.StorageService;
+import com.alpha53.virtualteacher.utilities.helpers.CourseCursor;
+import com.alpha53.virtualteacher.utilities.search.CourseSearchIndex;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -36,9 +38,6 @@ public class CourseServiceImplTests {
 
     @Mock
     CourseDao courseDao;
-    @Mock
-    LectureDao lectureDao;
-
     @Mock
     ConfirmationTokenService confirmationTokenService;
 
@@ -48,6 +47,9 @@ public class CourseServiceImplTests {
     @Mock
     StorageService storageService;
 
+    @Mock
+    CourseSearchIndex courseSearchIndex;
+
     @Mock
     SolutionDao solutionDao;
 
@@ -126,7 +128,6 @@ public class CourseServiceImplTests {
     public void update_Should_ThrowWhenCourse_WithSameTitleExists() {
         User mockUser = Helpers.createMockTeacher();
         Course mockCourse = Helpers.createMockCourse();
-        Course mockCourse2 = Helpers.createMockCourse();
         mockCourse2.setCourseId(23);
 
         mockUser.setRole(Helpers.createMockTeacherRole());
@@ -204,7 +205,7 @@ public class CourseServiceImplTests {
 
 
         Mockito.when(courseDao.get(Mockito.anyInt())).thenReturn(mockCourse);
-        Mockito.when(courseDao.getStudentsWhichAreEnrolledForCourse(Mockito.anyInt())).thenReturn(Arrays.asList(mockUser, mockUser, mockUser));
+        Mockito.when(courseDao.hasEnrollments(Mockito.anyInt())).thenReturn(Boolean.TRUE);
 
         Assertions.assertThrows(AuthorizationException.class, () -> courseService.delete(mockCourse.getCourseId(), mockUser));
     }
@@ -214,7 +215,7 @@ public class CourseServiceImplTests {
     public void getCourseById_Should_CallDaoWhenValidInput() {
         Course mockCourse = Helpers.createMockCourse();
         mockCourse.setPublished(true);
-        Mockito.when(courseDao.get(Mockito.anyInt())).thenReturn(mockCourse);
+        Mockito.when(courseDao.getWithLectures(Mockito.anyInt())).thenReturn(mockCourse);
         courseService.getCourseById(mockCourse.getCourseId());
 
         Mockito.verify(courseDao, Mockito.times(1)).get(mockCourse.getCourseId());
@@ -223,7 +224,7 @@ public class CourseServiceImplTests {
     public void getCourseById_Should_ThrowWhen_CourseIsPrivate() {
         Course mockCourse = Helpers.createMockCourse();
         mockCourse.setPublished(false);
-        Mockito.when(courseDao.get(Mockito.anyInt())).thenReturn(mockCourse);
+        Mockito.when(courseDao.getWithLectures(Mockito.anyInt())).thenReturn(mockCourse);
         Assertions.assertThrows(AuthorizationException.class, () -> courseService.getCourseById(mockCourse.getCourseId()));
     }
 
@@ -233,7 +234,7 @@ public class CourseServiceImplTests {
         Course mockCourse = Helpers.createMockCourse();
         User mockUser =  Helpers.createMockTeacher();
         mockCourse.setPublished(true);
-        Mockito.when(courseDao.get(Mockito.anyInt())).thenReturn(mockCourse);
+        Mockito.when(courseDao.getWithLectures(Mockito.anyInt())).thenReturn(mockCourse);
         courseService.getCourseByIdAuth(mockCourse.getCourseId(), mockUser);
 
         Mockito.verify(courseDao, Mockito.times(1)).get(mockCourse.getCourseId());
@@ -243,7 +244,7 @@ public class CourseServiceImplTests {
         Course mockCourse = Helpers.createMockCourse();
         User mockUser =  Helpers.createMockStudent();
         mockCourse.setPublished(false);
-        Mockito.when(courseDao.get(Mockito.anyInt())).thenReturn(mockCourse);
+        Mockito.when(courseDao.getWithLectures(Mockito.anyInt())).thenReturn(mockCourse);
         Assertions.assertThrows(AuthorizationException.class, () -> courseService.getCourseByIdAuth(mockCourse.getCourseId(), mockUser));
     }
 
@@ -272,6 +273,142 @@ public class CourseServiceImplTests {
 
 
 
+    @Test
+    public void getPage_Should_CallDaoWhenValidInput() {
+        Course mockCourse = Helpers.createMockCourse();
+        Optional<User> mockUser = Optional.of(Helpers.createMockTeacher());
+        FilterOptions filterOptions = new FilterOptions();
+        Mockito.when(courseDao.getPage(filterOptions)).thenReturn(new CoursePage(List.of(mockCourse), 1, "next"));
+
+        CoursePage result = courseService.getPage(filterOptions, mockUser);
+
+        Assertions.assertEquals("next", result.getNextCursor());
+        Mockito.verify(courseDao, Mockito.times(1)).getPage(filterOptions);
+    }
+
+    @Test
+    public void getPage_Should_RestrictToPublicCourses_When_UserIsAnonymous() {
+        FilterOptions filterOptions = new FilterOptions();
+        Mockito.when(courseDao.getPage(filterOptions)).thenReturn(new CoursePage(new ArrayList<>(), 1, null));
+
+        courseService.getPage(filterOptions, Optional.empty());
+
+        Assertions.assertEquals(Optional.of(Boolean.TRUE), filterOptions.getIsPublic());
+    }
+
+    @Test
+    public void get_Should_OrderByRelevance_When_SearchIsPresent() {
+        Course firstCourse = Helpers.createMockCourse();
+        Course secondCourse = Helpers.createMockCourse();
+        secondCourse.setCourseId(2);
+        FilterOptions filterOptions = new FilterOptions();
+        filterOptions.setSearch(Optional.of("java"));
+        Mockito.when(courseSearchIndex.search("java")).thenReturn(List.of(2, firstCourse.getCourseId()));
+        Mockito.when(courseDao.getCourseIds(filterOptions)).thenReturn(List.of(firstCourse.getCourseId(), 2));
+        Mockito.when(courseDao.get(filterOptions)).thenReturn(new ArrayList<>(List.of(firstCourse, secondCourse)));
+
+        List<Course> result = courseService.get(filterOptions, Optional.of(Helpers.createMockTeacher()));
+
+        Assertions.assertEquals(Optional.of(List.of(2, firstCourse.getCourseId())), filterOptions.getCourseIds());
+        Assertions.assertEquals(2, result.get(0).getCourseId());
+    }
+
+    @Test
+    public void get_Should_ReturnBestMatchesOnly_When_SearchMatchesTooManyCourses() {
+        FilterOptions filterOptions = new FilterOptions();
+        filterOptions.setSearch(Optional.of("java"));
+        List<Integer> ranking = new ArrayList<>();
+        for (int i = 1; i <= CourseServiceImpl.MAX_SEARCH_RESULTS * 2; i++) {
+            ranking.add(i);
+        }
+        Mockito.when(courseSearchIndex.search("java")).thenReturn(ranking);
+        Mockito.when(courseDao.getCourseIds(filterOptions)).thenAnswer(invocation -> filterOptions.getCourseIds().get());
+        Mockito.when(courseDao.get(filterOptions)).thenReturn(new ArrayList<>());
+
+        courseService.get(filterOptions, Optional.of(Helpers.createMockTeacher()));
+
+        Assertions.assertEquals(ranking.subList(0, CourseServiceImpl.MAX_SEARCH_RESULTS), filterOptions.getCourseIds().get());
+        Mockito.verify(courseDao, Mockito.times(1)).getCourseIds(filterOptions);
+    }
+
+    @Test
+    public void getPage_Should_FilterRankingInChunks_When_FirstChunkHasNoMatch() {
+        Course mockCourse = Helpers.createMockCourse();
+        FilterOptions filterOptions = new FilterOptions(null, null, null, null, null, null, null, 1, null, "java");
+        List<Integer> ranking = new ArrayList<>();
+        for (int i = 2; i <= 1500; i++) {
+            ranking.add(i);
+        }
+        ranking.add(mockCourse.getCourseId());
+        Mockito.when(courseSearchIndex.search("java")).thenReturn(ranking);
+        // Only the last course of the ranking passes the other filters
+        Mockito.when(courseDao.getCourseIds(filterOptions)).thenAnswer(invocation ->
+                filterOptions.getCourseIds().get().contains(mockCourse.getCourseId()) ? List.of(mockCourse.getCourseId()) : List.of());
+        Mockito.when(courseDao.get(filterOptions)).thenReturn(new ArrayList<>(List.of(mockCourse)));
+
+        CoursePage result = courseService.getPage(filterOptions, Optional.empty());
+
+        Assertions.assertEquals(mockCourse.getCourseId(), result.getCourses().get(0).getCourseId());
+        Assertions.assertNull(result.getNextCursor());
+        Mockito.verify(courseDao, Mockito.times(2)).getCourseIds(filterOptions);
+    }
+
+    @Test
+    public void getPage_Should_NotCallDao_When_SearchHasNoMatches() {
+        FilterOptions filterOptions = new FilterOptions();
+        filterOptions.setSearch(Optional.of("missing"));
+        Mockito.when(courseSearchIndex.search("missing")).thenReturn(Collections.emptyList());
+
+        CoursePage result = courseService.getPage(filterOptions, Optional.empty());
+
+        Assertions.assertTrue(result.getCourses().isEmpty());
+        Mockito.verify(courseDao, Mockito.never()).getPage(filterOptions);
+    }
+
+    @Test
+    public void getPage_Should_PageFilteredMatchesByRelevance_When_SearchIsNotSorted() {
+        Course thirdCourse = Helpers.createMockCourse();
+        thirdCourse.setCourseId(3);
+        FilterOptions filterOptions = new FilterOptions(null, null, null, null, null, null, null, 1, null, "java");
+        Mockito.when(courseSearchIndex.search("java")).thenReturn(List.of(3, 2, 1));
+        // Course 2 does not pass the other filters
+        Mockito.when(courseDao.getCourseIds(filterOptions)).thenReturn(List.of(1, 3));
+        Mockito.when(courseDao.get(filterOptions)).thenReturn(new ArrayList<>(List.of(thirdCourse)));
+
+        CoursePage result = courseService.getPage(filterOptions, Optional.empty());
+
+        Assertions.assertEquals(3, result.getCourses().get(0).getCourseId());
+        Assertions.assertEquals(Optional.of(List.of(3)), filterOptions.getCourseIds());
+        Assertions.assertEquals(1, CourseCursor.decode(result.getNextCursor()).getPosition());
+        Mockito.verify(courseDao, Mockito.never()).getPage(filterOptions);
+    }
+
+    @Test
+    public void getPage_Should_ContinueAfterLastCourse_When_RelevanceCursorIsGiven() {
+        Course firstCourse = Helpers.createMockCourse();
+        String cursor = CourseCursor.atPosition(1, 3).encode();
+        FilterOptions filterOptions = new FilterOptions(null, null, null, null, null, null, null, 1, cursor, "java");
+        Mockito.when(courseSearchIndex.search("java")).thenReturn(List.of(3, 2, 1));
+        Mockito.when(courseDao.getCourseIds(filterOptions)).thenReturn(List.of(1, 3));
+        Mockito.when(courseDao.get(filterOptions)).thenReturn(new ArrayList<>(List.of(firstCourse)));
+
+        CoursePage result = courseService.getPage(filterOptions, Optional.empty());
+
+        Assertions.assertEquals(firstCourse.getCourseId(), result.getCourses().get(0).getCourseId());
+        Assertions.assertNull(result.getNextCursor());
+    }
+
+    @Test
+    public void getPage_Should_Throw_When_KeysetCursorIsUsedForRelevance() {
+        Course mockCourse = Helpers.createMockCourse();
+        String cursor = CourseCursor.of(CourseCursor.SORT_BY_ID, false, mockCourse).encode();
+        FilterOptions filterOptions = new FilterOptions(null, null, null, null, null, null, null, 1, cursor, "java");
+        Mockito.when(courseSearchIndex.search("java")).thenReturn(List.of(1));
+
+        Assertions.assertThrows(InvalidCursorException.class, () -> courseService.getPage(filterOptions, Optional.empty()));
+    }
+
+
     @Test
     public void getUsersEnrolledCourses_Should_CallDaoWhenValidInput(){
         Course mockCourse = Helpers.createMockCourse();
@@ -321,7 +458,7 @@ public class CourseServiceImplTests {
         Course mockCourse = Helpers.createMockCourse();
 
         Mockito.when(courseDao.get(Mockito.anyInt())).thenReturn(mockCourse);
-        Mockito.when(courseDao.getCoursesByUser(Mockito.anyInt())).thenReturn(Arrays.asList(mockCourse, mockCourse, mockCourse));
+        Mockito.when(courseDao.isUserEnrolled(Mockito.anyInt(), Mockito.anyInt())).thenReturn(Boolean.TRUE);
 
 
         Assertions.assertThrows(EntityDuplicateException.class, () -> courseService.enrollUserForCourse(mockUser, mockCourse.getCourseId()));
@@ -330,11 +467,9 @@ public class CourseServiceImplTests {
     public void enrollUserForCourse_Should_ThrowWhen_UserIsNotStudent(){
         User mockUser = Helpers.createMockTeacher();
         Course mockCourse = Helpers.createMockCourse();
-        Course mockCourse2 = Helpers.createMockCourse();
-        mockCourse2.setCourseId(123);
 
         Mockito.when(courseDao.get(Mockito.anyInt())).thenReturn(mockCourse);
-        Mockito.when(courseDao.getCoursesByUser(Mockito.anyInt())).thenReturn(Arrays.asList(mockCourse2, mockCourse2, mockCourse2));
+        Mockito.when(courseDao.isUserEnrolled(Mockito.anyInt(), Mockito.anyInt())).thenReturn(Boolean.FALSE);
 
 
         Assertions.assertThrows(AuthorizationException.class, () -> courseService.enrollUserForCourse(mockUser, mockCourse.getCourseId()));
@@ -343,12 +478,10 @@ public class CourseServiceImplTests {
     public void enrollUserForCourse_Should_ThrowWhen_CourseHasNotStarted(){
         User mockUser = Helpers.createMockTeacher();
         Course mockCourse = Helpers.createMockCourse();
-        Course mockCourse2 = Helpers.createMockCourse();
         mockCourse.setStartingDate(LocalDate.MAX);
-        mockCourse2.setCourseId(123);
 
         Mockito.when(courseDao.get(Mockito.anyInt())).thenReturn(mockCourse);
-        Mockito.when(courseDao.getCoursesByUser(Mockito.anyInt())).thenReturn(Arrays.asList(mockCourse2, mockCourse2, mockCourse2));
+        Mockito.when(courseDao.isUserEnrolled(Mockito.anyInt(), Mockito.anyInt())).thenReturn(Boolean.FALSE);
 
 
         Assertions.assertThrows(AuthorizationException.class, () -> courseService.enrollUserForCourse(mockUser, mockCourse.getCourseId()));
@@ -357,12 +490,10 @@ public class CourseServiceImplTests {
     public void enrollUserForCourse_Should_ThrowWhen_CourseIsNotPublic(){
         User mockUser = Helpers.createMockTeacher();
         Course mockCourse = Helpers.createMockCourse();
-        Course mockCourse2 = Helpers.createMockCourse();
         mockCourse.setPublished(false);
-        mockCourse2.setCourseId(123);
 
         Mockito.when(courseDao.get(Mockito.anyInt())).thenReturn(mockCourse);
-        Mockito.when(courseDao.getCoursesByUser(Mockito.anyInt())).thenReturn(Arrays.asList(mockCourse2, mockCourse2, mockCourse2));
+        Mockito.when(courseDao.isUserEnrolled(Mockito.anyInt(), Mockito.anyInt())).thenReturn(Boolean.FALSE);
 
 
         Assertions.assertThrows(AuthorizationException.class, () -> courseService.enrollUserForCourse(mockUser, mockCourse.getCourseId()));
@@ -374,17 +505,65 @@ public class CourseServiceImplTests {
     public void enrollUserForCourse_Should_CallDaoWhenValidInput(){
         User mockUser = Helpers.createMockStudent();
         Course mockCourse = Helpers.createMockCourse();
-        Course mockCourse2 = Helpers.createMockCourse();
         mockCourse.setPublished(true);
-        mockCourse2.setCourseId(123);
 
         Mockito.when(courseDao.get(Mockito.anyInt())).thenReturn(mockCourse);
-        Mockito.when(courseDao.getCoursesByUser(Mockito.anyInt())).thenReturn(Arrays.asList(mockCourse2, mockCourse2, mockCourse2));
+        Mockito.when(courseDao.isUserEnrolled(Mockito.anyInt(), Mockito.anyInt())).thenReturn(Boolean.FALSE);
         courseService.enrollUserForCourse(mockUser, mockCourse.getCourseId());
 
         Mockito.verify(courseDao, Mockito.times(1)).enrollUserForCourse(Mockito.anyInt(), Mockito.anyInt());
     }
 
+    @Test
+    public void enrollUsersForCourse_Should_ReportOutcomePerUser(){
+        User mockUser = Helpers.createMockTeacher();
+        Course mockCourse = Helpers.createMockCourse();
+        mockCourse.setPublished(true);
+        List<EnrollmentCandidate> candidates = Arrays.asList(
+                new EnrollmentCandidate(2, "student@abv.bg", "Student", null),
+                new EnrollmentCandidate(3, "teacher@abv.bg", "Teacher", null),
+                new EnrollmentCandidate(4, "ongoing@abv.bg", "Student", Boolean.TRUE),
+                new EnrollmentCandidate(5, "graduate@abv.bg", "Student", Boolean.FALSE),
+                new EnrollmentCandidate(6, "new@abv.bg", "Student", null));
+
+        Mockito.when(courseDao.get(Mockito.anyInt())).thenReturn(mockCourse);
+        Mockito.when(courseDao.getEnrollmentCandidates(Mockito.anyInt(), Mockito.anyCollection(), Mockito.anyCollection())).thenReturn(candidates);
+        Mockito.when(courseDao.enrollUsersForCourse(1, Arrays.asList(2, 6))).thenReturn(List.of(2));
+        List<EnrollmentOutcome> outcomes = courseService.enrollUsersForCourse(1, Arrays.asList(2, 3, 4, 5, 7), List.of("NEW@abv.bg"), mockUser);
+
+        Assertions.assertEquals(Arrays.asList(
+                new EnrollmentOutcome("2", 2, EnrollmentOutcome.Status.ENROLLED),
+                new EnrollmentOutcome("3", 3, EnrollmentOutcome.Status.NOT_STUDENT),
+                new EnrollmentOutcome("4", 4, EnrollmentOutcome.Status.ALREADY_ENROLLED),
+                new EnrollmentOutcome("5", 5, EnrollmentOutcome.Status.ALREADY_COMPLETED),
+                new EnrollmentOutcome("7", null, EnrollmentOutcome.Status.NOT_FOUND),
+                new EnrollmentOutcome("NEW@abv.bg", 6, EnrollmentOutcome.Status.ALREADY_ENROLLED)), outcomes);
+    }
+
+    @Test
+    public void enrollUsersForCourse_Should_ThrowWhen_UserIsNotCreator(){
+        User mockUser = Helpers.createMockTeacher();
+        mockUser.setUserId(2);
+        Course mockCourse = Helpers.createMockCourse();
+        mockCourse.setPublished(true);
+
+        Mockito.when(courseDao.get(Mockito.anyInt())).thenReturn(mockCourse);
+
+        Assertions.assertThrows(AuthorizationException.class, () -> courseService.enrollUsersForCourse(1, List.of(2), List.of(), mockUser));
+        Mockito.verify(courseDao, Mockito.never()).enrollUsersForCourse(Mockito.anyInt(), Mockito.anyList());
+    }
+
+    @Test
+    public void enrollUsersForCourse_Should_ThrowWhen_TooManyUsers(){
+        User mockUser = Helpers.createMockTeacher();
+        List<Integer> userIds = new ArrayList<>();
+        for (int i = 1; i <= CourseServiceImpl.MAX_BULK_ENROLLMENT_SIZE + 1; i++) {
+            userIds.add(i);
+        }
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> courseService.enrollUsersForCourse(1, userIds, List.of(), mockUser));
+    }
+
 
 
     @Test
@@ -1,4 +1,60 @@
 package com.alpha53.virtualteacher.services;
 
+import com.alpha53.virtualteacher.repositories.contracts.EmailOutboxDao;
+import com.alpha53.virtualteacher.utilities.helpers.EmailTemplate;
+import com.alpha53.virtualteacher.utilities.helpers.EmailTemplateEngine;
+import com.alpha53.virtualteacher.utilities.helpers.MailTransportPool;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+@ExtendWith(MockitoExtension.class)
 public class EmailServiceImplTests {
+
+    @Mock
+    EmailOutboxDao emailOutboxDao;
+
+    @Mock
+    MailTransportPool mailTransportPool;
+
+    EmailServiceImpl emailService;
+
+    @BeforeEach
+    public void setUp() {
+        emailService = new EmailServiceImpl(emailOutboxDao, mailTransportPool, new EmailTemplateEngine());
+    }
+
+    @Test
+    public void generateConfirmationEmail_Should_FillSlots() {
+        String email = emailService.generateConfirmationEmail("Ivan", "http://localhost:8080/confirm?token=abc");
+
+        Assertions.assertTrue(email.contains("Dear, Ivan, please follow this link"));
+        Assertions.assertTrue(email.contains("http://localhost:8080/confirm?token=abc"));
+        Assertions.assertFalse(email.contains("{{"));
+    }
+
+    @Test
+    public void generateGraduationEmail_Should_EscapeSlotValues() {
+        String email = emailService.generateGraduationEmail("<b>Ivan</b>", "Q&A");
+
+        Assertions.assertTrue(email.contains("Congratulations &lt;b&gt;Ivan&lt;/b&gt;!"));
+        Assertions.assertTrue(email.contains("graduated course Q&amp;A."));
+    }
+
+    @Test
+    public void renderAll_Should_RenderEveryRecipient() {
+        EmailTemplate template = EmailTemplate.compile("<p>Hi {{name}}, welcome to {{ course }}</p>");
+
+        List<String> emails = template.renderAll(List.of(
+                Map.of("name", "Anna", "course", "Java"),
+                Map.of("name", "Boris")));
+
+        Assertions.assertEquals(List.of("<p>Hi Anna, welcome to Java</p>", "<p>Hi Boris, welcome to </p>"), emails);
+    }
 }
@@ -150,11 +150,7 @@ public class LectureServiceImplTests {
 
         // Mockito.when(lectureDao.get(Mockito.anyInt())).thenReturn(mockLecture);
         Mockito.when(courseDao.get(Mockito.anyInt())).thenReturn(mockCourse);
-        List<Course> listOfCourses = new ArrayList<>();
-        listOfCourses.add(mockCourse);
-        listOfCourses.add(mockCourse);
-        Mockito.when(courseDao.getCoursesByUser(Mockito.anyInt())).thenReturn(listOfCourses);
-        //Mockito.when(courseDao.isUserEnrolled(Mockito.anyInt(), Mockito.anyInt())).thenReturn(Boolean.TRUE);
+        Mockito.when(courseDao.isUserEnrolled(Mockito.anyInt(), Mockito.anyInt())).thenReturn(Boolean.TRUE);
 
         lectureService.getAllByCourseId(mockCourse.getCourseId(),mockUser);
 
@@ -173,10 +169,7 @@ public class LectureServiceImplTests {
 
         // Mockito.when(lectureDao.get(Mockito.anyInt())).thenReturn(mockLecture);
         Mockito.when(courseDao.get(Mockito.anyInt())).thenReturn(mockCourse);
-        List<Course> listOfCourses = new ArrayList<>();
-
-        Mockito.when(courseDao.getCoursesByUser(Mockito.anyInt())).thenReturn(listOfCourses);
-        //Mockito.when(courseDao.isUserEnrolled(Mockito.anyInt(), Mockito.anyInt())).thenReturn(Boolean.TRUE);
+        Mockito.when(courseDao.isUserEnrolled(Mockito.anyInt(), Mockito.anyInt())).thenReturn(Boolean.FALSE);
 
         lectureService.getAllByCourseId(mockCourse.getCourseId(),mockUser);
 
@@ -342,8 +335,8 @@ public class LectureServiceImplTests {
         Course mockCourse = Helpers.createMockCourse();
         Lecture mockLecture = Helpers.createMockLecture();
 
-        Mockito.when(courseDao.get(Mockito.anyInt())).thenReturn(mockCourse);
-        Mockito.when(lectureDao.getAllByCourseId(Mockito.anyInt())).thenReturn(new ArrayList<>());
+        mockCourse.setLectures(new HashSet<>());
+        Mockito.when(courseDao.getWithLectures(Mockito.anyInt())).thenReturn(mockCourse);
       //  Mockito.when(storageService.store(Mockito.any(MultipartFile.class))).thenReturn("asd");
         Mockito.when(courseDao.isUserEnrolled(Mockito.anyInt(), Mockito.anyInt())).thenReturn(Boolean.TRUE);
         MultipartFile file = new MockMultipartFile("data", "other-file-name.data", "text/plain", "some other type".getBytes());
@@ -360,8 +353,8 @@ public class LectureServiceImplTests {
         List<Lecture> listOfCourses = new ArrayList<>();
         listOfCourses.add(mockLecture);
         listOfCourses.add(mockLecture);
-        Mockito.when(courseDao.get(Mockito.anyInt())).thenReturn(mockCourse);
-        Mockito.when(lectureDao.getAllByCourseId(Mockito.anyInt())).thenReturn(listOfCourses);
+        mockCourse.setLectures(new HashSet<>(listOfCourses));
+        Mockito.when(courseDao.getWithLectures(Mockito.anyInt())).thenReturn(mockCourse);
         Mockito.when(solutionDao.getSolutionUrl(Mockito.anyInt())).thenReturn(Optional.of("asd"));
         Mockito.when(storageService.store(Mockito.any(MultipartFile.class))).thenReturn("asd");
         Mockito.when(courseDao.isUserEnrolled(Mockito.anyInt(), Mockito.anyInt())).thenReturn(Boolean.TRUE);
@@ -379,8 +372,8 @@ public class LectureServiceImplTests {
         List<Lecture> listOfCourses = new ArrayList<>();
         listOfCourses.add(mockLecture);
         listOfCourses.add(mockLecture);
-        Mockito.when(courseDao.get(Mockito.anyInt())).thenReturn(mockCourse);
-        Mockito.when(lectureDao.getAllByCourseId(Mockito.anyInt())).thenReturn(listOfCourses);
+        mockCourse.setLectures(new HashSet<>(listOfCourses));
+        Mockito.when(courseDao.getWithLectures(Mockito.anyInt())).thenReturn(mockCourse);
         Mockito.when(solutionDao.getSolutionUrl(Mockito.anyInt())).thenReturn(Optional.empty());
         Mockito.when(storageService.store(Mockito.any(MultipartFile.class))).thenReturn("asd");
         Mockito.when(courseDao.isUserEnrolled(Mockito.anyInt(), Mockito.anyInt())).thenReturn(Boolean.TRUE);
@@ -0,0 +1,107 @@
+package com.alpha53.virtualteacher.services;
+
+import com.alpha53.virtualteacher.config.WikiProperties;
+import com.alpha53.virtualteacher.models.WikiResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class LocalWikiServiceImplTests {
+    private static final String DUMP = """
+            <mediawiki xmlns="http://www.mediawiki.org/xml/export-0.10/">
+              <siteinfo><sitename>Wikipedia</sitename></siteinfo>
+              <page>
+                <title>Java</title><ns>0</ns><id>15881</id>
+                <revision><id>101</id><contributor><id>5</id></contributor>
+                  <text xml:space="preserve">'''Java''' is an island of [[Indonesia]].</text>
+                </revision>
+              </page>
+              <page>
+                <title>Java (programming language)</title><ns>0</ns><id>15628</id>
+                <revision><id>102</id>
+                  <text xml:space="preserve">'''Java''' is a class-based programming language.</text>
+                </revision>
+              </page>
+              <page>
+                <title>JAVA</title><ns>0</ns><id>7</id><redirect title="Java" />
+                <revision><id>103</id><text xml:space="preserve">#REDIRECT [[Java]]</text></revision>
+              </page>
+              <page>
+                <title>Talk:Java</title><ns>1</ns><id>8</id>
+                <revision><id>104</id><text xml:space="preserve">Programming language discussion</text></revision>
+              </page>
+            </mediawiki>
+            """;
+
+    @TempDir
+    Path directory;
+
+    private WikiProperties wikiProperties;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Path dump = directory.resolve("dump.xml");
+        Files.writeString(dump, DUMP);
+        wikiProperties = new WikiProperties();
+        wikiProperties.setSource("local");
+        wikiProperties.setLocalDumpPath(dump.toString());
+        wikiProperties.setLocalIndexPath(directory.resolve("index").toString());
+    }
+
+    @Test
+    public void getSearchResult_Should_RankArticlesFromLocalIndex() {
+        LocalWikiServiceImpl wikiService = new LocalWikiServiceImpl(wikiProperties);
+
+        List<WikiResult> results = wikiService.getSearchResult("programming language");
+
+        Assertions.assertEquals(1, results.size());
+        Assertions.assertEquals(15628, results.get(0).getPageid());
+        Assertions.assertEquals("Java (programming language)", results.get(0).getTitle());
+        Assertions.assertTrue(results.get(0).getContent().contains("class-based programming language"));
+        Assertions.assertEquals("https://en.wikipedia.org/wiki/Java_%28programming_language%29", results.get(0).getFullUrl());
+    }
+
+    @Test
+    public void getSearchResult_Should_SkipRedirectsAndOtherNamespaces() {
+        LocalWikiServiceImpl wikiService = new LocalWikiServiceImpl(wikiProperties);
+
+        List<WikiResult> results = wikiService.getSearchResult("java");
+
+        Assertions.assertEquals(List.of(15881, 15628), results.stream().map(WikiResult::getPageid).toList());
+    }
+
+    @Test
+    public void constructor_Should_ReuseExistingIndex() throws IOException {
+        new LocalWikiServiceImpl(wikiProperties);
+        Files.delete(Path.of(wikiProperties.getLocalDumpPath()));
+
+        LocalWikiServiceImpl wikiService = new LocalWikiServiceImpl(wikiProperties);
+
+        Assertions.assertEquals(2, wikiService.getMetrics().get("articles"));
+        Assertions.assertNull(wikiService.getMetrics().get("ingestMillis"));
+    }
+
+    @Test
+    public void constructor_Should_Throw_When_NoIndexAndNoDump() {
+        wikiProperties.setLocalDumpPath(null);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> new LocalWikiServiceImpl(wikiProperties));
+    }
+
+    @Test
+    public void snippet_Should_StartNearFirstMatch() {
+        String content = "word ".repeat(100) + "island of Indonesia " + "word ".repeat(100);
+
+        String snippet = LocalWikiServiceImpl.snippet(content, "Indonesia");
+
+        Assertions.assertTrue(snippet.startsWith("..."));
+        Assertions.assertTrue(snippet.contains("island of Indonesia"));
+        Assertions.assertTrue(snippet.endsWith("..."));
+    }
+}
@@ -4,6 +4,7 @@ import com.alpha53.virtualteacher.exceptions.AuthorizationException;
 import com.alpha53.virtualteacher.exceptions.EntityDuplicateException;
 import com.alpha53.virtualteacher.exceptions.EntityNotFoundException;
 import com.alpha53.virtualteacher.exceptions.RegistrationException;
+import com.alpha53.virtualteacher.exceptions.StorageException;
 import com.alpha53.virtualteacher.models.*;
 import com.alpha53.virtualteacher.models.dtos.UserDto;
 import com.alpha53.virtualteacher.repositories.contracts.CourseDao;
@@ -12,6 +13,9 @@ import com.alpha53.virtualteacher.repositories.contracts.UserDao;
 import com.alpha53.virtualteacher.services.contracts.ConfirmationTokenService;
 import com.alpha53.virtualteacher.services.contracts.EmailService;
 import com.alpha53.virtualteacher.services.contracts.StorageService;
+import com.alpha53.virtualteacher.utilities.helpers.PasswordHasher;
+import com.alpha53.virtualteacher.utilities.helpers.ProfilePictures;
+import com.alpha53.virtualteacher.utilities.helpers.UserChangeTracker;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -48,6 +52,15 @@ public class UserServiceImplTests {
     @Mock
     SolutionDao solutionDao;
 
+    @Mock
+    PasswordHasher passwordHasher;
+
+    @Mock
+    UserChangeTracker userChangeTracker;
+
+    @Mock
+    ProfilePictures profilePictures;
+
     @InjectMocks
     UserServiceImpl userService;
 
@@ -191,6 +204,19 @@ public class UserServiceImplTests {
         Mockito.verify(userDao, Mockito.times(1)).create(mockUser);
     }
 
+    @Test
+    public void create_Should_StoreHashedPassword() {
+        User mockUser = Helpers.createMockStudent();
+
+        Mockito.when(userDao.get(Mockito.anyString())).thenThrow(EntityNotFoundException.class);
+        Mockito.when(userDao.getRole(Mockito.anyString())).thenReturn(Helpers.createMockStudentRole());
+        Mockito.when(passwordHasher.hash(mockUser.getPassword())).thenReturn("hashed");
+
+        userService.create(mockUser, mockUser.getRole().getRoleType());
+
+        Assertions.assertEquals("hashed", mockUser.getPassword());
+    }
+
     @Test
     public void create_Should_CreateAndSentConfirmationTokenWhenValidInput() {
         User mockUser = Helpers.createMockStudent();
@@ -203,7 +229,7 @@ public class UserServiceImplTests {
 
         Mockito.verify(confirmationTokenService, Mockito.times(1)).save(Mockito.any(ConfirmationToken.class));
         Mockito.verify(emailService, Mockito.times(1)).generateConfirmationEmail(Mockito.anyString(), Mockito.anyString());
-        Mockito.verify(emailService, Mockito.times(1)).send(mockUser.getEmail(), "test", UserServiceImpl.REGISTRATION_CONFIRMATION_SUBJECT, null, null);
+        Mockito.verify(emailService, Mockito.times(1)).enqueue(mockUser.getEmail(), "test", UserServiceImpl.REGISTRATION_CONFIRMATION_SUBJECT, null, null);
 
     }
 
@@ -228,7 +254,7 @@ public class UserServiceImplTests {
 
 
         Mockito.verify(confirmationTokenService, Mockito.times(1)).save(Mockito.any(ConfirmationToken.class));
-        Mockito.verify(emailService, Mockito.times(1)).send(mockUser.getEmail(), "test", UserServiceImpl.REGISTRATION_CONFIRMATION_SUBJECT, null, null);
+        Mockito.verify(emailService, Mockito.times(1)).enqueue(mockUser.getEmail(), "test", UserServiceImpl.REGISTRATION_CONFIRMATION_SUBJECT, null, null);
 
     }
 
@@ -489,6 +515,7 @@ public class UserServiceImplTests {
         userService.setUserRole(mockLoggedUser, mockTeacher, "Admin");
 
         Mockito.verify(userDao, Mockito.times(1)).update(mockTeacher);
+        Mockito.verify(userChangeTracker, Mockito.times(1)).userChanged(mockTeacher.getUserId());
     }
 
 
@@ -509,7 +536,7 @@ public class UserServiceImplTests {
 
         userService.referFriend(mockLoggedUser, "test@abv.bg");
 
-        Mockito.verify(emailService, Mockito.times(1)).send("test@abv.bg", "test", UserServiceImpl.REFERRAL_SUBJECT, null, null);
+        Mockito.verify(emailService, Mockito.times(1)).enqueue("test@abv.bg", "test", UserServiceImpl.REFERRAL_SUBJECT, null, null);
     }
 
     @Test
@@ -547,6 +574,23 @@ public class UserServiceImplTests {
         Mockito.verify(storageService,Mockito.times(1)).delete("/resources/fileStorage/notDefaultPhoto.png");
         Mockito.verify(storageService,Mockito.times(1)).store(mockFile);
         Mockito.verify(userDao,Mockito.times(1)).update(mockUser);
+        Mockito.verify(profilePictures,Mockito.times(1)).deleteVariants("/resources/fileStorage/notDefaultPhoto.png");
+
+    }
+
+    @Test
+    public void uploadProfilePicture_Should_KeepOldPhotoWhenVariantsFail(){
+        User mockUser = Helpers.createMockStudent();
+        mockUser.setPictureUrl("/resources/fileStorage/notDefaultPhoto.png");
+        MultipartFile mockFile = Mockito.mock(MultipartFile.class);
+        Mockito.when(storageService.store(mockFile)).thenReturn("/assets/fileStorage/new.png");
+        Mockito.doThrow(StorageException.class).when(profilePictures).storeVariants("/assets/fileStorage/new.png");
+
+        Assertions.assertThrows(StorageException.class, ()-> userService.uploadProfilePicture(mockFile,mockUser, 1));
 
+        Mockito.verify(storageService,Mockito.times(1)).delete("/assets/fileStorage/new.png");
+        Mockito.verify(storageService,Mockito.never()).delete("/resources/fileStorage/notDefaultPhoto.png");
+        Mockito.verify(userDao,Mockito.never()).update(mockUser);
+        Assertions.assertEquals("/resources/fileStorage/notDefaultPhoto.png", mockUser.getPictureUrl());
     }
 }
\ No newline at end of file
@@ -0,0 +1,211 @@
+package com.alpha53.virtualteacher.services;
+
+import com.alpha53.virtualteacher.config.WikiProperties;
+import com.alpha53.virtualteacher.exceptions.WikiUnavailableException;
+import com.alpha53.virtualteacher.models.WikiResult;
+import com.alpha53.virtualteacher.utilities.helpers.CircuitBreaker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WikiServiceImplTests {
+    private static final String SEARCH_RESPONSE = "{\"query\":{\"search\":[{\"pageid\":15881,\"title\":\"Java\"," +
+            "\"snippet\":\"<span class=\\\"searchmatch\\\">Java</span> is an island\"}]}}";
+    private static final String CONTENT_RESPONSE = "{\"query\":{\"pages\":[{\"pageid\":15881,\"title\":\"Java\"," +
+            "\"revisions\":[{\"slots\":{\"main\":{\"content\":\"'''Java''' is an island of Indonesia.\"}}}]}]}}";
+    private static final String FULL_URL_RESPONSE = "{\"query\":{\"pages\":{\"15881\":{\"pageid\":15881," +
+            "\"fullurl\":\"https://en.wikipedia.org/wiki/Java\"}}}}";
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final CountDownLatch fullUrlRequested = new CountDownLatch(1);
+    private volatile CountDownLatch searchGate = new CountDownLatch(0);
+    private volatile boolean lookupsOverlapped;
+    private volatile boolean failing;
+    private HttpServer server;
+    private WikiProperties wikiProperties;
+    private WikiServiceImpl wikiService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/w/api.php", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        wikiProperties = new WikiProperties();
+        wikiProperties.setApiUri("http://localhost:" + server.getAddress().getPort() + "/w/api.php");
+        wikiService = createService();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        searchGate.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    public void getSearchResult_Should_ReturnResultsFromAllThreeLookups() throws Exception {
+        List<WikiResult> results = wikiService.getSearchResult("Java");
+
+        Assertions.assertEquals(1, results.size());
+        Assertions.assertEquals("Java", results.get(0).getTitle());
+        Assertions.assertEquals("Java is an island", results.get(0).getSnippet());
+        Assertions.assertTrue(results.get(0).getContent().contains("island of Indonesia"));
+        Assertions.assertEquals("https://en.wikipedia.org/wiki/Java", results.get(0).getFullUrl());
+        Assertions.assertEquals(3, upstreamCalls.get());
+    }
+
+    @Test
+    public void getSearchResult_Should_ServeFromCache_When_NormalizedCriteriaMatches() throws Exception {
+        List<WikiResult> first = wikiService.getSearchResult("Java");
+        List<WikiResult> second = wikiService.getSearchResult("  JAVA ");
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(3, upstreamCalls.get());
+        Assertions.assertEquals(1L, wikiService.getMetrics().get("hits"));
+        Assertions.assertEquals(1L, wikiService.getMetrics().get("misses"));
+    }
+
+    @Test
+    public void getSearchResult_Should_FetchOnce_When_IdenticalSearchesRunConcurrently() throws Exception {
+        int callers = 8;
+        searchGate = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<List<WikiResult>>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> wikiService.getSearchResult("java")));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (wikiService.getMetrics().get("coalesced").longValue() < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            searchGate.countDown();
+
+            for (Future<List<WikiResult>> future : futures) {
+                Assertions.assertEquals(1, future.get(10, TimeUnit.SECONDS).size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertEquals(3, upstreamCalls.get());
+        Assertions.assertEquals((long) callers - 1, wikiService.getMetrics().get("coalesced"));
+    }
+
+    @Test
+    public void getSearchResultAsync_Should_RunContentAndUrlLookupsConcurrently() throws Exception {
+        List<WikiResult> results = wikiService.getSearchResultAsync("Java").get(10, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(1, results.size());
+        Assertions.assertTrue(lookupsOverlapped);
+    }
+
+    @Test
+    public void getSearchResult_Should_ServeStaleResult_When_WikipediaFailsAndCircuitBreakerOpens() throws Exception {
+        wikiProperties.setCacheTtl(Duration.ZERO);
+        wikiProperties.setBreakerFailureThreshold(2);
+        wikiService = createService();
+        List<WikiResult> fresh = wikiService.getSearchResult("java");
+        failing = true;
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertSame(fresh, wikiService.getSearchResult("java"));
+        }
+
+        Map<String, Number> metrics = wikiService.getMetrics();
+        Assertions.assertEquals(5, upstreamCalls.get());
+        Assertions.assertEquals(CircuitBreaker.State.OPEN.ordinal(), metrics.get("breakerState"));
+        Assertions.assertEquals(1L, metrics.get("breakerRejections"));
+        Assertions.assertEquals(3L, metrics.get("staleResults"));
+    }
+
+    @Test
+    public void getSearchResult_Should_Throw_When_CircuitBreakerIsOpenAndNothingIsCached() {
+        wikiProperties.setBreakerFailureThreshold(1);
+        wikiService = createService();
+        failing = true;
+
+        Assertions.assertThrows(IOException.class, () -> wikiService.getSearchResult("java"));
+        Assertions.assertThrows(WikiUnavailableException.class, () -> wikiService.getSearchResult("python"));
+        Assertions.assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    public void getSearchResult_Should_Reject_When_BulkheadIsFull() throws Exception {
+        wikiProperties.setMaxConcurrentCalls(1);
+        wikiService = createService();
+        searchGate = new CountDownLatch(1);
+
+        CompletableFuture<List<WikiResult>> first = wikiService.getSearchResultAsync("java");
+        Assertions.assertThrows(WikiUnavailableException.class, () -> wikiService.getSearchResult("python"));
+        searchGate.countDown();
+
+        Assertions.assertEquals(1, first.get(10, TimeUnit.SECONDS).size());
+        Assertions.assertEquals(1L, wikiService.getMetrics().get("bulkheadRejections"));
+    }
+
+    @Test
+    public void getSearchResult_Should_Throw_When_WikipediaMissesDeadline() {
+        wikiProperties.setRequestTimeout(Duration.ofMillis(200));
+        wikiService = createService();
+        searchGate = new CountDownLatch(1);
+
+        Assertions.assertThrows(WikiUnavailableException.class, () -> wikiService.getSearchResult("java"));
+        Assertions.assertEquals(1L, wikiService.getMetrics().get("timeouts"));
+    }
+
+    private WikiServiceImpl createService() {
+        return new WikiServiceImpl(new ObjectMapper(), HttpClient.newHttpClient(), wikiProperties);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        upstreamCalls.incrementAndGet();
+        if (failing) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        String query = exchange.getRequestURI().getQuery();
+        String body;
+        if (query.contains("list=search")) {
+            try {
+                searchGate.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            body = SEARCH_RESPONSE;
+        } else if (query.contains("prop=revisions")) {
+            try {
+                lookupsOverlapped = fullUrlRequested.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            body = CONTENT_RESPONSE;
+        } else {
+            fullUrlRequested.countDown();
+            body = FULL_URL_RESPONSE;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
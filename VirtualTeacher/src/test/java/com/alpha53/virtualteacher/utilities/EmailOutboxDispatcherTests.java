@@ -0,0 +1,88 @@
+package com.alpha53.virtualteacher.utilities;
+
+import com.alpha53.virtualteacher.models.OutboxEmail;
+import com.alpha53.virtualteacher.repositories.contracts.EmailOutboxDao;
+import com.alpha53.virtualteacher.services.contracts.EmailService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailOutboxDispatcherTests {
+
+    @Mock
+    EmailOutboxDao emailOutboxDao;
+
+    @Mock
+    EmailService emailService;
+
+    @InjectMocks
+    EmailOutboxDispatcher emailOutboxDispatcher;
+
+    @AfterEach
+    public void tearDown() {
+        emailOutboxDispatcher.shutdown();
+    }
+
+    @Test
+    public void dispatch_Should_MarkSent_When_EmailIsDelivered() {
+        OutboxEmail email = createOutboxEmail(0);
+        Mockito.when(emailOutboxDao.claimBatch(Mockito.anyInt(), Mockito.any())).thenReturn(List.of(email));
+
+        emailOutboxDispatcher.dispatch();
+
+        Mockito.verify(emailService, Mockito.times(1)).send(email.getRecipient(), email.getBody(), email.getSubject(), null, null);
+        Mockito.verify(emailOutboxDao, Mockito.times(1)).markSent(email.getId(), email.getClaimToken());
+    }
+
+    @Test
+    public void dispatch_Should_ScheduleRetry_When_DeliveryFails() {
+        OutboxEmail email = createOutboxEmail(1);
+        Mockito.when(emailOutboxDao.claimBatch(Mockito.anyInt(), Mockito.any())).thenReturn(List.of(email));
+        Mockito.doThrow(new IllegalStateException("Mail server is down"))
+                .when(emailService).send(Mockito.anyString(), Mockito.anyString(), Mockito.anyString(), Mockito.any(), Mockito.any());
+
+        emailOutboxDispatcher.dispatch();
+
+        Mockito.verify(emailOutboxDao, Mockito.times(1))
+                .markFailed(Mockito.eq(email.getId()), Mockito.eq(email.getClaimToken()), Mockito.eq(2),
+                        Mockito.any(LocalDateTime.class), Mockito.eq("Mail server is down"));
+        Mockito.verify(emailOutboxDao, Mockito.never()).markSent(Mockito.anyLong(), Mockito.anyString());
+    }
+
+    @Test
+    public void dispatch_Should_MarkDead_When_AttemptsAreExhausted() {
+        OutboxEmail email = createOutboxEmail(EmailOutboxDispatcher.MAX_ATTEMPTS - 1);
+        Mockito.when(emailOutboxDao.claimBatch(Mockito.anyInt(), Mockito.any())).thenReturn(List.of(email));
+        Mockito.doThrow(new IllegalStateException("Mail server is down"))
+                .when(emailService).send(Mockito.anyString(), Mockito.anyString(), Mockito.anyString(), Mockito.any(), Mockito.any());
+
+        emailOutboxDispatcher.dispatch();
+
+        Mockito.verify(emailOutboxDao, Mockito.times(1))
+                .markDead(email.getId(), email.getClaimToken(), EmailOutboxDispatcher.MAX_ATTEMPTS, "Mail server is down");
+    }
+
+    @Test
+    public void backoff_Should_GrowExponentially_And_BeCapped() {
+        Assertions.assertEquals(EmailOutboxDispatcher.BASE_BACKOFF, EmailOutboxDispatcher.backoff(1));
+        Assertions.assertEquals(EmailOutboxDispatcher.BASE_BACKOFF.multipliedBy(4), EmailOutboxDispatcher.backoff(3));
+        Assertions.assertEquals(EmailOutboxDispatcher.MAX_BACKOFF, EmailOutboxDispatcher.backoff(20));
+    }
+
+    private OutboxEmail createOutboxEmail(int attempts) {
+        OutboxEmail email = new OutboxEmail("student@mail.com", "Subject", "Body", null, null);
+        email.setId(1);
+        email.setAttempts(attempts);
+        email.setClaimToken("claim-token");
+        return email;
+    }
+}
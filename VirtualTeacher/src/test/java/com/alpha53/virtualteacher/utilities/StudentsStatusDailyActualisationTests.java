@@ -0,0 +1,207 @@
+package com.alpha53.virtualteacher.utilities;
+
+import com.alpha53.virtualteacher.models.GraduationCandidate;
+import com.alpha53.virtualteacher.repositories.contracts.CourseDao;
+import com.alpha53.virtualteacher.repositories.contracts.GraduationCheckpointDao;
+import com.alpha53.virtualteacher.services.contracts.EmailService;
+import com.alpha53.virtualteacher.utilities.helpers.CertificateEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@ExtendWith(MockitoExtension.class)
+public class StudentsStatusDailyActualisationTests {
+
+    @Mock
+    CourseDao courseDao;
+
+    @Mock
+    GraduationCheckpointDao checkpointDao;
+
+    @Mock
+    EmailService emailService;
+
+    @Spy
+    CertificateEngine certificateEngine = new CertificateEngine();
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    StudentsStatusDailyActualisation studentsStatusDailyActualisation;
+
+    @AfterEach
+    public void tearDown() {
+        certificateEngine.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    public void informGraduatedStudents_Should_UseConstantQueryCount_When_StudentsCountGrows(int studentsCount) {
+        List<GraduationCandidate> candidates = new ArrayList<>();
+        for (int i = 1; i <= studentsCount; i++) {
+            candidates.add(new GraduationCandidate(1, "Java", i, String.format("student%d@mail.com", i), "Student"));
+        }
+        Mockito.when(checkpointDao.getCompletedChunks(Mockito.any())).thenReturn(new HashSet<>());
+        Mockito.when(courseDao.getOngoingCourseChunks(Mockito.anyInt())).thenReturn(List.of(0));
+        Mockito.when(courseDao.getGraduationCandidates(Mockito.anyInt(), Mockito.anyInt())).thenReturn(candidates.stream());
+        Mockito.doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(Mockito.any());
+
+        studentsStatusDailyActualisation.informGraduatedStudents();
+
+        Mockito.verify(courseDao, Mockito.times(1)).getGraduationCandidates(Mockito.anyInt(), Mockito.anyInt());
+        Mockito.verify(courseDao, Mockito.times(1)).completeCourses(Mockito.anyList());
+        Mockito.verify(courseDao, Mockito.never()).completeCourse(Mockito.anyInt(), Mockito.anyInt());
+        Mockito.verify(checkpointDao, Mockito.times(1)).saveCheckpoint(Mockito.any(), Mockito.eq(0), Mockito.eq(studentsCount));
+        Mockito.verify(emailService, Mockito.times(1)).enqueueAll(Mockito.argThat(emails -> emails.size() == studentsCount));
+        Mockito.verify(emailService, Mockito.never())
+                .send(Mockito.anyString(), Mockito.any(), Mockito.anyString(), Mockito.any(), Mockito.anyString());
+    }
+
+    @Test
+    public void informGraduatedStudents_Should_SkipCheckpointedChunks() {
+        Mockito.when(checkpointDao.getCompletedChunks(Mockito.any(LocalDate.class))).thenReturn(Set.of(0));
+        Mockito.when(courseDao.getOngoingCourseChunks(Mockito.anyInt())).thenReturn(List.of(0, 1));
+        Mockito.when(courseDao.getGraduationCandidates(Mockito.anyInt(), Mockito.anyInt())).thenReturn(Stream.empty());
+
+        studentsStatusDailyActualisation.informGraduatedStudents();
+
+        int chunkSize = StudentsStatusDailyActualisation.COURSES_PER_CHUNK;
+        Mockito.verify(courseDao, Mockito.times(1)).getGraduationCandidates(chunkSize, 2 * chunkSize);
+        Mockito.verify(courseDao, Mockito.never()).completeCourses(Mockito.anyList());
+        Mockito.verify(checkpointDao, Mockito.times(1)).saveCheckpoint(Mockito.any(), Mockito.eq(1), Mockito.eq(0));
+    }
+
+    @Test
+    public void informGraduatedStudents_Should_NotCheckpointChunk_When_ProcessingFails() {
+        Mockito.when(checkpointDao.getCompletedChunks(Mockito.any(LocalDate.class))).thenReturn(new HashSet<>());
+        Mockito.when(courseDao.getOngoingCourseChunks(Mockito.anyInt())).thenReturn(List.of(0));
+        Mockito.when(courseDao.getGraduationCandidates(Mockito.anyInt(), Mockito.anyInt())).thenThrow(new IllegalStateException());
+
+        studentsStatusDailyActualisation.informGraduatedStudents();
+
+        Mockito.verify(checkpointDao, Mockito.never()).saveCheckpoint(Mockito.any(), Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test
+    public void informGraduatedStudents_Should_CompleteOnlyGraduatesWithCertificate_When_CertificateFails() {
+        GraduationCandidate anna = new GraduationCandidate(1, "Java", 1, "anna@mail.com", "Anna");
+        GraduationCandidate boris = new GraduationCandidate(1, "Java", 2, "boris@mail.com", "Boris");
+        Mockito.when(checkpointDao.getCompletedChunks(Mockito.any(LocalDate.class))).thenReturn(new HashSet<>());
+        Mockito.when(courseDao.getOngoingCourseChunks(Mockito.anyInt())).thenReturn(List.of(0));
+        Mockito.when(courseDao.getGraduationCandidates(Mockito.anyInt(), Mockito.anyInt())).thenReturn(Stream.of(anna, boris));
+        Mockito.when(emailService.generateGraduationEmail("Anna", "Java")).thenReturn("Congratulations");
+        Mockito.when(emailService.generateGraduationEmail("Boris", "Java")).thenThrow(new IllegalStateException());
+        Mockito.doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(Mockito.any());
+
+        studentsStatusDailyActualisation.informGraduatedStudents();
+
+        Mockito.verify(courseDao, Mockito.times(1)).completeCourses(List.of(anna));
+        Mockito.verify(emailService, Mockito.times(1)).enqueueAll(Mockito.argThat(emails ->
+                emails.size() == 1 && emails.get(0).getRecipient().equals(anna.getEmail())));
+        Mockito.verify(checkpointDao, Mockito.times(1)).saveCheckpoint(Mockito.any(), Mockito.eq(0), Mockito.eq(1));
+    }
+
+    @Test
+    public void resumeUnfinishedRuns_Should_SkipFinishedChunks_When_RunInterrupted() throws InterruptedException {
+        InMemoryCheckpointDao checkpoints = new InMemoryCheckpointDao();
+        int chunkSize = StudentsStatusDailyActualisation.COURSES_PER_CHUNK;
+        Mockito.when(courseDao.getOngoingCourseChunks(Mockito.anyInt())).thenReturn(List.of(0, 1));
+        Mockito.when(courseDao.getGraduationCandidates(0, chunkSize)).thenAnswer(invocation -> Stream.empty());
+        Mockito.when(courseDao.getGraduationCandidates(chunkSize, 2 * chunkSize))
+                .thenThrow(new IllegalStateException())
+                .thenAnswer(invocation -> Stream.empty());
+
+        new StudentsStatusDailyActualisation(courseDao, checkpoints, emailService, certificateEngine, transactionTemplate)
+                .informGraduatedStudents();
+        Assertions.assertEquals(List.of(LocalDate.now()), checkpoints.getUnfinishedRuns(LocalDate.now()));
+
+        // Restarted application
+        ExecutorService jobExecutor = Executors.newSingleThreadExecutor();
+        new StudentsStatusDailyActualisation(courseDao, checkpoints, emailService, certificateEngine, transactionTemplate, jobExecutor)
+                .resumeUnfinishedRuns();
+        jobExecutor.shutdown();
+        Assertions.assertTrue(jobExecutor.awaitTermination(5, TimeUnit.SECONDS));
+
+        Mockito.verify(courseDao, Mockito.times(1)).getGraduationCandidates(0, chunkSize);
+        Mockito.verify(courseDao, Mockito.times(2)).getGraduationCandidates(chunkSize, 2 * chunkSize);
+        Assertions.assertEquals(Set.of(0, 1), checkpoints.getCompletedChunks(LocalDate.now()));
+        Assertions.assertTrue(checkpoints.getUnfinishedRuns(LocalDate.now()).isEmpty());
+    }
+
+    @Test
+    public void informGraduatedStudents_Should_CloseEarlierRun_When_TodayRunCoversIt() {
+        InMemoryCheckpointDao checkpoints = new InMemoryCheckpointDao();
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        checkpoints.startRun(yesterday);
+        checkpoints.saveCheckpoint(yesterday, 0, 0);
+        Mockito.when(courseDao.getOngoingCourseChunks(Mockito.anyInt())).thenReturn(List.of(0, 1));
+        Mockito.when(courseDao.getGraduationCandidates(Mockito.anyInt(), Mockito.anyInt())).thenAnswer(invocation -> Stream.empty());
+
+        new StudentsStatusDailyActualisation(courseDao, checkpoints, emailService, certificateEngine, transactionTemplate)
+                .informGraduatedStudents();
+
+        int chunkSize = StudentsStatusDailyActualisation.COURSES_PER_CHUNK;
+        Mockito.verify(courseDao, Mockito.times(1)).getGraduationCandidates(0, chunkSize);
+        Mockito.verify(courseDao, Mockito.times(1)).getGraduationCandidates(chunkSize, 2 * chunkSize);
+        Assertions.assertTrue(checkpoints.getUnfinishedRuns(yesterday).isEmpty());
+        Assertions.assertEquals(Set.of(0, 1), checkpoints.getCompletedChunks(LocalDate.now()));
+    }
+
+    private static class InMemoryCheckpointDao implements GraduationCheckpointDao {
+        private final Map<LocalDate, Boolean> runs = new TreeMap<>();
+        private final Map<LocalDate, Set<Integer>> checkpoints = new HashMap<>();
+
+        @Override
+        public synchronized void startRun(LocalDate runDate) {
+            runs.putIfAbsent(runDate, false);
+        }
+
+        @Override
+        public synchronized void finishRun(LocalDate runDate) {
+            runs.put(runDate, true);
+        }
+
+        @Override
+        public synchronized List<LocalDate> getUnfinishedRuns(LocalDate since) {
+            return runs.entrySet().stream()
+                    .filter(run -> !run.getValue() && !run.getKey().isBefore(since))
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+
+        @Override
+        public synchronized Set<Integer> getCompletedChunks(LocalDate runDate) {
+            return new HashSet<>(checkpoints.getOrDefault(runDate, Set.of()));
+        }
+
+        @Override
+        public synchronized void saveCheckpoint(LocalDate runDate, int chunk, int graduates) {
+            checkpoints.computeIfAbsent(runDate, date -> new HashSet<>()).add(chunk);
+        }
+    }
+}
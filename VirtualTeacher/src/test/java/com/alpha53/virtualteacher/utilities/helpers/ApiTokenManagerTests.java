@@ -0,0 +1,134 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import com.alpha53.virtualteacher.config.AuthProperties;
+import com.alpha53.virtualteacher.exceptions.AuthorizationException;
+import com.alpha53.virtualteacher.models.Role;
+import com.alpha53.virtualteacher.models.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+public class ApiTokenManagerTests {
+    private static final Instant NOW = Instant.parse("2024-01-15T10:00:00Z");
+
+    private AuthProperties authProperties;
+    private ApiTokenManager tokenManager;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        authProperties = new AuthProperties();
+        authProperties.setTokenSecret(Base64.getEncoder().encodeToString(new byte[32]));
+        tokenManager = new ApiTokenManager(authProperties, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        Role role = new Role();
+        role.setRoleId(2);
+        role.setRoleType("Teacher");
+        user = new User(7, "teacher@mail.com", "secret", "Ivan", "Petrov", role, "photo.png");
+        user.setVerified(true);
+    }
+
+    @Test
+    public void verify_Should_ReturnTokenOwner() {
+        ApiTokenManager.IssuedToken token = tokenManager.issue(user);
+
+        User principal = tokenManager.verify(token.token());
+
+        Assertions.assertEquals(7, principal.getUserId());
+        Assertions.assertEquals("teacher@mail.com", principal.getEmail());
+        Assertions.assertEquals(2, principal.getRole().getRoleId());
+        Assertions.assertEquals("Teacher", principal.getRole().getRoleType());
+        Assertions.assertTrue(principal.isVerified());
+        Assertions.assertNull(principal.getPassword());
+        Assertions.assertEquals(NOW.plus(authProperties.getTokenTtl()), token.expiresAt());
+    }
+
+    @Test
+    public void verify_Should_Throw_When_PayloadTampered() {
+        String token = tokenManager.issue(user).token();
+        char[] chars = token.toCharArray();
+        chars[20] = chars[20] == 'A' ? 'B' : 'A';
+
+        Assertions.assertThrows(AuthorizationException.class, () -> tokenManager.verify(new String(chars)));
+    }
+
+    @Test
+    public void verify_Should_Throw_When_SignedWithOtherKey() {
+        authProperties.setTokenSecret(null);
+        ApiTokenManager otherManager = new ApiTokenManager(authProperties, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        String token = otherManager.issue(user).token();
+
+        Assertions.assertThrows(AuthorizationException.class, () -> tokenManager.verify(token));
+    }
+
+    @Test
+    public void verify_Should_Throw_When_TokenMalformed() {
+        Assertions.assertThrows(AuthorizationException.class, () -> tokenManager.verify("not-a-token"));
+        Assertions.assertThrows(AuthorizationException.class, () -> tokenManager.verify("%%%.%%%"));
+    }
+
+    @Test
+    public void verify_Should_Throw_When_TokenExpired() {
+        String token = tokenManager.issue(user).token();
+        Instant later = NOW.plus(authProperties.getTokenTtl()).plus(Duration.ofSeconds(1));
+        ApiTokenManager laterManager = new ApiTokenManager(authProperties, Clock.fixed(later, ZoneOffset.UTC));
+
+        Assertions.assertThrows(AuthorizationException.class, () -> laterManager.verify(token));
+    }
+
+    @Test
+    public void revoke_Should_RejectOnlyRevokedToken() {
+        String revoked = tokenManager.issue(user).token();
+        String other = tokenManager.issue(user).token();
+
+        tokenManager.revoke(revoked);
+
+        Assertions.assertThrows(AuthorizationException.class, () -> tokenManager.verify(revoked));
+        Assertions.assertEquals(7, tokenManager.verify(other).getUserId());
+    }
+
+    @Test
+    public void purgeRevoked_Should_DropTokensOnceExpired() {
+        MutableClock clock = new MutableClock(NOW);
+        ApiTokenManager manager = new ApiTokenManager(authProperties, clock);
+        manager.revoke(manager.issue(user).token());
+
+        manager.purgeRevoked();
+        Assertions.assertEquals(1, manager.revokedCount());
+
+        clock.instant = NOW.plus(authProperties.getTokenTtl());
+        manager.purgeRevoked();
+        Assertions.assertEquals(0, manager.revokedCount());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
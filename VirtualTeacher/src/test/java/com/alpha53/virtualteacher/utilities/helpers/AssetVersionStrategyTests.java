@@ -0,0 +1,50 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+public class AssetVersionStrategyTests {
+    private static final String HASH = "0123456789abcdef0123456789abcdef";
+
+    private final AssetVersionStrategy strategy = new AssetVersionStrategy(manifest());
+
+    @Test
+    public void getResourceVersion_Should_ReturnManifestHash_When_AssetInManifest() {
+        Assertions.assertEquals(HASH, strategy.getResourceVersion(new ClassPathResource("static/css/style.css")));
+    }
+
+    @Test
+    public void getResourceVersion_Should_HashContent_When_AssetNotInManifest() {
+        byte[] content = "body {}".getBytes(StandardCharsets.UTF_8);
+
+        Assertions.assertEquals(DigestUtils.md5DigestAsHex(content), strategy.getResourceVersion(new ByteArrayResource(content)));
+    }
+
+    @Test
+    public void isFingerprinted_Should_ReturnTrue_When_PathCarriesCurrentHash() {
+        Assertions.assertTrue(strategy.isFingerprinted("css/style-" + HASH + ".css"));
+    }
+
+    @Test
+    public void isFingerprinted_Should_ReturnFalse_When_PathCarriesStaleHash() {
+        Assertions.assertFalse(strategy.isFingerprinted("css/style-fedcba9876543210fedcba9876543210.css"));
+    }
+
+    @Test
+    public void isFingerprinted_Should_ReturnFalse_When_PathNotVersioned() {
+        Assertions.assertFalse(strategy.isFingerprinted("css/style.css"));
+        Assertions.assertFalse(strategy.isFingerprinted("assets/images/logo/logo-dark.png"));
+    }
+
+    private static Properties manifest() {
+        Properties manifest = new Properties();
+        manifest.setProperty("css/style.css", HASH);
+        return manifest;
+    }
+}
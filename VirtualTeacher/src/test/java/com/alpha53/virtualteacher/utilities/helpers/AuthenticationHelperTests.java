@@ -0,0 +1,195 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import com.alpha53.virtualteacher.config.AuthProperties;
+import com.alpha53.virtualteacher.exceptions.AuthorizationException;
+import com.alpha53.virtualteacher.exceptions.EntityNotFoundException;
+import com.alpha53.virtualteacher.models.Role;
+import com.alpha53.virtualteacher.models.User;
+import com.alpha53.virtualteacher.services.contracts.UserService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+@ExtendWith(MockitoExtension.class)
+public class AuthenticationHelperTests {
+    private static final Instant NOW = Instant.parse("2024-01-15T10:00:00Z");
+
+    @Mock
+    UserService userService;
+
+    @Mock
+    ApiTokenManager apiTokenManager;
+
+    @Mock
+    CredentialVerifier credentialVerifier;
+
+    private final UserChangeTracker userChangeTracker = new UserChangeTracker();
+    private final MockHttpSession session = new MockHttpSession();
+    private AuthenticationHelper authenticationHelper;
+
+    @BeforeEach
+    public void setUp() {
+        authenticationHelper = new AuthenticationHelper(userService, apiTokenManager, credentialVerifier, userChangeTracker);
+    }
+
+    @Test
+    public void tryGetCurrentUser_Should_ServeSessionSnapshotWithoutLoading() {
+        logIn(createUser("Student"));
+
+        User first = authenticationHelper.tryGetCurrentUser(session);
+        first.setFirstName("Changed");
+        User second = authenticationHelper.tryGetCurrentUser(session);
+
+        Assertions.assertEquals("MockName", second.getFirstName());
+        Mockito.verify(userService, Mockito.times(1)).get("mockemail@abv.bg");
+    }
+
+    @Test
+    public void tryGetCurrentUser_Should_LeavePasswordOutOfSession() {
+        logIn(createUser("Student"));
+
+        User user = authenticationHelper.tryGetCurrentUser(session);
+
+        Assertions.assertNull(user.getPassword());
+    }
+
+    @Test
+    public void tryGetCurrentUser_Should_ReloadUser_When_ChangedInOtherSession() {
+        logIn(createUser("Student"));
+        Mockito.when(userService.get("mockemail@abv.bg")).thenReturn(createUser("Admin"));
+
+        userChangeTracker.userChanged(1);
+        User user = authenticationHelper.tryGetCurrentUser(session);
+
+        Assertions.assertEquals("Admin", user.getRole().getRoleType());
+        Assertions.assertEquals("Admin", session.getAttribute("currentUserRole"));
+        authenticationHelper.tryGetCurrentUser(session);
+        Mockito.verify(userService, Mockito.times(2)).get("mockemail@abv.bg");
+    }
+
+    @Test
+    public void tryGetCurrentUser_Should_KeepSnapshot_When_OtherUserChanged() {
+        logIn(createUser("Student"));
+
+        userChangeTracker.userChanged(2);
+        authenticationHelper.tryGetCurrentUser(session);
+
+        Mockito.verify(userService, Mockito.times(1)).get("mockemail@abv.bg");
+    }
+
+    @Test
+    public void tryGetCurrentUser_Should_LogOut_When_UserDeleted() {
+        logIn(createUser("Student"));
+        Mockito.when(userService.get("mockemail@abv.bg")).thenThrow(EntityNotFoundException.class);
+
+        userChangeTracker.userChanged(1);
+
+        Assertions.assertThrows(AuthorizationException.class, () -> authenticationHelper.tryGetCurrentUser(session));
+        Assertions.assertNull(session.getAttribute("currentUser"));
+    }
+
+    @Test
+    public void tryGetCurrentUser_Should_Throw_When_NotLoggedIn() {
+        Assertions.assertThrows(AuthorizationException.class, () -> authenticationHelper.tryGetCurrentUser(session));
+    }
+
+    @Test
+    public void tryGetUser_Should_ReturnTokenOwner_When_BearerTokenValid() {
+        ApiTokenManager tokenManager = createTokenManager(NOW);
+        String token = tokenManager.issue(createUser("Teacher")).token();
+
+        User user = createTokenHelper(tokenManager).tryGetUser(bearer(token));
+
+        Assertions.assertEquals(1, user.getUserId());
+        Assertions.assertEquals("Teacher", user.getRole().getRoleType());
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    @Test
+    public void tryGetUser_Should_Throw_When_BearerTokenRevoked() {
+        ApiTokenManager tokenManager = createTokenManager(NOW);
+        AuthenticationHelper tokenHelper = createTokenHelper(tokenManager);
+        HttpHeaders headers = bearer(tokenManager.issue(createUser("Teacher")).token());
+
+        tokenHelper.revokeToken(headers);
+
+        Assertions.assertThrows(AuthorizationException.class, () -> tokenHelper.tryGetUser(headers));
+    }
+
+    @Test
+    public void tryGetUser_Should_Throw_When_BearerTokenExpired() {
+        AuthProperties authProperties = createAuthProperties();
+        String token = createTokenManager(NOW).issue(createUser("Teacher")).token();
+        ApiTokenManager laterTokenManager = createTokenManager(NOW.plus(authProperties.getTokenTtl()).plusSeconds(1));
+
+        Assertions.assertThrows(AuthorizationException.class,
+                () -> createTokenHelper(laterTokenManager).tryGetUser(bearer(token)));
+    }
+
+    @Test
+    public void tryGetUser_Should_Throw_When_BearerTokenTampered() {
+        ApiTokenManager tokenManager = createTokenManager(NOW);
+        char[] token = tokenManager.issue(createUser("Teacher")).token().toCharArray();
+        token[20] = token[20] == 'A' ? 'B' : 'A';
+        String tampered = new String(token);
+
+        Assertions.assertThrows(AuthorizationException.class,
+                () -> createTokenHelper(tokenManager).tryGetUser(bearer(tampered)));
+    }
+
+    @Test
+    public void tryGetUserProfile_Should_LoadStoredUser_When_BearerTokenValid() {
+        ApiTokenManager tokenManager = createTokenManager(NOW);
+        String token = tokenManager.issue(createUser("Teacher")).token();
+        Mockito.when(userService.get(1)).thenReturn(createUser("Teacher"));
+
+        User user = createTokenHelper(tokenManager).tryGetUserProfile(bearer(token));
+
+        Assertions.assertEquals("MockName", user.getFirstName());
+        Assertions.assertEquals("MockSurname", user.getLastName());
+    }
+
+    private AuthenticationHelper createTokenHelper(ApiTokenManager tokenManager) {
+        return new AuthenticationHelper(userService, tokenManager, credentialVerifier, userChangeTracker);
+    }
+
+    private static ApiTokenManager createTokenManager(Instant now) {
+        return new ApiTokenManager(createAuthProperties(), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static AuthProperties createAuthProperties() {
+        AuthProperties authProperties = new AuthProperties();
+        authProperties.setTokenSecret(Base64.getEncoder().encodeToString(new byte[32]));
+        return authProperties;
+    }
+
+    private static HttpHeaders bearer(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, ApiTokenManager.TOKEN_TYPE + " " + token);
+        return headers;
+    }
+
+    private void logIn(User user) {
+        Mockito.when(userService.get(user.getEmail())).thenReturn(user);
+        Mockito.when(credentialVerifier.verify(user, "BilalB@ri123")).thenReturn(true);
+        authenticationHelper.logIn(session, user.getEmail(), "BilalB@ri123");
+    }
+
+    private static User createUser(String roleType) {
+        Role role = new Role();
+        role.setRoleId(1);
+        role.setRoleType(roleType);
+        return new User(1, "mockemail@abv.bg", "hash", "MockName", "MockSurname", role, "avatar.png", true, null);
+    }
+}
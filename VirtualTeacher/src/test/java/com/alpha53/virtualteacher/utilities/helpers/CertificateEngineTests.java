@@ -0,0 +1,66 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class CertificateEngineTests {
+
+    private final CertificateEngine certificateEngine = new CertificateEngine();
+
+    @AfterEach
+    public void tearDown() {
+        certificateEngine.shutdown();
+    }
+
+    @Test
+    public void generateCertificate_Should_RenderReadablePdf() throws IOException {
+        ByteArrayOutputStream certificate = certificateEngine.generateCertificate("Jöhn (Doe)", "Java \\ Basics");
+
+        try (PDDocument document = PDDocument.load(certificate.toByteArray())) {
+            String text = new PDFTextStripper().getText(document);
+            Assertions.assertEquals(1, document.getNumberOfPages());
+            Assertions.assertTrue(text.contains("Certificate of Completion"));
+            Assertions.assertTrue(text.contains("Jöhn (Doe)"));
+            Assertions.assertTrue(text.contains("Java \\ Basics"));
+        }
+    }
+
+    @Test
+    public void renderBatch_Should_RenderCertificateForEveryRecipient() throws IOException {
+        List<String> students = List.of("Anna", "Boris", "Cvetan", "Daria", "Emil");
+        Map<String, byte[]> certificates = new ConcurrentHashMap<>();
+
+        List<String> failed = certificateEngine.renderBatch(students, student -> student, student -> "Java",
+                (student, certificate) -> certificates.put(student, certificate.toByteArray()));
+
+        Assertions.assertTrue(failed.isEmpty());
+        for (String student : students) {
+            try (PDDocument document = PDDocument.load(certificates.get(student))) {
+                Assertions.assertTrue(new PDFTextStripper().getText(document).contains(student));
+            }
+        }
+    }
+
+    @Test
+    public void renderBatch_Should_ReturnFailedRecipients_When_ConsumerFails() {
+        List<String> students = List.of("Anna", "Boris", "Cvetan");
+
+        List<String> failed = certificateEngine.renderBatch(students, student -> student, student -> "Java",
+                (student, certificate) -> {
+                    if (student.equals("Boris")) {
+                        throw new IllegalStateException();
+                    }
+                });
+
+        Assertions.assertEquals(List.of("Boris"), failed);
+    }
+}
@@ -0,0 +1,57 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+public class CourseChangeTrackerTests {
+    private static final Instant START = Instant.parse("2026-01-01T10:00:00Z");
+
+    private final CourseChangeTracker tracker = new CourseChangeTracker(Clock.fixed(START, ZoneOffset.UTC));
+
+    @Test
+    public void courseChanged_Should_ChangeCourseAndCatalogVersion() {
+        CourseChangeTracker.Version course = tracker.courseVersion(1);
+        CourseChangeTracker.Version catalog = tracker.catalogVersion();
+
+        tracker.courseChanged(1);
+
+        Assertions.assertNotEquals(course, tracker.courseVersion(1));
+        Assertions.assertNotEquals(catalog, tracker.catalogVersion());
+        Assertions.assertEquals(tracker.catalogVersion(), tracker.courseVersion(1));
+    }
+
+    @Test
+    public void courseChanged_Should_KeepVersionOfOtherCourses() {
+        CourseChangeTracker.Version other = tracker.courseVersion(2);
+
+        tracker.courseChanged(1);
+
+        Assertions.assertEquals(other, tracker.courseVersion(2));
+    }
+
+    @Test
+    public void allCoursesChanged_Should_ChangeVersionOfEveryCourse() {
+        tracker.courseChanged(1);
+        CourseChangeTracker.Version first = tracker.courseVersion(1);
+        CourseChangeTracker.Version second = tracker.courseVersion(2);
+
+        tracker.allCoursesChanged();
+
+        Assertions.assertNotEquals(first, tracker.courseVersion(1));
+        Assertions.assertNotEquals(second, tracker.courseVersion(2));
+    }
+
+    @Test
+    public void eTag_Should_DifferBetweenVariantsAndInstances() {
+        CourseChangeTracker restarted = new CourseChangeTracker(Clock.fixed(START.plusSeconds(60), ZoneOffset.UTC));
+        CourseChangeTracker.Version version = tracker.courseVersion(1);
+
+        Assertions.assertEquals(tracker.eTag(version, "all"), tracker.eTag(tracker.courseVersion(1), "all"));
+        Assertions.assertNotEquals(tracker.eTag(version, "all"), tracker.eTag(version, "public"));
+        Assertions.assertNotEquals(tracker.eTag(version, "all"), restarted.eTag(restarted.courseVersion(1), "all"));
+    }
+}
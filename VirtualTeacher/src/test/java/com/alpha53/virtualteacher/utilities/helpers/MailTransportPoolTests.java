@@ -0,0 +1,129 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.*;
+
+public class MailTransportPoolTests {
+    private static final Duration BORROW_TIMEOUT = Duration.ofMillis(200);
+
+    private final List<Transport> opened = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch blockSends;
+    private volatile CountDownLatch sending;
+    private MailTransportPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        pool = new MailTransportPool(Session.getInstance(new Properties()), this::connect, BORROW_TIMEOUT);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void send_Should_ReuseConnection_When_Returned() throws MessagingException {
+        pool.send(message());
+        pool.send(message());
+
+        Assertions.assertEquals(1, opened.size());
+        Mockito.verify(opened.get(0), Mockito.times(2)).sendMessage(Mockito.any(), Mockito.any());
+        Mockito.verify(opened.get(0), Mockito.never()).close();
+        Assertions.assertEquals(1, pool.getMetrics().get("idleConnections"));
+        Assertions.assertEquals(2L, pool.getMetrics().get("messagesSent"));
+    }
+
+    @Test
+    public void send_Should_DropConnection_When_SendFails() throws MessagingException {
+        pool.send(message());
+        Transport broken = opened.get(0);
+        Mockito.doThrow(new MessagingException("Connection reset")).when(broken).sendMessage(Mockito.any(), Mockito.any());
+
+        Assertions.assertThrows(MessagingException.class, () -> pool.send(message()));
+        pool.send(message());
+
+        Mockito.verify(broken, Mockito.times(1)).close();
+        Assertions.assertEquals(2, opened.size());
+        Assertions.assertEquals(1L, pool.getMetrics().get("sendFailures"));
+    }
+
+    @Test
+    public void send_Should_EvictIdleConnection_When_Disconnected() throws MessagingException {
+        pool.send(message());
+        Transport disconnected = opened.get(0);
+        Mockito.when(disconnected.isConnected()).thenReturn(false);
+
+        pool.send(message());
+
+        Mockito.verify(disconnected, Mockito.times(1)).close();
+        Mockito.verify(disconnected, Mockito.times(1)).sendMessage(Mockito.any(), Mockito.any());
+        Assertions.assertEquals(2, opened.size());
+        Assertions.assertEquals(1L, pool.getMetrics().get("connectionsClosed"));
+    }
+
+    @Test
+    public void send_Should_FailAfterTimeout_When_AllConnectionsBusy() throws Exception {
+        blockSends = new CountDownLatch(1);
+        sending = new CountDownLatch(MailTransportPool.MAX_CONNECTIONS);
+        ExecutorService senders = Executors.newFixedThreadPool(MailTransportPool.MAX_CONNECTIONS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < MailTransportPool.MAX_CONNECTIONS; i++) {
+                futures.add(senders.submit(() -> {
+                    pool.send(message());
+                    return null;
+                }));
+            }
+            Assertions.assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            Assertions.assertThrows(MessagingException.class, () -> pool.send(message()));
+            Assertions.assertTrue(System.nanoTime() - start >= BORROW_TIMEOUT.toNanos());
+
+            blockSends.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+            Assertions.assertEquals(MailTransportPool.MAX_CONNECTIONS, opened.size());
+        } finally {
+            blockSends.countDown();
+            senders.shutdown();
+        }
+    }
+
+    private Transport connect() throws MessagingException {
+        Transport transport = Mockito.mock(Transport.class);
+        Mockito.when(transport.isConnected()).thenReturn(true);
+        CountDownLatch block = blockSends;
+        if (block != null) {
+            Mockito.doAnswer(invocation -> {
+                sending.countDown();
+                block.await();
+                return null;
+            }).when(transport).sendMessage(Mockito.any(), Mockito.any());
+        }
+        opened.add(transport);
+        return transport;
+    }
+
+    private MimeMessage message() throws MessagingException {
+        MimeMessage message = pool.createMessage();
+        message.setRecipients(Message.RecipientType.TO, "student@mail.com");
+        message.setText("Body");
+        return message;
+    }
+}
@@ -0,0 +1,40 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PasswordHasherTests {
+    private final PasswordHasher passwordHasher = new PasswordHasher(1_000);
+
+    @Test
+    public void hash_Should_SaltEveryHash() {
+        String first = passwordHasher.hash("P@ssw0rd");
+        String second = passwordHasher.hash("P@ssw0rd");
+
+        Assertions.assertNotEquals(first, second);
+        Assertions.assertTrue(PasswordHasher.isHashed(first));
+        Assertions.assertTrue(first.startsWith("pbkdf2-sha256$1000$"));
+    }
+
+    @Test
+    public void matches_Should_AcceptOnlyTheHashedPassword() {
+        String stored = passwordHasher.hash("P@ssw0rd");
+
+        Assertions.assertTrue(passwordHasher.matches("P@ssw0rd", stored));
+        Assertions.assertFalse(passwordHasher.matches("P@ssw0rD", stored));
+    }
+
+    @Test
+    public void matches_Should_UseIterationsOfStoredHash() {
+        String stored = new PasswordHasher(2_000).hash("P@ssw0rd");
+
+        Assertions.assertTrue(passwordHasher.matches("P@ssw0rd", stored));
+    }
+
+    @Test
+    public void matches_Should_RejectPlaintextAndMalformedValues() {
+        Assertions.assertFalse(passwordHasher.matches("P@ssw0rd", "P@ssw0rd"));
+        Assertions.assertFalse(passwordHasher.matches("P@ssw0rd", "pbkdf2-sha256$1000$%%$%%"));
+        Assertions.assertFalse(passwordHasher.matches("P@ssw0rd", null));
+    }
+}
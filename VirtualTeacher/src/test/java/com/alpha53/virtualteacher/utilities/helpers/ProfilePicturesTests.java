@@ -0,0 +1,103 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import com.alpha53.virtualteacher.config.StorageProperties;
+import com.alpha53.virtualteacher.exceptions.StorageException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ProfilePicturesTests {
+    private static final String PICTURE_URL = "/assets/fileStorage/picture.png";
+
+    @TempDir
+    Path storage;
+
+    private ProfilePictures profilePictures;
+
+    @BeforeEach
+    public void setUp() {
+        StorageProperties storageProperties = new StorageProperties();
+        storageProperties.setLocation(storage.toString());
+        profilePictures = new ProfilePictures(storageProperties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        profilePictures.shutdown();
+    }
+
+    @Test
+    public void storeVariants_Should_WriteSquareVariants_When_PictureStored() throws IOException {
+        ImageIO.write(new BufferedImage(300, 200, BufferedImage.TYPE_INT_ARGB), "png", storage.resolve("picture.png").toFile());
+
+        profilePictures.storeVariants(PICTURE_URL);
+
+        assertSquare(storage.resolve("picture-64.png"), 64);
+        assertSquare(storage.resolve("picture-128.png"), 128);
+        // Not enlarged beyond the picture
+        assertSquare(storage.resolve("picture-512.png"), 200);
+    }
+
+    @Test
+    public void storeVariants_Should_Throw_When_PictureCanNotBeDecoded() throws IOException {
+        Files.writeString(storage.resolve("picture.png"), "not a picture");
+
+        Assertions.assertThrows(StorageException.class, () -> profilePictures.storeVariants(PICTURE_URL));
+    }
+
+    @Test
+    public void storeVariants_Should_DeleteAllVariants_When_OneVariantFails() throws IOException {
+        ImageIO.write(new BufferedImage(600, 600, BufferedImage.TYPE_INT_RGB), "png", storage.resolve("picture.png").toFile());
+        // The variant can not be written over a directory
+        Files.createDirectory(storage.resolve("picture-128.png"));
+
+        Assertions.assertThrows(StorageException.class, () -> profilePictures.storeVariants(PICTURE_URL));
+
+        Assertions.assertFalse(Files.exists(storage.resolve("picture-64.png")));
+        Assertions.assertFalse(Files.exists(storage.resolve("picture-512.png")));
+    }
+
+    @Test
+    public void url_Should_ReturnSmallestVariantWhichFits_When_VariantsStored() throws IOException {
+        ImageIO.write(new BufferedImage(600, 600, BufferedImage.TYPE_INT_RGB), "png", storage.resolve("picture.png").toFile());
+        profilePictures.storeVariants(PICTURE_URL);
+
+        Assertions.assertEquals("/assets/fileStorage/picture-64.png", profilePictures.url(PICTURE_URL, 52));
+        Assertions.assertEquals("/assets/fileStorage/picture-128.png", profilePictures.url(PICTURE_URL, 120));
+        Assertions.assertEquals("/assets/fileStorage/picture-512.png", profilePictures.url(PICTURE_URL, 1000));
+        Assertions.assertEquals("/assets/fileStorage/picture-64.png 64w, /assets/fileStorage/picture-128.png 128w, " +
+                "/assets/fileStorage/picture-512.png 512w", profilePictures.srcset(PICTURE_URL));
+    }
+
+    @Test
+    public void url_Should_ReturnOriginal_When_PictureHasNoVariants() {
+        Assertions.assertEquals(PICTURE_URL, profilePictures.url(PICTURE_URL, 52));
+        Assertions.assertNull(profilePictures.srcset(PICTURE_URL));
+    }
+
+    @Test
+    public void deleteVariants_Should_RemoveVariants() throws IOException {
+        ImageIO.write(new BufferedImage(600, 600, BufferedImage.TYPE_INT_RGB), "png", storage.resolve("picture.png").toFile());
+        profilePictures.storeVariants(PICTURE_URL);
+
+        profilePictures.deleteVariants(PICTURE_URL);
+
+        Assertions.assertFalse(Files.exists(storage.resolve("picture-64.png")));
+        Assertions.assertFalse(Files.exists(storage.resolve("picture-512.png")));
+        Assertions.assertTrue(Files.exists(storage.resolve("picture.png")));
+    }
+
+    private static void assertSquare(Path file, int side) throws IOException {
+        BufferedImage image = ImageIO.read(file.toFile());
+        Assertions.assertEquals(side, image.getWidth());
+        Assertions.assertEquals(side, image.getHeight());
+    }
+}
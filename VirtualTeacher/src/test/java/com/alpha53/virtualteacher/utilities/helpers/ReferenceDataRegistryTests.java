@@ -0,0 +1,108 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import com.alpha53.virtualteacher.models.Role;
+import com.alpha53.virtualteacher.models.Topic;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+public class ReferenceDataRegistryTests {
+    private static final Instant NOW = Instant.parse("2026-01-01T10:00:00.750Z");
+
+    private final MutableClock clock = new MutableClock(NOW);
+    private final ReferenceDataRegistry registry = new ReferenceDataRegistry(clock);
+
+    @Test
+    public void getTopic_Should_FindTopicByIdAndName() {
+        registry.replaceTopics(List.of(new Topic(2, "Java"), new Topic(1, "Databases")));
+
+        Assertions.assertEquals(Optional.of(new Topic(2, "Java")), registry.getTopic(2));
+        Assertions.assertEquals(Optional.of(new Topic(1, "Databases")), registry.getTopic("databases"));
+        Assertions.assertEquals(Optional.empty(), registry.getTopic(3));
+        Assertions.assertEquals(List.of(new Topic(1, "Databases"), new Topic(2, "Java")), registry.getTopics());
+    }
+
+    @Test
+    public void getTopic_Should_ReturnCopy() {
+        registry.replaceTopics(List.of(new Topic(1, "Java")));
+
+        registry.getTopic(1).get().setTopic("Changed");
+
+        Assertions.assertEquals("Java", registry.getTopic(1).get().getTopic());
+    }
+
+    @Test
+    public void getRole_Should_IgnoreCase() {
+        registry.replaceRoles(List.of(role(1, "Student"), role(3, "Admin")));
+
+        Assertions.assertEquals(3, registry.getRole("ADMIN").get().getRoleId());
+        Assertions.assertEquals("Student", registry.getRole(1).get().getRoleType());
+        Assertions.assertTrue(registry.getRole("Teacher").isEmpty());
+    }
+
+    @Test
+    public void replaceTopics_Should_KeepVersion_When_ContentIsUnchanged() {
+        registry.replaceTopics(List.of(new Topic(1, "Java")));
+        long version = registry.getTopicsVersion();
+
+        Assertions.assertFalse(registry.replaceTopics(List.of(new Topic(1, "Java"))));
+        Assertions.assertEquals(version, registry.getTopicsVersion());
+    }
+
+    @Test
+    public void replaceTopics_Should_ChangeVersion_When_ContentChanges() {
+        registry.replaceTopics(List.of(new Topic(1, "Java")));
+        long version = registry.getTopicsVersion();
+
+        Assertions.assertTrue(registry.replaceTopics(List.of(new Topic(1, "Java"), new Topic(2, "Spring"))));
+        Assertions.assertNotEquals(version, registry.getTopicsVersion());
+    }
+
+    @Test
+    public void tryAcquireTopicsMissReload_Should_AllowOneReloadPerInterval() {
+        Assertions.assertTrue(registry.tryAcquireTopicsMissReload());
+        Assertions.assertFalse(registry.tryAcquireTopicsMissReload());
+        // Roles are limited on their own
+        Assertions.assertTrue(registry.tryAcquireRolesMissReload());
+
+        clock.instant = NOW.plus(ReferenceDataRegistry.MISS_RELOAD_INTERVAL);
+
+        Assertions.assertTrue(registry.tryAcquireTopicsMissReload());
+    }
+
+    private static Role role(int id, String roleType) {
+        Role role = new Role();
+        role.setRoleId(id);
+        role.setRoleType(roleType);
+        return role;
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
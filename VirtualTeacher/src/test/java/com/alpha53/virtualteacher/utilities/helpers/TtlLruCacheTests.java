@@ -0,0 +1,66 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TtlLruCacheTests {
+    private final AtomicLong clock = new AtomicLong();
+    private final TtlLruCache<String, String> cache = new TtlLruCache<>(2, Duration.ofSeconds(10), clock::get);
+
+    @Test
+    public void put_Should_EvictLeastRecentlyUsed_When_CacheIsFull() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.getIfPresent("a");
+        cache.put("c", "3");
+
+        Assertions.assertEquals(Optional.of("1"), cache.getIfPresent("a"));
+        Assertions.assertEquals(Optional.empty(), cache.getIfPresent("b"));
+        Assertions.assertEquals(1L, cache.getMetrics().get("evictions"));
+    }
+
+    @Test
+    public void get_Should_Reload_When_EntryExpired() throws Exception {
+        cache.get("a", () -> "1");
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        Assertions.assertEquals("2", cache.get("a", () -> "2"));
+        Assertions.assertEquals(1L, cache.getMetrics().get("expirations"));
+    }
+
+    @Test
+    public void invalidateAll_Should_RemoveEveryEntry() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        cache.invalidateAll();
+
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals(Optional.empty(), cache.getStale("a"));
+    }
+
+    @Test
+    public void getStale_Should_ReturnExpiredEntry() {
+        cache.put("a", "1");
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        Assertions.assertEquals(Optional.empty(), cache.getIfPresent("a"));
+        Assertions.assertEquals(Optional.of("1"), cache.getStale("a"));
+    }
+
+    @Test
+    public void get_Should_NotCache_When_LoaderFails() {
+        Assertions.assertThrows(ExecutionException.class, () -> cache.get("a", () -> {
+            throw new IOException("down");
+        }));
+
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals(1L, cache.getMetrics().get("loadFailures"));
+    }
+}
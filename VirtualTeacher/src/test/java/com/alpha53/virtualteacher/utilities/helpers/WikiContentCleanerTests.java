@@ -0,0 +1,33 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class WikiContentCleanerTests {
+
+    @Test
+    public void clean_Should_ConvertMarkupToText() {
+        String text = new WikiContentCleaner(5000).clean("'''Java''' is an island of [[Indonesia]].");
+
+        Assertions.assertTrue(text.contains("Java is an island of Indonesia."));
+    }
+
+    @Test
+    public void clean_Should_StopAtMaxLength() {
+        StringBuilder markup = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            markup.append("Paragraph ").append(i).append(" about the island of [[Java]].\n\n");
+        }
+
+        String text = new WikiContentCleaner(500).clean(markup.toString());
+
+        Assertions.assertTrue(text.length() <= 503);
+        Assertions.assertTrue(text.startsWith("Paragraph 0 about the island of Java."));
+        Assertions.assertTrue(text.endsWith("..."));
+    }
+
+    @Test
+    public void clean_Should_NotSplitTemplates() {
+        Assertions.assertEquals(10, WikiContentCleaner.nextBoundary("{{a\n\nb}}\n\nc\n\nd", 0, 1));
+    }
+}
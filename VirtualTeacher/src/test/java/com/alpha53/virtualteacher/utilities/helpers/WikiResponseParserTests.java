@@ -0,0 +1,67 @@
+package com.alpha53.virtualteacher.utilities.helpers;
+
+import com.alpha53.virtualteacher.models.WikiResult;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+public class WikiResponseParserTests {
+    private static final String SEARCH_RESPONSE = "{\"batchcomplete\":true,\"continue\":{\"sroffset\":3,\"continue\":\"-||\"}," +
+            "\"query\":{\"searchinfo\":{\"totalhits\":4821},\"search\":[" +
+            "{\"ns\":0,\"title\":\"Java\",\"pageid\":15881,\"size\":52034,\"wordcount\":5061," +
+            "\"snippet\":\"<span class=\\\"searchmatch\\\">Java</span> is an island\",\"timestamp\":\"2023-11-20T10:00:00Z\"}," +
+            "{\"ns\":0,\"title\":\"Java (programming language)\",\"pageid\":15628,\"size\":80311,\"wordcount\":7102," +
+            "\"snippet\":\"a high-level, class-based\",\"timestamp\":\"2023-11-21T10:00:00Z\"}]}}";
+    private static final String CONTENT_RESPONSE = "{\"batchcomplete\":true,\"query\":{" +
+            "\"normalized\":[{\"fromencoded\":false,\"from\":\"java\",\"to\":\"Java\"}],\"pages\":[" +
+            "{\"pageid\":15881,\"ns\":0,\"title\":\"Java\",\"revisions\":[{\"slots\":{\"main\":" +
+            "{\"contentmodel\":\"wikitext\",\"contentformat\":\"text/x-wiki\",\"content\":\"'''Java''' is an island.\"}}}]}," +
+            "{\"ns\":0,\"title\":\"Missing\",\"missing\":true}]}}";
+    private static final String FULL_URL_RESPONSE = "{\"batchcomplete\":\"\",\"query\":{\"pages\":{" +
+            "\"15881\":{\"pageid\":15881,\"ns\":0,\"title\":\"Java\",\"contentmodel\":\"wikitext\"," +
+            "\"fullurl\":\"https://en.wikipedia.org/wiki/Java\",\"editurl\":\"https://en.wikipedia.org/w/index.php?title=Java&action=edit\"}," +
+            "\"15628\":{\"pageid\":15628,\"ns\":0,\"title\":\"Java (programming language)\"," +
+            "\"fullurl\":\"https://en.wikipedia.org/wiki/Java_(programming_language)\"}}}}";
+
+    private final WikiResponseParser parser = new WikiResponseParser(new JsonFactory());
+
+    @Test
+    public void parseSearchResults_Should_ReadPageIdTitleAndPlainSnippet() throws IOException {
+        List<WikiResult> results = parser.parseSearchResults(bytes(SEARCH_RESPONSE));
+
+        Assertions.assertEquals(2, results.size());
+        Assertions.assertEquals(15881, results.get(0).getPageid());
+        Assertions.assertEquals("Java", results.get(0).getTitle());
+        Assertions.assertEquals("Java is an island", results.get(0).getSnippet());
+        Assertions.assertEquals("Java (programming language)", results.get(1).getTitle());
+    }
+
+    @Test
+    public void parseContents_Should_ReadMainSlot_And_SkipMissingPages() throws IOException {
+        Map<Integer, String> contents = parser.parseContents(bytes(CONTENT_RESPONSE));
+
+        Assertions.assertEquals(Map.of(15881, "'''Java''' is an island."), contents);
+    }
+
+    @Test
+    public void parseFullUrls_Should_ReadPagesKeyedById() throws IOException {
+        Map<Integer, String> urls = parser.parseFullUrls(bytes(FULL_URL_RESPONSE));
+
+        Assertions.assertEquals("https://en.wikipedia.org/wiki/Java", urls.get(15881));
+        Assertions.assertEquals("https://en.wikipedia.org/wiki/Java_(programming_language)", urls.get(15628));
+    }
+
+    @Test
+    public void parseSearchResults_Should_ReturnEmptyList_When_ResponseHasNoQuery() throws IOException {
+        Assertions.assertTrue(parser.parseSearchResults(bytes("{\"error\":{\"code\":\"maxlag\"}}")).isEmpty());
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
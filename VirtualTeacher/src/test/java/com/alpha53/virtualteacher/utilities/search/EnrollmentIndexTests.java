@@ -0,0 +1,81 @@
+package com.alpha53.virtualteacher.utilities.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class EnrollmentIndexTests {
+    private EnrollmentIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new EnrollmentIndex();
+        EnrollmentIndex.Builder builder = index.builder();
+        builder.add(1, 10, true);
+        builder.add(1, 11, false);
+        builder.add(2, 10, true);
+        index.replace(builder);
+    }
+
+    @Test
+    public void replace_Should_LoadEnrollments() {
+        Assertions.assertTrue(index.isLoaded());
+        Assertions.assertTrue(index.isOngoing(1, 10));
+        Assertions.assertTrue(index.isCompleted(1, 11));
+        Assertions.assertFalse(index.isOngoing(1, 11));
+        Assertions.assertTrue(index.hasStudents(10));
+        Assertions.assertFalse(index.hasStudents(12));
+    }
+
+    @Test
+    public void complete_Should_MoveOngoingCourseToCompleted() {
+        index.complete(2, 10);
+
+        Assertions.assertFalse(index.isOngoing(2, 10));
+        Assertions.assertTrue(index.isCompleted(2, 10));
+        Assertions.assertTrue(index.hasStudents(10));
+    }
+
+    @Test
+    public void remove_Should_DropCourseStudents() {
+        index.remove(1, 10);
+        index.remove(2, 10);
+
+        Assertions.assertFalse(index.isOngoing(1, 10));
+        Assertions.assertFalse(index.hasStudents(10));
+    }
+
+    @Test
+    public void removeUser_Should_DropAllEnrollmentsOfUser() {
+        index.removeUser(1);
+
+        Assertions.assertFalse(index.isOngoing(1, 10));
+        Assertions.assertFalse(index.isCompleted(1, 11));
+        Assertions.assertFalse(index.hasStudents(11));
+        Assertions.assertTrue(index.hasStudents(10));
+    }
+
+    @Test
+    public void intSet_Should_BehaveLikeHashSet() {
+        EnrollmentIndex.IntSet set = new EnrollmentIndex.IntSet();
+        Set<Integer> expected = new HashSet<>();
+        Random random = new Random(53);
+        for (int i = 0; i < 10_000; i++) {
+            int value = 1 + random.nextInt(500);
+            if (random.nextBoolean()) {
+                Assertions.assertEquals(expected.add(value), set.add(value));
+            } else {
+                Assertions.assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+
+        Assertions.assertEquals(expected.size(), set.size());
+        for (int value = 1; value <= 500; value++) {
+            Assertions.assertEquals(expected.contains(value), set.contains(value));
+        }
+    }
+}